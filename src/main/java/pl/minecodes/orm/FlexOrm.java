@@ -2,16 +2,29 @@ package pl.minecodes.orm;
 
 import com.google.gson.Gson;
 import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import pl.minecodes.orm.connection.Connection;
 import pl.minecodes.orm.connection.ConnectionCredentials;
 import pl.minecodes.orm.connection.MongoConnection;
 import pl.minecodes.orm.connection.MySQLConnection;
 import pl.minecodes.orm.connection.SQLiteConnection;
+import pl.minecodes.orm.counter.CounterStore;
 import pl.minecodes.orm.entity.EntityRepository;
 import pl.minecodes.orm.entity.EntityRepositoryFactory;
+import pl.minecodes.orm.entity.WriteBehindBuffer;
+import pl.minecodes.orm.id.IdFilter;
+import pl.minecodes.orm.id.IdGeneratorRegistry;
+import pl.minecodes.orm.relation.CascadeDeleteStrategy;
+import pl.minecodes.orm.transfer.EntityExporter;
+import pl.minecodes.orm.transfer.EntityImporter;
 
 public class FlexOrm {
 
+  public static final int DEFAULT_MAX_FETCH_DEPTH = 3;
+
   private final DatabaseType databaseType;
 
   private final String hostname;
@@ -23,7 +36,15 @@ public class FlexOrm {
   private final Gson gson;
   private final File databaseDirectory;
 
+  private final List<WriteBehindBuffer<?>> writeBehindBuffers = new CopyOnWriteArrayList<>();
+  private final IdGeneratorRegistry idGenerators = new IdGeneratorRegistry(this);
+  private final CounterStore counters = new CounterStore(this);
+  private final Map<Class<?>, IdFilter> idFilters = new ConcurrentHashMap<>();
+
   private Connection<?> connection;
+  private CascadeDeleteStrategy cascadeDeleteStrategy = CascadeDeleteStrategy.LOADED;
+  private int maxFetchDepth = DEFAULT_MAX_FETCH_DEPTH;
+  private int relationLoadParallelism = 1;
 
   protected FlexOrm(
       DatabaseType databaseType,
@@ -131,6 +152,22 @@ public class FlexOrm {
     return EntityRepositoryFactory.createEntityRepository(this, entityClass);
   }
 
+  public <T> EntityImporter<T> importer(Class<T> entityClass) {
+    if (this.connection == null) {
+      connect();
+    }
+
+    return new EntityImporter<>(this, entityClass);
+  }
+
+  public <T> EntityExporter<T> exporter(Class<T> entityClass) {
+    if (this.connection == null) {
+      connect();
+    }
+
+    return new EntityExporter<>(this, entityClass);
+  }
+
   public DatabaseType getDatabaseType() {
     return databaseType;
   }
@@ -167,7 +204,63 @@ public class FlexOrm {
     return connection;
   }
 
+  public IdGeneratorRegistry getIdGenerators() {
+    return idGenerators;
+  }
+
+  public CounterStore getCounters() {
+    return counters;
+  }
+
+  public void registerIdFilter(Class<?> entityClass, IdFilter filter) {
+    idFilters.put(entityClass, filter);
+  }
+
+  public IdFilter getIdFilter(Class<?> entityClass) {
+    return idFilters.get(entityClass);
+  }
+
+  public CascadeDeleteStrategy getCascadeDeleteStrategy() {
+    return cascadeDeleteStrategy;
+  }
+
+  public void setCascadeDeleteStrategy(CascadeDeleteStrategy cascadeDeleteStrategy) {
+    this.cascadeDeleteStrategy = cascadeDeleteStrategy;
+  }
+
+  public int getMaxFetchDepth() {
+    return maxFetchDepth;
+  }
+
+  public void setMaxFetchDepth(int maxFetchDepth) {
+    if (maxFetchDepth < 1) {
+      throw new IllegalArgumentException("Max fetch depth must be at least 1");
+    }
+    this.maxFetchDepth = maxFetchDepth;
+  }
+
+  public int getRelationLoadParallelism() {
+    return relationLoadParallelism;
+  }
+
+  public void setRelationLoadParallelism(int relationLoadParallelism) {
+    if (relationLoadParallelism < 1) {
+      throw new IllegalArgumentException("Relation load parallelism must be at least 1");
+    }
+    this.relationLoadParallelism = relationLoadParallelism;
+  }
+
+  public void registerWriteBehindBuffer(WriteBehindBuffer<?> buffer) {
+    writeBehindBuffers.add(buffer);
+  }
+
   public void shutdown() {
+    for (WriteBehindBuffer<?> buffer : writeBehindBuffers) {
+      buffer.close();
+    }
+    writeBehindBuffers.clear();
+    counters.stopCompaction();
+
     if (this.connection != null) {
       this.connection.close();
       this.connection = null;
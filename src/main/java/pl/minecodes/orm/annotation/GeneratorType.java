@@ -0,0 +1,8 @@
+package pl.minecodes.orm.annotation;
+
+public enum GeneratorType {
+  IDENTITY,
+  HILO,
+  SNOWFLAKE,
+  UUID_V7
+}
@@ -0,0 +1,15 @@
+package pl.minecodes.orm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OrmCounter {
+
+  int stripes() default 16;
+
+  StripeSelection selection() default StripeSelection.RANDOM;
+}
@@ -6,4 +6,7 @@ import java.lang.annotation.RetentionPolicy;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface OrmEntityId {
 
+  GeneratorType generator() default GeneratorType.IDENTITY;
+
+  int allocationSize() default 50;
 }
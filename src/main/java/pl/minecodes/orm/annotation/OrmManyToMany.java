@@ -20,4 +20,6 @@ public @interface OrmManyToMany {
   FetchType fetch() default FetchType.LAZY;
 
   boolean cascade() default false;
+
+  int batchSize() default 500;
 }
@@ -14,4 +14,6 @@ public @interface OrmManyToOne {
   String joinColumn() default "";
 
   FetchType fetch() default FetchType.EAGER;
+
+  int batchSize() default 500;
 }
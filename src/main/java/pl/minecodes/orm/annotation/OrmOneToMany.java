@@ -16,4 +16,10 @@ public @interface OrmOneToMany {
   FetchType fetch() default FetchType.LAZY;
 
   boolean cascade() default false;
+
+  int batchSize() default 500;
+
+  String orderBy() default "";
+
+  int maxLoaded() default 0;
 }
\ No newline at end of file
@@ -18,4 +18,6 @@ public @interface OrmOneToOne {
   FetchType fetch() default FetchType.EAGER;
 
   boolean cascade() default false;
+
+  int batchSize() default 500;
 }
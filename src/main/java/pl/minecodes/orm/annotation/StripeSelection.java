@@ -0,0 +1,6 @@
+package pl.minecodes.orm.annotation;
+
+public enum StripeSelection {
+  RANDOM,
+  THREAD
+}
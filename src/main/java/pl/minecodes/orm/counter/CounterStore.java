@@ -0,0 +1,424 @@
+package pl.minecodes.orm.counter;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.zaxxer.hikari.HikariDataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import pl.minecodes.orm.DatabaseType;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmCounter;
+
+public class CounterStore {
+
+  public static final String COUNTERS_TABLE = "_orm_counters";
+
+  private static final int MAX_IN_CLAUSE = 500;
+  private static final Map<Class<?>, List<Field>> counterFieldsCache = new ConcurrentHashMap<>();
+
+  private final FlexOrm orm;
+  private volatile boolean tableCreated;
+  private ScheduledExecutorService compactionExecutor;
+
+  public CounterStore(FlexOrm orm) {
+    this.orm = orm;
+  }
+
+  public static List<Field> getCounterFields(Class<?> entityClass) {
+    return counterFieldsCache.computeIfAbsent(entityClass, cls -> {
+      List<Field> fields = new ArrayList<>();
+      for (Field field : cls.getDeclaredFields()) {
+        if (field.isAnnotationPresent(OrmCounter.class)) {
+          Class<?> type = field.getType();
+          if (type != long.class && type != Long.class && type != int.class
+              && type != Integer.class) {
+            throw new IllegalStateException("Counter field " + cls.getSimpleName() + "."
+                + field.getName() + " must be an int or long");
+          }
+          field.setAccessible(true);
+          fields.add(field);
+        }
+      }
+      return fields;
+    });
+  }
+
+  public static List<String> getCounterNames(Class<?> entityClass, String tableName) {
+    List<String> names = new ArrayList<>();
+    for (Field field : getCounterFields(entityClass)) {
+      names.add(getCounterName(tableName, field));
+    }
+    return names;
+  }
+
+  public static String getCounterName(String tableName, Field field) {
+    return tableName + "." + field.getName();
+  }
+
+  public void add(String name, String entityId, int stripe, long delta) {
+    if (orm.getDatabaseType() == DatabaseType.MONGODB) {
+      getCollection().updateOne(Filters.eq("_id", stripeKey(name, entityId, stripe)),
+          Updates.inc("counter_value", delta), new UpdateOptions().upsert(true));
+      return;
+    }
+
+    try (Connection connection = getSqlConnection()) {
+      upsert(connection, name, entityId, stripe, delta);
+    } catch (SQLException e) {
+      throw new RuntimeException("Error incrementing counter " + name, e);
+    }
+  }
+
+  public long sum(String name, String entityId) {
+    return sums(name, List.of(entityId)).getOrDefault(entityId, 0L);
+  }
+
+  public Map<String, Long> sums(String name, Collection<String> entityIds) {
+    Map<String, Long> result = new HashMap<>();
+    List<String> ids = new ArrayList<>(new LinkedHashSet<>(entityIds));
+
+    for (int start = 0; start < ids.size(); start += MAX_IN_CLAUSE) {
+      List<String> chunk = ids.subList(start, Math.min(start + MAX_IN_CLAUSE, ids.size()));
+      if (orm.getDatabaseType() == DatabaseType.MONGODB) {
+        sumsInCollection(name, chunk, result);
+      } else {
+        sumsInTable(name, chunk, result);
+      }
+    }
+
+    return result;
+  }
+
+  public int compact(String name, String entityId) {
+    if (orm.getDatabaseType() == DatabaseType.MONGODB) {
+      return compactInCollection(name, entityId);
+    }
+
+    try (Connection connection = getSqlConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        List<Long> moved = orm.getDatabaseType() == DatabaseType.MYSQL
+            ? removeStripesMySQL(connection, name, entityId)
+            : removeStripesSQLite(connection, name, entityId);
+
+        long total = 0;
+        for (long value : moved) {
+          total += value;
+        }
+        if (!moved.isEmpty()) {
+          upsert(connection, name, entityId, 0, total);
+        }
+
+        connection.commit();
+        return moved.size();
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error compacting counter " + name, e);
+    }
+  }
+
+  public int compactAll() {
+    Set<List<String>> counters = new LinkedHashSet<>();
+
+    if (orm.getDatabaseType() == DatabaseType.MONGODB) {
+      for (Document document : getCollection().find(Filters.ne("_id.stripe", 0))) {
+        Document key = document.get("_id", Document.class);
+        counters.add(List.of(key.getString("name"), key.getString("entity_id")));
+      }
+    } else {
+      try (Connection connection = getSqlConnection();
+          Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery("SELECT DISTINCT name, entity_id FROM "
+              + COUNTERS_TABLE + " WHERE stripe <> 0")) {
+        while (resultSet.next()) {
+          counters.add(List.of(resultSet.getString(1), resultSet.getString(2)));
+        }
+      } catch (SQLException e) {
+        throw new RuntimeException("Error listing counters for compaction", e);
+      }
+    }
+
+    int compacted = 0;
+    for (List<String> counter : counters) {
+      compacted += compact(counter.get(0), counter.get(1));
+    }
+    return compacted;
+  }
+
+  public void delete(String name, String entityId) {
+    if (orm.getDatabaseType() == DatabaseType.MONGODB) {
+      getCollection().deleteMany(counterFilter(name, List.of(entityId)));
+      return;
+    }
+
+    try (Connection connection = getSqlConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "DELETE FROM " + COUNTERS_TABLE + " WHERE name = ? AND entity_id = ?")) {
+      statement.setString(1, name);
+      statement.setString(2, entityId);
+      statement.executeUpdate();
+    } catch (SQLException e) {
+      throw new RuntimeException("Error deleting counter " + name, e);
+    }
+  }
+
+  public void deleteAll(Collection<String> names, String entityId, Connection connection)
+      throws SQLException {
+    if (names.isEmpty() || !tableExists(connection)) {
+      return;
+    }
+
+    List<String> nameList = new ArrayList<>(names);
+    String sql = "DELETE FROM " + COUNTERS_TABLE + " WHERE entity_id = ? AND name IN ("
+        + "?, ".repeat(nameList.size() - 1) + "?)";
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setString(1, entityId);
+      for (int i = 0; i < nameList.size(); i++) {
+        statement.setString(i + 2, nameList.get(i));
+      }
+      statement.executeUpdate();
+    }
+  }
+
+  public void deleteAll(Collection<String> names, String entityId, ClientSession session) {
+    if (names.isEmpty()) {
+      return;
+    }
+
+    Bson filter = Filters.and(Filters.in("_id.name", names),
+        Filters.eq("_id.entity_id", entityId));
+    if (session != null) {
+      getCollection().deleteMany(session, filter);
+    } else {
+      getCollection().deleteMany(filter);
+    }
+  }
+
+  public synchronized void startCompaction(Duration interval) {
+    if (interval == null || interval.isZero() || interval.isNegative()) {
+      throw new IllegalArgumentException("Compaction interval must be positive");
+    }
+    if (compactionExecutor != null) {
+      throw new IllegalStateException("Counter compaction is already running");
+    }
+
+    compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "flexorm-counter-compaction");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long millis = interval.toMillis();
+    compactionExecutor.scheduleWithFixedDelay(() -> {
+      try {
+        compactAll();
+      } catch (RuntimeException ignored) {
+      }
+    }, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void stopCompaction() {
+    if (compactionExecutor != null) {
+      compactionExecutor.shutdown();
+      compactionExecutor = null;
+    }
+  }
+
+  private void upsert(Connection connection, String name, String entityId, int stripe,
+      long delta) throws SQLException {
+    String sql = "INSERT INTO " + COUNTERS_TABLE
+        + " (name, entity_id, stripe, counter_value) VALUES (?, ?, ?, ?)"
+        + (orm.getDatabaseType() == DatabaseType.MYSQL
+        ? " ON DUPLICATE KEY UPDATE counter_value = counter_value + VALUES(counter_value)"
+        : " ON CONFLICT(name, entity_id, stripe) DO UPDATE SET counter_value = counter_value + excluded.counter_value");
+
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setString(1, name);
+      statement.setString(2, entityId);
+      statement.setInt(3, stripe);
+      statement.setLong(4, delta);
+      statement.executeUpdate();
+    }
+  }
+
+  private List<Long> removeStripesMySQL(Connection connection, String name, String entityId)
+      throws SQLException {
+    List<Long> moved = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT stripe, counter_value FROM " + COUNTERS_TABLE
+            + " WHERE name = ? AND entity_id = ? FOR UPDATE")) {
+      statement.setString(1, name);
+      statement.setString(2, entityId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          if (resultSet.getInt(1) != 0) {
+            moved.add(resultSet.getLong(2));
+          }
+        }
+      }
+    }
+
+    if (!moved.isEmpty()) {
+      try (PreparedStatement statement = connection.prepareStatement(
+          "DELETE FROM " + COUNTERS_TABLE + " WHERE name = ? AND entity_id = ? AND stripe <> 0")) {
+        statement.setString(1, name);
+        statement.setString(2, entityId);
+        statement.executeUpdate();
+      }
+    }
+    return moved;
+  }
+
+  private List<Long> removeStripesSQLite(Connection connection, String name, String entityId)
+      throws SQLException {
+    List<Long> moved = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(
+        "DELETE FROM " + COUNTERS_TABLE
+            + " WHERE name = ? AND entity_id = ? AND stripe <> 0 RETURNING counter_value")) {
+      statement.setString(1, name);
+      statement.setString(2, entityId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          moved.add(resultSet.getLong(1));
+        }
+      }
+    }
+    return moved;
+  }
+
+  private void sumsInTable(String name, List<String> entityIds, Map<String, Long> result) {
+    StringBuilder sql = new StringBuilder("SELECT entity_id, SUM(counter_value) FROM ")
+        .append(COUNTERS_TABLE)
+        .append(" WHERE name = ? AND entity_id IN (");
+    for (int i = 0; i < entityIds.size(); i++) {
+      sql.append(i == 0 ? "?" : ", ?");
+    }
+    sql.append(") GROUP BY entity_id");
+
+    try (Connection connection = getSqlConnection();
+        PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+      statement.setString(1, name);
+      for (int i = 0; i < entityIds.size(); i++) {
+        statement.setString(i + 2, entityIds.get(i));
+      }
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          result.put(resultSet.getString(1), resultSet.getLong(2));
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error reading counter " + name, e);
+    }
+  }
+
+  private void sumsInCollection(String name, List<String> entityIds, Map<String, Long> result) {
+    List<Bson> pipeline = List.of(
+        Aggregates.match(counterFilter(name, entityIds)),
+        Aggregates.group("$_id.entity_id", Accumulators.sum("total", "$counter_value"))
+    );
+
+    for (Document document : getCollection().aggregate(pipeline)) {
+      result.put(document.getString("_id"), ((Number) document.get("total")).longValue());
+    }
+  }
+
+  private int compactInCollection(String name, String entityId) {
+    MongoCollection<Document> collection = getCollection();
+    List<Document> stripeKeys = new ArrayList<>();
+    for (Document document : collection.find(Filters.and(counterFilter(name, List.of(entityId)),
+        Filters.ne("_id.stripe", 0)))) {
+      stripeKeys.add(document.get("_id", Document.class));
+    }
+
+    int compacted = 0;
+    for (Document key : stripeKeys) {
+      Document drained = collection.findOneAndUpdate(Filters.eq("_id", key),
+          Updates.set("counter_value", 0L));
+      if (drained == null) {
+        continue;
+      }
+
+      long value = ((Number) drained.get("counter_value")).longValue();
+      if (value != 0) {
+        collection.updateOne(Filters.eq("_id", stripeKey(name, entityId, 0)),
+            Updates.inc("counter_value", value), new UpdateOptions().upsert(true));
+      }
+      collection.deleteOne(Filters.and(Filters.eq("_id", key), Filters.eq("counter_value", 0L)));
+      compacted++;
+    }
+    return compacted;
+  }
+
+  private Bson counterFilter(String name, List<String> entityIds) {
+    return Filters.and(Filters.eq("_id.name", name), Filters.in("_id.entity_id", entityIds));
+  }
+
+  private Document stripeKey(String name, String entityId, int stripe) {
+    return new Document("name", name).append("entity_id", entityId).append("stripe", stripe);
+  }
+
+  private MongoCollection<Document> getCollection() {
+    MongoDatabase database = (MongoDatabase) orm.getConnection().getConnection();
+    return database.getCollection(COUNTERS_TABLE);
+  }
+
+  private boolean tableExists(Connection connection) throws SQLException {
+    if (!tableCreated) {
+      DatabaseMetaData metaData = connection.getMetaData();
+      String pattern = COUNTERS_TABLE.replace("_", metaData.getSearchStringEscape() + "_");
+      try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, pattern, null)) {
+        tableCreated = tables.next();
+      }
+    }
+    return tableCreated;
+  }
+
+  private Connection getSqlConnection() throws SQLException {
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+    Connection connection = dataSource.getConnection();
+
+    if (!tableCreated) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("CREATE TABLE IF NOT EXISTS " + COUNTERS_TABLE
+            + " (name VARCHAR(255) NOT NULL, entity_id VARCHAR(255) NOT NULL, stripe INT NOT NULL,"
+            + " counter_value BIGINT NOT NULL, PRIMARY KEY (name, entity_id, stripe))");
+        tableCreated = true;
+      } catch (SQLException e) {
+        connection.close();
+        throw e;
+      }
+    }
+
+    return connection;
+  }
+}
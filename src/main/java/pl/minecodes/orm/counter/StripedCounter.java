@@ -0,0 +1,69 @@
+package pl.minecodes.orm.counter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import pl.minecodes.orm.annotation.StripeSelection;
+
+public class StripedCounter {
+
+  private final CounterStore store;
+  private final String name;
+  private final String entityId;
+  private final int stripes;
+  private final StripeSelection selection;
+
+  public StripedCounter(CounterStore store, String name, Object entityId, int stripes,
+      StripeSelection selection) {
+    if (entityId == null) {
+      throw new IllegalArgumentException("ID cannot be null");
+    }
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Stripe count must be positive");
+    }
+    this.store = store;
+    this.name = name;
+    this.entityId = String.valueOf(entityId);
+    this.stripes = stripes;
+    this.selection = selection;
+  }
+
+  public void increment() {
+    increment(1);
+  }
+
+  public void increment(long delta) {
+    store.add(name, entityId, selectStripe(), delta);
+  }
+
+  public void decrement() {
+    increment(-1);
+  }
+
+  public void decrement(long delta) {
+    increment(-delta);
+  }
+
+  public long get() {
+    return store.sum(name, entityId);
+  }
+
+  public void compact() {
+    store.compact(name, entityId);
+  }
+
+  public void reset() {
+    store.delete(name, entityId);
+  }
+
+  private int selectStripe() {
+    if (stripes == 1) {
+      return 0;
+    }
+
+    if (selection == StripeSelection.THREAD) {
+      long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+      return Math.floorMod((int) (hash >>> 32), stripes);
+    }
+
+    return ThreadLocalRandom.current().nextInt(stripes);
+  }
+}
@@ -3,12 +3,17 @@ package pl.minecodes.orm.entity;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmCounter;
 import pl.minecodes.orm.annotation.OrmEntity;
 import pl.minecodes.orm.annotation.OrmEntityId;
 import pl.minecodes.orm.annotation.OrmField;
@@ -17,8 +22,13 @@ import pl.minecodes.orm.annotation.OrmManyToOne;
 import pl.minecodes.orm.annotation.OrmOneToMany;
 import pl.minecodes.orm.annotation.OrmOneToOne;
 import pl.minecodes.orm.annotation.OrmTransient;
+import pl.minecodes.orm.counter.CounterStore;
+import pl.minecodes.orm.counter.StripedCounter;
 import pl.minecodes.orm.exception.ObjectIsNullException;
 import pl.minecodes.orm.exception.ObjectRequiredAnnotationsException;
+import pl.minecodes.orm.id.IdFilter;
+import pl.minecodes.orm.id.IdFilterStats;
+import pl.minecodes.orm.query.AtomicUpdate;
 import pl.minecodes.orm.query.Operator;
 import pl.minecodes.orm.query.Query;
 import pl.minecodes.orm.relation.RelationInfo;
@@ -30,9 +40,10 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
 
   protected final Class<T> entityClass;
   protected final FlexOrm orm;
-  protected final Map<Class<?>, TableMetadata> metadataCache = new HashMap<>();
+  protected final Map<Class<?>, TableMetadata> metadataCache = new ConcurrentHashMap<>();
   protected static final Map<Class<?>, Constructor<?>> constructorCache = new ConcurrentHashMap<>();
   protected boolean inTransaction = false;
+  protected WriteBehindBuffer<T> writeBehindBuffer;
 
   protected BaseEntityRepository(FlexOrm orm, Class<T> entityClass) {
     this.orm = orm;
@@ -44,17 +55,141 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
     validateEntity(entity);
 
     TableMetadata metadata = getTableMetadata(entityClass);
+    if (orm.getIdGenerators().assignId(entity, metadata)) {
+      insert(entity);
+      rememberId(entity, metadata);
+      return;
+    }
+
     Object id = getEntityId(entity, metadata);
 
     boolean exists = false;
     if (id != null) {
-      exists = existsById((ID) id);
+      exists = checkExists(entityClass, id, () -> existsById((ID) id));
     }
 
     if (exists) {
       update(entity);
+    } else if (id != null && orm.getIdFilter(entityClass) != null) {
+      upsert(entity);
+      rememberId(entity, metadata);
     } else {
       insert(entity);
+      rememberId(entity, metadata);
+    }
+  }
+
+  @Override
+  public void saveAsync(T entity) {
+    if (writeBehindBuffer == null) {
+      throw new IllegalStateException("Write-behind is not enabled for this repository");
+    }
+    validateEntity(entity);
+    writeBehindBuffer.save(entity);
+  }
+
+  @Override
+  public void enableWriteBehind(WriteBehindSettings settings) {
+    if (writeBehindBuffer != null && !writeBehindBuffer.isClosed()) {
+      throw new IllegalStateException("Write-behind is already enabled for this repository");
+    }
+
+    TableMetadata metadata = getTableMetadata(entityClass);
+    writeBehindBuffer = new WriteBehindBuffer<>(metadata.tableName(), settings,
+        entity -> getEntityId(entity, metadata), this::saveBatch);
+    orm.registerWriteBehindBuffer(writeBehindBuffer);
+  }
+
+  @Override
+  public void flushWriteBehind() {
+    if (writeBehindBuffer != null) {
+      writeBehindBuffer.flush();
+    }
+  }
+
+  @Override
+  public WriteBehindStats getWriteBehindStats() {
+    if (writeBehindBuffer == null) {
+      throw new IllegalStateException("Write-behind is not enabled for this repository");
+    }
+    return writeBehindBuffer.getStats();
+  }
+
+  @Override
+  public void enableIdFilter(long expectedIds, double falsePositiveRate) {
+    IdFilter filter = new IdFilter(expectedIds, falsePositiveRate);
+    orm.registerIdFilter(entityClass, filter);
+    scanIds(filter::add);
+    filter.markSeeded();
+  }
+
+  @Override
+  public IdFilterStats getIdFilterStats() {
+    IdFilter filter = orm.getIdFilter(entityClass);
+    if (filter == null) {
+      throw new IllegalStateException("ID filter is not enabled for this repository");
+    }
+    return filter.getStats();
+  }
+
+  protected boolean checkExists(Class<?> objectClass, Object id, BooleanSupplier lookup) {
+    IdFilter filter = orm.getIdFilter(objectClass);
+    if (filter != null && filter.checkAbsent(id)) {
+      return false;
+    }
+
+    boolean exists = lookup.getAsBoolean();
+    if (filter != null && !exists) {
+      filter.recordFalsePositive();
+    }
+    return exists;
+  }
+
+  protected Set<Object> findExistingIds(Class<?> objectClass, Collection<Object> ids,
+      Function<Collection<Object>, Set<Object>> lookup) {
+    IdFilter filter = orm.getIdFilter(objectClass);
+    List<Object> candidates = new ArrayList<>();
+    for (Object id : ids) {
+      if (filter == null || !filter.checkAbsent(id)) {
+        candidates.add(id);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return Set.of();
+    }
+
+    Set<Object> existing = lookup.apply(candidates);
+    if (filter != null) {
+      for (int i = existing.size(); i < candidates.size(); i++) {
+        filter.recordFalsePositive();
+      }
+    }
+    return existing;
+  }
+
+  protected void rememberId(Object entity, TableMetadata metadata) {
+    IdFilter filter = orm.getIdFilter(entity.getClass());
+    if (filter != null) {
+      try {
+        filter.add(metadata.idField().get(entity));
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException("Could not access ID field", e);
+      }
+    }
+  }
+
+  protected void forgetId(Object id) {
+    IdFilter filter = orm.getIdFilter(entityClass);
+    if (filter != null && !inTransaction) {
+      filter.remove(id);
+    }
+  }
+
+  protected abstract void scanIds(Consumer<Object> consumer);
+
+  protected void saveBatch(List<T> entities) {
+    for (T entity : entities) {
+      save(entity);
     }
   }
 
@@ -64,6 +199,83 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
     return new Query<>(orm, entityClass, metadata);
   }
 
+  @Override
+  public AtomicUpdate<T> modify(ID id) {
+    if (id == null) {
+      throw new IllegalArgumentException("ID cannot be null");
+    }
+    return atomicUpdate(getTableMetadata(entityClass), id);
+  }
+
+  protected abstract AtomicUpdate<T> atomicUpdate(TableMetadata metadata, ID id);
+
+  @Override
+  public StripedCounter counter(ID id, String fieldName) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    for (Field field : CounterStore.getCounterFields(entityClass)) {
+      if (field.getName().equals(fieldName)) {
+        OrmCounter ormCounter = field.getAnnotation(OrmCounter.class);
+        return new StripedCounter(orm.getCounters(), getCounterName(metadata, field), id,
+            ormCounter.stripes(), ormCounter.selection());
+      }
+    }
+    throw new IllegalArgumentException("Field " + fieldName + " is not annotated with @OrmCounter");
+  }
+
+  protected RelationInfo getManyToManyRelation(String fieldName) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    for (RelationInfo relation : metadata.relations()) {
+      if (relation.field().getName().equals(fieldName)) {
+        if (relation.type() != RelationType.MANY_TO_MANY) {
+          throw new IllegalArgumentException("Field " + fieldName + " is not a ManyToMany relation");
+        }
+        return relation;
+      }
+    }
+    throw new IllegalArgumentException("Field " + fieldName + " is not a relation");
+  }
+
+  protected void loadCounters(List<T> entities) {
+    List<Field> counterFields = CounterStore.getCounterFields(entityClass);
+    if (counterFields.isEmpty() || entities.isEmpty()) {
+      return;
+    }
+
+    TableMetadata metadata = getTableMetadata(entityClass);
+    Map<String, T> entitiesById = new HashMap<>();
+    for (T entity : entities) {
+      Object id = getEntityId(entity, metadata);
+      if (id != null) {
+        entitiesById.put(String.valueOf(id), entity);
+      }
+    }
+
+    try {
+      for (Field field : counterFields) {
+        Map<String, Long> sums = orm.getCounters()
+            .sums(getCounterName(metadata, field), entitiesById.keySet());
+        for (Map.Entry<String, T> entry : entitiesById.entrySet()) {
+          long value = sums.getOrDefault(entry.getKey(), 0L);
+          if (field.getType() == int.class || field.getType() == Integer.class) {
+            field.set(entry.getValue(), (int) value);
+          } else {
+            field.set(entry.getValue(), value);
+          }
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Could not set counter field", e);
+    }
+  }
+
+  protected List<String> getCounterNames(TableMetadata metadata) {
+    return CounterStore.getCounterNames(entityClass, metadata.tableName());
+  }
+
+  private String getCounterName(TableMetadata metadata, Field field) {
+    return CounterStore.getCounterName(metadata.tableName(), field);
+  }
+
   @Override
   public List<T> findByField(String fieldName, Object value) {
     TableMetadata metadata = getTableMetadata(entityClass);
@@ -130,6 +342,8 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
 
   protected abstract void insert(T entity);
 
+  protected abstract void upsert(T entity);
+
   protected void validateEntity(T entity) {
     if (entity == null) {
       throw new ObjectIsNullException("Provided entity is null!");
@@ -150,6 +364,11 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
     }
   }
 
+  @Override
+  public TableMetadata getMetadata() {
+    return getTableMetadata(entityClass);
+  }
+
   protected TableMetadata getTableMetadata(Class<?> objectClass) {
     return metadataCache.computeIfAbsent(objectClass, this::extractTableMetadata);
   }
@@ -167,7 +386,8 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
     for (Field field : objectClass.getDeclaredFields()) {
       field.setAccessible(true);
 
-      if (field.isAnnotationPresent(OrmTransient.class)) {
+      if (field.isAnnotationPresent(OrmTransient.class)
+          || field.isAnnotationPresent(OrmCounter.class)) {
         continue;
       }
 
@@ -219,7 +439,8 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
           "",
           "",
           ann.fetch(),
-          ann.cascade()
+          ann.cascade(),
+          ann.batchSize()
       );
     }
 
@@ -234,7 +455,10 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
           "",
           "",
           ann.fetch(),
-          ann.cascade()
+          ann.cascade(),
+          ann.batchSize(),
+          ann.orderBy(),
+          ann.maxLoaded()
       );
     }
 
@@ -249,7 +473,8 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
           "",
           "",
           ann.fetch(),
-          false
+          false,
+          ann.batchSize()
       );
     }
 
@@ -264,7 +489,8 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
           ann.joinTable(),
           ann.inverseJoinColumn(),
           ann.fetch(),
-          ann.cascade()
+          ann.cascade(),
+          ann.batchSize()
       );
     }
 
@@ -296,6 +522,44 @@ public abstract class BaseEntityRepository<T, ID> implements EntityRepository<T,
     });
   }
 
+  protected Object convertValue(Object value, Class<?> targetType) {
+    if (value == null) {
+      return null;
+    }
+
+    if (targetType == Long.class || targetType == long.class) {
+      if (value instanceof Integer) {
+        return ((Integer) value).longValue();
+      } else if (value instanceof Number) {
+        return ((Number) value).longValue();
+      }
+    } else if (targetType == Integer.class || targetType == int.class) {
+      if (value instanceof Long) {
+        return ((Long) value).intValue();
+      } else if (value instanceof Number) {
+        return ((Number) value).intValue();
+      }
+    } else if (targetType == Double.class || targetType == double.class) {
+      if (value instanceof Number) {
+        return ((Number) value).doubleValue();
+      }
+    } else if (targetType == Float.class || targetType == float.class) {
+      if (value instanceof Number) {
+        return ((Number) value).floatValue();
+      }
+    } else if (targetType == boolean.class || targetType == Boolean.class) {
+      if (value instanceof Integer) {
+        return ((Integer) value) != 0;
+      } else if (value instanceof Long) {
+        return ((Long) value) != 0L;
+      } else if (value instanceof String) {
+        return "true".equalsIgnoreCase((String) value) || "1".equals(value);
+      }
+    }
+
+    return value;
+  }
+
   @Override
   public void beginTransaction() {
     if (inTransaction) {
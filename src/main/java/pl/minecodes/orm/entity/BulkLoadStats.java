@@ -0,0 +1,36 @@
+package pl.minecodes.orm.entity;
+
+public record BulkLoadStats(
+    long produced,
+    long converted,
+    long rejected,
+    long written,
+    long batches,
+    int writers,
+    int conversionQueueDepth,
+    int writeQueueDepth,
+    int maxConversionQueueDepth,
+    int maxWriteQueueDepth,
+    long producerWaitNanos,
+    long conversionNanos,
+    long writeNanos,
+    long elapsedNanos
+) {
+
+  public double throughputPerSecond() {
+    return elapsedNanos == 0 ? 0.0 : written * 1_000_000_000.0 / elapsedNanos;
+  }
+
+  public double averageConversionMicros() {
+    long items = converted + rejected;
+    return items == 0 ? 0.0 : conversionNanos / 1_000.0 / items;
+  }
+
+  public double averageBatchWriteMillis() {
+    return batches == 0 ? 0.0 : writeNanos / 1_000_000.0 / batches;
+  }
+
+  public double producerWaitMillis() {
+    return producerWaitNanos / 1_000_000.0;
+  }
+}
@@ -0,0 +1,279 @@
+package pl.minecodes.orm.entity;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import pl.minecodes.orm.DatabaseType;
+import pl.minecodes.orm.FlexOrm;
+
+public class BulkLoader<T> {
+
+  private static final Object END = new Object();
+  private static final long POLL_MILLIS = 100;
+
+  private final FlexOrm orm;
+  private final Class<T> entityClass;
+  private final BulkLoaderSettings settings;
+  private final int writerCount;
+  private Consumer<Exception> errorHandler;
+
+  private final AtomicLong produced = new AtomicLong();
+  private final AtomicLong converted = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+  private final AtomicLong producerWaitNanos = new AtomicLong();
+  private final AtomicLong conversionNanos = new AtomicLong();
+  private final AtomicLong writeNanos = new AtomicLong();
+  private final AtomicInteger maxConversionQueueDepth = new AtomicInteger();
+  private final AtomicInteger maxWriteQueueDepth = new AtomicInteger();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  private volatile BlockingQueue<Object> conversionQueue;
+  private volatile BlockingQueue<T> writeQueue;
+  private volatile boolean conversionDone;
+  private volatile long startNanos;
+  private volatile long endNanos;
+
+  public BulkLoader(FlexOrm orm, Class<T> entityClass) {
+    this(orm, entityClass, BulkLoaderSettings.defaults());
+  }
+
+  public BulkLoader(FlexOrm orm, Class<T> entityClass, BulkLoaderSettings settings) {
+    this.orm = orm;
+    this.entityClass = entityClass;
+    this.settings = settings;
+    this.writerCount = orm.getDatabaseType() == DatabaseType.SQLLITE ? 1 : settings.writers();
+  }
+
+  public BulkLoader<T> onError(Consumer<Exception> errorHandler) {
+    this.errorHandler = errorHandler;
+    return this;
+  }
+
+  public BulkLoadStats load(Iterable<? extends T> source) {
+    return load(source.iterator(), Function.identity());
+  }
+
+  public <S> BulkLoadStats load(Iterable<? extends S> source,
+      Function<? super S, ? extends T> converter) {
+    return load(source.iterator(), converter);
+  }
+
+  public synchronized <S> BulkLoadStats load(Iterator<? extends S> source,
+      Function<? super S, ? extends T> converter) {
+    BaseEntityRepository<T, ?> repository =
+        (BaseEntityRepository<T, ?>) orm.<T, Object>getEntityRepository(entityClass);
+
+    conversionQueue = new ArrayBlockingQueue<>(settings.queueCapacity());
+    writeQueue = new ArrayBlockingQueue<>(settings.queueCapacity());
+    conversionDone = false;
+    failure.set(null);
+    for (AtomicLong counter : List.of(produced, converted, rejected, written, batches,
+        producerWaitNanos, conversionNanos, writeNanos)) {
+      counter.set(0);
+    }
+    maxConversionQueueDepth.set(0);
+    maxWriteQueueDepth.set(0);
+    startNanos = System.nanoTime();
+    endNanos = 0;
+
+    int converterCount = settings.converters();
+    AtomicInteger activeConverters = new AtomicInteger(converterCount);
+    AtomicInteger threadIndex = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(converterCount + writerCount,
+        runnable -> {
+          Thread thread = new Thread(runnable, "flexorm-bulk-loader-" + threadIndex.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < converterCount; i++) {
+        futures.add(executor.submit(() -> runConverter(repository, converter, activeConverters)));
+      }
+      for (int i = 0; i < writerCount; i++) {
+        futures.add(executor.submit(() -> runWriter(repository)));
+      }
+
+      try {
+        produce(source);
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+      }
+
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (Exception e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      endNanos = System.nanoTime();
+    }
+
+    Throwable error = failure.get();
+    if (error != null) {
+      throw new RuntimeException("Error during bulk load", error);
+    }
+    return getStats();
+  }
+
+  public BulkLoadStats getStats() {
+    long end = endNanos != 0 ? endNanos : System.nanoTime();
+    BlockingQueue<Object> conversion = conversionQueue;
+    BlockingQueue<T> write = writeQueue;
+
+    return new BulkLoadStats(
+        produced.get(),
+        converted.get(),
+        rejected.get(),
+        written.get(),
+        batches.get(),
+        writerCount,
+        conversion == null ? 0 : conversion.size(),
+        write == null ? 0 : write.size(),
+        maxConversionQueueDepth.get(),
+        maxWriteQueueDepth.get(),
+        producerWaitNanos.get(),
+        conversionNanos.get(),
+        writeNanos.get(),
+        startNanos == 0 ? 0 : end - startNanos
+    );
+  }
+
+  private void produce(Iterator<?> source) {
+    while (source.hasNext() && failure.get() == null) {
+      Object item = source.next();
+      if (item == null) {
+        continue;
+      }
+
+      long waitStart = System.nanoTime();
+      put(conversionQueue, item, maxConversionQueueDepth);
+      producerWaitNanos.addAndGet(System.nanoTime() - waitStart);
+      produced.incrementAndGet();
+    }
+
+    for (int i = 0; i < settings.converters(); i++) {
+      put(conversionQueue, END, maxConversionQueueDepth);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <S> void runConverter(BaseEntityRepository<T, ?> repository,
+      Function<? super S, ? extends T> converter, AtomicInteger activeConverters) {
+    try {
+      while (true) {
+        Object item = take(conversionQueue);
+        if (item == END) {
+          break;
+        }
+
+        long start = System.nanoTime();
+        T entity;
+        try {
+          entity = converter.apply((S) item);
+          repository.validateEntity(entity);
+        } catch (RuntimeException e) {
+          rejected.incrementAndGet();
+          conversionNanos.addAndGet(System.nanoTime() - start);
+          if (errorHandler != null) {
+            errorHandler.accept(e);
+          }
+          continue;
+        }
+        conversionNanos.addAndGet(System.nanoTime() - start);
+        converted.incrementAndGet();
+
+        put(writeQueue, entity, maxWriteQueueDepth);
+      }
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      if (activeConverters.decrementAndGet() == 0) {
+        conversionDone = true;
+      }
+    }
+  }
+
+  private void runWriter(BaseEntityRepository<T, ?> repository) {
+    try {
+      List<T> batch = new ArrayList<>(settings.batchSize());
+
+      while (true) {
+        T entity = writeQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (entity != null) {
+          batch.add(entity);
+          writeQueue.drainTo(batch, settings.batchSize() - batch.size());
+        } else {
+          checkFailure();
+        }
+
+        boolean finished = entity == null && conversionDone && writeQueue.isEmpty();
+        if (!batch.isEmpty() && (finished || batch.size() >= settings.batchSize())) {
+          long start = System.nanoTime();
+          repository.saveBatch(batch);
+          writeNanos.addAndGet(System.nanoTime() - start);
+          written.addAndGet(batch.size());
+          batches.incrementAndGet();
+          batch = new ArrayList<>(settings.batchSize());
+        }
+
+        if (finished) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, e);
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, e);
+    }
+  }
+
+  private <E> void put(BlockingQueue<E> queue, E item, AtomicInteger maxDepth) {
+    try {
+      while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        checkFailure();
+      }
+      maxDepth.accumulateAndGet(queue.size(), Math::max);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Bulk load interrupted", e);
+    }
+  }
+
+  private Object take(BlockingQueue<Object> queue) {
+    try {
+      Object item;
+      while ((item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+        checkFailure();
+      }
+      return item;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Bulk load interrupted", e);
+    }
+  }
+
+  private void checkFailure() {
+    if (failure.get() != null) {
+      throw new IllegalStateException("Bulk load aborted");
+    }
+  }
+}
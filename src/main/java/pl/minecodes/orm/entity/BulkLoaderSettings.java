@@ -0,0 +1,24 @@
+package pl.minecodes.orm.entity;
+
+public record BulkLoaderSettings(int converters, int writers, int batchSize, int queueCapacity) {
+
+  public BulkLoaderSettings {
+    if (converters <= 0) {
+      throw new IllegalArgumentException("Converter count must be positive");
+    }
+    if (writers <= 0) {
+      throw new IllegalArgumentException("Writer count must be positive");
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    if (queueCapacity < batchSize) {
+      throw new IllegalArgumentException("Queue capacity must not be lower than batch size");
+    }
+  }
+
+  public static BulkLoaderSettings defaults() {
+    int converters = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    return new BulkLoaderSettings(converters, 4, 500, 10_000);
+  }
+}
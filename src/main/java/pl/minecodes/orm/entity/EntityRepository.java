@@ -1,14 +1,33 @@
 package pl.minecodes.orm.entity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import pl.minecodes.orm.counter.StripedCounter;
+import pl.minecodes.orm.id.IdFilterStats;
+import pl.minecodes.orm.query.AtomicUpdate;
 import pl.minecodes.orm.query.Query;
+import pl.minecodes.orm.relation.Children;
+import pl.minecodes.orm.relation.FetchPlan;
+import pl.minecodes.orm.table.TableMetadata;
 
 public interface EntityRepository<T, ID> {
 
   void save(T entity);
 
+  void saveAsync(T entity);
+
+  void enableWriteBehind(WriteBehindSettings settings);
+
+  void flushWriteBehind();
+
+  WriteBehindStats getWriteBehindStats();
+
+  void enableIdFilter(long expectedIds, double falsePositiveRate);
+
+  IdFilterStats getIdFilterStats();
+
   void update(T entity);
 
   void delete(T entity);
@@ -17,8 +36,16 @@ public interface EntityRepository<T, ID> {
 
   Optional<T> findById(ID id);
 
+  Optional<T> findById(ID id, FetchPlan plan);
+
   List<T> findAll();
 
+  List<T> findAll(FetchPlan plan);
+
+  List<T> findAllById(Collection<ID> ids);
+
+  List<T> findAllById(Collection<ID> ids, FetchPlan plan);
+
   void beginTransaction();
 
   void commitTransaction();
@@ -27,6 +54,18 @@ public interface EntityRepository<T, ID> {
 
   Query<T> query();
 
+  AtomicUpdate<T> modify(ID id);
+
+  StripedCounter counter(ID id, String fieldName);
+
+  void link(ID id, String fieldName, Object relatedId);
+
+  void unlink(ID id, String fieldName, Object relatedId);
+
+  <C> Children<C> children(T entity, String fieldName);
+
+  TableMetadata getMetadata();
+
   List<T> findByField(String fieldName, Object value);
 
   List<T> executeQuery(String rawQuery);
@@ -4,11 +4,28 @@ import com.mongodb.client.ClientSession;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.query.AtomicUpdate;
+import pl.minecodes.orm.relation.Children;
+import pl.minecodes.orm.relation.FetchPlan;
 import pl.minecodes.orm.table.TableMetadata;
 
 public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
@@ -35,6 +52,30 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
     insertIntoCollection(entity, metadata);
   }
 
+  @Override
+  protected void upsert(T entity) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    MongoCollection<Document> collection = getDatabase().getCollection(metadata.tableName());
+    String idColumnName = getColumnNameForField(metadata.idField(), metadata);
+    Bson query = Filters.eq(idColumnName, getEntityId(entity, metadata));
+    ReplaceOptions options = new ReplaceOptions().upsert(true);
+
+    if (activeSession != null) {
+      collection.replaceOne(activeSession, query, toDocument(entity, metadata), options);
+    } else {
+      collection.replaceOne(query, toDocument(entity, metadata), options);
+    }
+  }
+
+  @Override
+  public void enableIdFilter(long expectedIds, double falsePositiveRate) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    String idColumnName = getColumnNameForField(metadata.idField(), metadata);
+    getDatabase().getCollection(metadata.tableName())
+        .createIndex(Indexes.ascending(idColumnName), new IndexOptions().unique(true));
+    super.enableIdFilter(expectedIds, falsePositiveRate);
+  }
+
   @Override
   public void update(T entity) {
     validateEntity(entity);
@@ -50,6 +91,21 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
     deleteById((ID) id);
   }
 
+  @Override
+  public void link(ID id, String fieldName, Object relatedId) {
+    throw new UnsupportedOperationException("ManyToMany links are not supported for MongoDB");
+  }
+
+  @Override
+  public void unlink(ID id, String fieldName, Object relatedId) {
+    throw new UnsupportedOperationException("ManyToMany links are not supported for MongoDB");
+  }
+
+  @Override
+  public <C> Children<C> children(T entity, String fieldName) {
+    throw new UnsupportedOperationException("Child pages are not supported for MongoDB");
+  }
+
   @Override
   public void deleteById(ID id) {
     if (id == null) {
@@ -65,13 +121,44 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
       return Optional.empty();
     }
     TableMetadata metadata = getTableMetadata(entityClass);
-    return findByIdInCollection(id, metadata);
+    Optional<T> result = findByIdInCollection(id, metadata);
+    result.ifPresent(entity -> loadCounters(List.of(entity)));
+    return result;
+  }
+
+  @Override
+  public Optional<T> findById(ID id, FetchPlan plan) {
+    throw new UnsupportedOperationException("Fetch plans are not supported for MongoDB");
   }
 
   @Override
   public List<T> findAll() {
     TableMetadata metadata = getTableMetadata(entityClass);
-    return findAllInCollection(metadata);
+    List<T> results = findAllInCollection(metadata, new Document());
+    loadCounters(results);
+    return results;
+  }
+
+  @Override
+  public List<T> findAll(FetchPlan plan) {
+    throw new UnsupportedOperationException("Fetch plans are not supported for MongoDB");
+  }
+
+  @Override
+  public List<T> findAllById(Collection<ID> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    TableMetadata metadata = getTableMetadata(entityClass);
+    String idColumnName = getColumnNameForField(metadata.idField(), metadata);
+    List<T> results = findAllInCollection(metadata, Filters.in(idColumnName, ids));
+    loadCounters(results);
+    return results;
+  }
+
+  @Override
+  public List<T> findAllById(Collection<ID> ids, FetchPlan plan) {
+    throw new UnsupportedOperationException("Fetch plans are not supported for MongoDB");
   }
 
   @Override
@@ -99,6 +186,18 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
     }
   }
 
+  @Override
+  protected void scanIds(Consumer<Object> consumer) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    String idColumnName = getColumnNameForField(metadata.idField(), metadata);
+
+    for (Document document : getDatabase().getCollection(metadata.tableName()).find()
+        .projection(Projections.include(idColumnName))
+        .batchSize(1000)) {
+      consumer.accept(document.get(idColumnName));
+    }
+  }
+
   protected MongoDatabase getDatabase() {
     return (MongoDatabase) orm.getConnection().getConnection();
   }
@@ -119,8 +218,52 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
 
   protected void insertIntoCollection(T entity, TableMetadata metadata) {
     MongoCollection<Document> collection = getDatabase().getCollection(metadata.tableName());
-    Document document = new Document();
+    Document document = toDocument(entity, metadata);
+
+    if (activeSession != null) {
+      collection.insertOne(activeSession, document);
+    } else {
+      collection.insertOne(document);
+    }
+  }
 
+  @Override
+  protected void saveBatch(List<T> entities) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    String idColumnName = getColumnNameForField(metadata.idField(), metadata);
+    List<WriteModel<Document>> writes = new ArrayList<>();
+
+    for (T entity : entities) {
+      validateEntity(entity);
+      orm.getIdGenerators().assignId(entity, metadata);
+      Object id = getEntityId(entity, metadata);
+      Document document = toDocument(entity, metadata);
+      if (id == null) {
+        writes.add(new InsertOneModel<>(document));
+      } else {
+        writes.add(new ReplaceOneModel<>(Filters.eq(idColumnName, id), document,
+            new ReplaceOptions().upsert(true)));
+      }
+    }
+
+    if (writes.isEmpty()) {
+      return;
+    }
+
+    MongoCollection<Document> collection = getDatabase().getCollection(metadata.tableName());
+    BulkWriteOptions options = new BulkWriteOptions().ordered(false);
+    if (activeSession != null) {
+      collection.bulkWrite(activeSession, writes, options);
+    } else {
+      collection.bulkWrite(writes, options);
+    }
+    for (T entity : entities) {
+      rememberId(entity, metadata);
+    }
+  }
+
+  private Document toDocument(T entity, TableMetadata metadata) {
+    Document document = new Document();
     try {
       for (var entry : metadata.columnFields().entrySet()) {
         Object value = entry.getValue().get(entity);
@@ -128,15 +271,10 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
           document.append(entry.getKey(), value);
         }
       }
-
-      if (activeSession != null) {
-        collection.insertOne(activeSession, document);
-      } else {
-        collection.insertOne(document);
-      }
     } catch (IllegalAccessException e) {
       throw new RuntimeException("Error creating MongoDB document", e);
     }
+    return document;
   }
 
   protected void updateInCollection(T entity, TableMetadata metadata) {
@@ -175,11 +313,13 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
     String idColumnName = getColumnNameForField(metadata.idField(), metadata);
     Document query = new Document(idColumnName, id);
 
-    if (activeSession != null) {
-      collection.deleteOne(activeSession, query);
-    } else {
-      collection.deleteOne(query);
+    DeleteResult result = activeSession != null
+        ? collection.deleteOne(activeSession, query)
+        : collection.deleteOne(query);
+    if (result.getDeletedCount() > 0) {
+      forgetId(id);
     }
+    orm.getCounters().deleteAll(getCounterNames(metadata), String.valueOf(id), activeSession);
   }
 
   protected Optional<T> findByIdInCollection(ID id, TableMetadata metadata) {
@@ -194,54 +334,48 @@ public class MongoEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
       result = collection.find(query).first();
     }
 
-    if (result == null) {
-      return Optional.empty();
-    }
-
-    try {
-      T instance = entityClass.getDeclaredConstructor().newInstance();
-
-      for (var entry : metadata.columnFields().entrySet()) {
-        Object value = result.get(entry.getKey());
-        if (value != null) {
-          entry.getValue().set(instance, value);
-        }
-      }
-
-      return Optional.of(instance);
-    } catch (Exception e) {
-      throw new RuntimeException("Error creating instance from MongoDB document", e);
-    }
+    return Optional.ofNullable(result).map(document -> fromDocument(document, metadata));
   }
 
-  protected List<T> findAllInCollection(TableMetadata metadata) {
+  protected List<T> findAllInCollection(TableMetadata metadata, Bson filter) {
     List<T> results = new ArrayList<>();
     MongoCollection<Document> collection = getDatabase().getCollection(metadata.tableName());
 
     Iterable<Document> documents;
     if (activeSession != null) {
-      documents = collection.find(activeSession);
+      documents = collection.find(activeSession, filter);
     } else {
-      documents = collection.find();
+      documents = collection.find(filter);
     }
 
     for (Document document : documents) {
-      try {
-        T instance = entityClass.getDeclaredConstructor().newInstance();
+      results.add(fromDocument(document, metadata));
+    }
 
-        for (var entry : metadata.columnFields().entrySet()) {
-          Object value = document.get(entry.getKey());
-          if (value != null) {
-            entry.getValue().set(instance, value);
-          }
-        }
+    return results;
+  }
 
-        results.add(instance);
-      } catch (Exception e) {
-        throw new RuntimeException("Error creating instance from MongoDB document", e);
+  @Override
+  protected AtomicUpdate<T> atomicUpdate(TableMetadata metadata, ID id) {
+    return AtomicUpdate.mongo(orm, metadata, id, () -> activeSession,
+        document -> fromDocument(document, metadata));
+  }
+
+  private T fromDocument(Document document, TableMetadata metadata) {
+    try {
+      T instance = getCachedConstructor(entityClass).newInstance();
+
+      for (var entry : metadata.columnFields().entrySet()) {
+        Field field = entry.getValue();
+        Object value = document.get(entry.getKey());
+        if (value != null) {
+          field.set(instance, convertValue(value, field.getType()));
+        }
       }
-    }
 
-    return results;
+      return instance;
+    } catch (Exception e) {
+      throw new RuntimeException("Error creating instance from MongoDB document", e);
+    }
   }
 }
\ No newline at end of file
@@ -7,17 +7,35 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import pl.minecodes.orm.DatabaseType;
 import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.query.AtomicUpdate;
 import pl.minecodes.orm.query.Query;
+import pl.minecodes.orm.relation.CascadeDeleteStrategy;
 import pl.minecodes.orm.relation.CascadeHandler;
+import pl.minecodes.orm.relation.Children;
+import pl.minecodes.orm.relation.FetchPlan;
+import pl.minecodes.orm.relation.ForeignKeyValues;
+import pl.minecodes.orm.relation.RelationInfo;
 import pl.minecodes.orm.relation.RelationLoader;
 import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.Ids;
 import pl.minecodes.orm.util.SqlSanitizer;
+import pl.minecodes.orm.util.Upserts;
 
 public abstract class RelationalEntityRepository<T, ID> extends BaseEntityRepository<T, ID> {
 
+  private static final int MAX_IN_CLAUSE = 500;
+
   protected Connection activeConnection;
   protected final RelationLoader relationLoader;
   protected final CascadeHandler cascadeHandler;
@@ -47,17 +65,30 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
     }
   }
 
+  @Override
+  public Query<T> query() {
+    return new Query<>(orm, entityClass, getTableMetadata(entityClass), relationLoader);
+  }
+
   @Override
   protected void insert(T entity) {
+    insert(entity, false);
+  }
+
+  @Override
+  protected void upsert(T entity) {
+    insert(entity, true);
+  }
+
+  private void insert(T entity, boolean upsert) {
     TableMetadata metadata = getTableMetadata(entityClass);
     try {
       Connection connection = getConnection();
       boolean autoClose = activeConnection == null;
       try {
-        cascadeHandler.handleCascadeSave(entity, metadata, connection, (relatedEntity, conn) -> {
-          saveRelatedEntity(relatedEntity, conn);
-        });
-        insertIntoDatabase(entity, metadata);
+        cascadeHandler.handleCascadeSave(entity, metadata, connection,
+            this::saveRelatedEntities);
+        insertIntoDatabase(entity, metadata, upsert);
         cascadeHandler.saveManyToManyRelations(entity, metadata, connection);
       } finally {
         if (autoClose) {
@@ -69,36 +100,111 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private void saveRelatedEntity(Object entity, Connection connection) {
-    Class<?> entityClass = entity.getClass();
-    TableMetadata metadata = getTableMetadata(entityClass);
+  @Override
+  protected void saveBatch(List<T> entities) {
+    UnitOfWork unitOfWork = new UnitOfWork(orm);
     try {
-      Object id = metadata.idField().get(entity);
-      if (id != null && existsByIdInternal(id, metadata, connection)) {
-        updateInDatabaseInternal(entity, metadata, connection);
+      for (T entity : entities) {
+        unitOfWork.save(entity);
+      }
+      unitOfWork.commit();
+    } catch (RuntimeException e) {
+      unitOfWork.rollback();
+      throw e;
+    }
+  }
+
+  private void saveRelatedEntities(Collection<?> entities, Connection connection) {
+    Map<Class<?>, List<Object>> entitiesByClass = new LinkedHashMap<>();
+    for (Object entity : entities) {
+      if (entity != null) {
+        entitiesByClass.computeIfAbsent(entity.getClass(), cls -> new ArrayList<>()).add(entity);
+      }
+    }
+
+    for (var entry : entitiesByClass.entrySet()) {
+      saveRelatedBatch(entry.getKey(), entry.getValue(), connection);
+    }
+  }
+
+  private void saveRelatedBatch(Class<?> relatedClass, List<Object> entities,
+      Connection connection) {
+    TableMetadata metadata = getTableMetadata(relatedClass);
+    List<Object> inserts = new ArrayList<>();
+    List<Object> identityInserts = new ArrayList<>();
+    List<Object> updates = new ArrayList<>();
+    Map<Object, List<Object>> entitiesById = new LinkedHashMap<>();
+
+    try {
+      for (Object entity : entities) {
+        if (orm.getIdGenerators().assignId(entity, metadata)) {
+          inserts.add(entity);
+          continue;
+        }
+
+        Object id = metadata.idField().get(entity);
+        if (id == null) {
+          identityInserts.add(entity);
+        } else {
+          entitiesById.computeIfAbsent(Ids.normalize(id), key -> new ArrayList<>()).add(entity);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error saving related entities", e);
+    }
+
+    Set<Object> existingIds = findExistingIds(relatedClass, entitiesById.keySet(),
+        ids -> selectExistingIds(ids, metadata, connection));
+    for (var entry : entitiesById.entrySet()) {
+      List<Object> sameId = entry.getValue();
+      if (existingIds.contains(entry.getKey())) {
+        updates.addAll(sameId);
       } else {
-        insertIntoDatabaseInternal(entity, metadata, connection);
+        inserts.add(sameId.get(0));
+        updates.addAll(sameId.subList(1, sameId.size()));
       }
-    } catch (Exception e) {
-      throw new RuntimeException("Error saving related entity", e);
+    }
+
+    insertBatchInternal(inserts, metadata, connection, false,
+        orm.getIdFilter(relatedClass) != null);
+    insertBatchInternal(identityInserts, metadata, connection, true, false);
+    updateBatchInternal(updates, metadata, connection);
+
+    for (Object entity : inserts) {
+      rememberId(entity, metadata);
+    }
+    for (Object entity : identityInserts) {
+      rememberId(entity, metadata);
     }
   }
 
-  private boolean existsByIdInternal(Object id, TableMetadata metadata, Connection connection) {
+  private Set<Object> selectExistingIds(Collection<Object> ids, TableMetadata metadata,
+      Connection connection) {
+    String idColumnName = SqlSanitizer.sanitizeColumnName(getColumnNameForField(metadata.idField(), metadata));
+    String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+    List<Object> idList = new ArrayList<>(ids);
+    Set<Object> existing = new HashSet<>();
+
     try {
-      String idColumnName = SqlSanitizer.sanitizeColumnName(getColumnNameForField(metadata.idField(), metadata));
-      String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
-      String sql = "SELECT 1 FROM " + tableName + " WHERE " + idColumnName + " = ?";
-      try (PreparedStatement statement = connection.prepareStatement(sql)) {
-        statement.setObject(1, id);
-        try (ResultSet resultSet = statement.executeQuery()) {
-          return resultSet.next();
+      for (int start = 0; start < idList.size(); start += MAX_IN_CLAUSE) {
+        List<Object> chunk = idList.subList(start, Math.min(start + MAX_IN_CLAUSE, idList.size()));
+        String sql = "SELECT " + idColumnName + " FROM " + tableName + " WHERE " + idColumnName
+            + " IN (" + "?, ".repeat(chunk.size() - 1) + "?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+          for (int i = 0; i < chunk.size(); i++) {
+            statement.setObject(i + 1, chunk.get(i));
+          }
+          try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+              existing.add(Ids.normalize(resultSet.getObject(1)));
+            }
+          }
         }
       }
     } catch (SQLException e) {
       throw new RuntimeException("Error checking entity existence", e);
     }
+    return existing;
   }
 
   @Override
@@ -109,9 +215,8 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
       Connection connection = getConnection();
       boolean autoClose = activeConnection == null;
       try {
-        cascadeHandler.handleCascadeSave(entity, metadata, connection, (relatedEntity, conn) -> {
-          saveRelatedEntity(relatedEntity, conn);
-        });
+        cascadeHandler.handleCascadeSave(entity, metadata, connection,
+            this::saveRelatedEntities);
         updateInDatabase(entity, metadata);
         cascadeHandler.saveManyToManyRelations(entity, metadata, connection);
       } finally {
@@ -132,9 +237,10 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
       Connection connection = getConnection();
       boolean autoClose = activeConnection == null;
       try {
-        cascadeHandler.handleCascadeDelete(entity, metadata, connection);
+        Runnable afterDelete = cascadeHandler.handleCascadeDelete(entity, metadata, connection);
         Object id = getEntityId(entity, metadata);
         deleteFromDatabase((ID) id, metadata);
+        afterDelete.run();
       } finally {
         if (autoClose) {
           connection.close();
@@ -151,22 +257,139 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
       throw new IllegalArgumentException("ID cannot be null");
     }
     TableMetadata metadata = getTableMetadata(entityClass);
-    deleteFromDatabase(id, metadata);
+    if (orm.getCascadeDeleteStrategy() == CascadeDeleteStrategy.LOADED
+        || metadata.relations().isEmpty()) {
+      deleteFromDatabase(id, metadata);
+      return;
+    }
+
+    try {
+      Connection connection = getConnection();
+      boolean autoClose = activeConnection == null;
+      try {
+        Runnable afterDelete = cascadeHandler.handleCascadeDeleteById(id, metadata, connection);
+        deleteFromDatabase(id, metadata);
+        afterDelete.run();
+      } finally {
+        if (autoClose) {
+          connection.close();
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error in cascade delete", e);
+    }
+  }
+
+  @Override
+  public void link(ID id, String fieldName, Object relatedId) {
+    updateLink(id, fieldName, relatedId, true);
+  }
+
+  @Override
+  public void unlink(ID id, String fieldName, Object relatedId) {
+    updateLink(id, fieldName, relatedId, false);
+  }
+
+  @Override
+  public <C> Children<C> children(T entity, String fieldName) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    try {
+      return relationLoader.children(metadata, fieldName, metadata.idField().get(entity),
+          () -> activeConnection);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error accessing ID field", e);
+    }
+  }
+
+  private void updateLink(ID id, String fieldName, Object relatedId, boolean link) {
+    if (id == null || relatedId == null) {
+      throw new IllegalArgumentException("ID cannot be null");
+    }
+    TableMetadata metadata = getTableMetadata(entityClass);
+    RelationInfo relation = getManyToManyRelation(fieldName);
+
+    try {
+      Connection connection = getConnection();
+      boolean autoClose = activeConnection == null;
+      try {
+        if (link) {
+          cascadeHandler.link(metadata, relation, id, relatedId, connection);
+        } else {
+          cascadeHandler.unlink(metadata, relation, id, relatedId, connection);
+        }
+      } finally {
+        if (autoClose) {
+          connection.close();
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error updating ManyToMany link", e);
+    }
   }
 
   @Override
   public Optional<T> findById(ID id) {
+    return findById(id, null);
+  }
+
+  @Override
+  public Optional<T> findById(ID id, FetchPlan plan) {
     if (id == null) {
       return Optional.empty();
     }
     TableMetadata metadata = getTableMetadata(entityClass);
-    return findByIdInDatabase(id, metadata);
+    Optional<T> result = findByIdInDatabase(id, metadata, plan);
+    result.ifPresent(entity -> loadCounters(List.of(entity)));
+    return result;
   }
 
   @Override
   public List<T> findAll() {
+    return findAll(null);
+  }
+
+  @Override
+  public List<T> findAll(FetchPlan plan) {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    List<T> results = findAllInDatabase(metadata, plan);
+    loadCounters(results);
+    return results;
+  }
+
+  @Override
+  public List<T> findAllById(Collection<ID> ids) {
+    return findAllById(ids, null);
+  }
+
+  @Override
+  public List<T> findAllById(Collection<ID> ids, FetchPlan plan) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    TableMetadata metadata = getTableMetadata(entityClass);
+    List<T> results = findAllByIdInDatabase(ids, metadata, plan);
+    loadCounters(results);
+    return results;
+  }
+
+  @Override
+  protected void scanIds(Consumer<Object> consumer) {
     TableMetadata metadata = getTableMetadata(entityClass);
-    return findAllInDatabase(metadata);
+    String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+    String idColumnName = SqlSanitizer.sanitizeColumnName(getColumnNameForField(metadata.idField(), metadata));
+
+    try (Connection connection = getDataSource().getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "SELECT " + idColumnName + " FROM " + tableName)) {
+      statement.setFetchSize(1000);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          consumer.accept(resultSet.getObject(1));
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error scanning entity IDs", e);
+    }
   }
 
   @Override
@@ -238,7 +461,7 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
     return getDataSource().getConnection();
   }
 
-  protected void insertIntoDatabase(T entity, TableMetadata metadata) {
+  protected void insertIntoDatabase(T entity, TableMetadata metadata, boolean upsert) {
     try {
       Connection connection = getConnection();
       boolean autoClose = activeConnection == null;
@@ -276,6 +499,11 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
         }
 
         sql.append(") VALUES (").append(placeholders).append(")");
+        if (upsert) {
+          String idColumnName = SqlSanitizer.sanitizeColumnName(
+              getColumnNameForField(metadata.idField(), metadata));
+          sql.append(Upserts.clause(orm.getDatabaseType(), idColumnName, columns));
+        }
 
         try (PreparedStatement statement = connection.prepareStatement(sql.toString(),
             java.sql.Statement.RETURN_GENERATED_KEYS)) {
@@ -283,6 +511,9 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
             statement.setObject(i + 1, values.get(i));
           }
           statement.executeUpdate();
+          if (upsert) {
+            return;
+          }
 
           try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
             if (generatedKeys.next()) {
@@ -374,8 +605,11 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
 
         try (PreparedStatement statement = connection.prepareStatement(sql)) {
           statement.setObject(1, id);
-          statement.executeUpdate();
+          if (statement.executeUpdate() > 0) {
+            forgetId(id);
+          }
         }
+        orm.getCounters().deleteAll(getCounterNames(metadata), String.valueOf(id), connection);
       } finally {
         if (autoClose) {
           connection.close();
@@ -386,7 +620,7 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
     }
   }
 
-  protected Optional<T> findByIdInDatabase(ID id, TableMetadata metadata) {
+  protected Optional<T> findByIdInDatabase(ID id, TableMetadata metadata, FetchPlan plan) {
     try {
       Connection connection = getConnection();
       boolean autoClose = activeConnection == null;
@@ -401,24 +635,10 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
 
           try (ResultSet resultSet = statement.executeQuery()) {
             if (resultSet.next()) {
-              T instance = getCachedConstructor(entityClass).newInstance();
-
-              for (var entry : metadata.columnFields().entrySet()) {
-                String columnName = entry.getKey();
-                Field field = entry.getValue();
-
-                try {
-                  Object value = resultSet.getObject(columnName);
-
-                  if (value != null) {
-                    value = convertValue(value, field.getType());
-                    field.set(instance, value);
-                  }
-                } catch (SQLException ignored) {
-                }
-              }
-
-              relationLoader.loadRelations(instance, metadata, connection);
+              ForeignKeyValues foreignKeys = ForeignKeyValues.of(metadata);
+              T instance = hydrate(resultSet, metadata, foreignKeys);
+              relationLoader.loadRelations(List.of(instance), metadata, connection, List.of(),
+                  foreignKeys, plan);
 
               return Optional.of(instance);
             }
@@ -436,7 +656,7 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
     }
   }
 
-  protected List<T> findAllInDatabase(TableMetadata metadata) {
+  protected List<T> findAllInDatabase(TableMetadata metadata, FetchPlan plan) {
     List<T> results = new ArrayList<>();
 
     try {
@@ -447,33 +667,61 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
         String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
         String sql = "SELECT * FROM " + tableName + " LIMIT " + Query.DEFAULT_QUERY_LIMIT;
 
+        ForeignKeyValues foreignKeys = ForeignKeyValues.of(metadata);
         try (PreparedStatement statement = connection.prepareStatement(sql);
             ResultSet resultSet = statement.executeQuery()) {
 
           while (resultSet.next()) {
-            T instance = getCachedConstructor(entityClass).newInstance();
+            results.add(hydrate(resultSet, metadata, foreignKeys));
+          }
+        }
+
+        relationLoader.loadRelations(results, metadata, connection, List.of(), foreignKeys, plan);
+        return results;
+      } finally {
+        if (autoClose) {
+          connection.close();
+        }
+      }
+    } catch (Exception e) {
+      throw new RuntimeException("Error finding all entities in database", e);
+    }
+  }
 
-            for (var entry : metadata.columnFields().entrySet()) {
-              try {
-                String columnName = entry.getKey();
-                Field field = entry.getValue();
+  protected List<T> findAllByIdInDatabase(Collection<ID> ids, TableMetadata metadata,
+      FetchPlan plan) {
+    List<T> results = new ArrayList<>();
+    List<Object> idList = new ArrayList<>(new LinkedHashSet<>(ids));
 
-                Object value = resultSet.getObject(columnName);
+    try {
+      Connection connection = getConnection();
+      boolean autoClose = activeConnection == null;
 
-                if (value != null) {
-                  value = convertValue(value, field.getType());
-                  field.set(instance, value);
-                }
-              } catch (SQLException ignored) {
+      try {
+        String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+        String idColumnName = SqlSanitizer.sanitizeColumnName(
+            getColumnNameForField(metadata.idField(), metadata));
+        ForeignKeyValues foreignKeys = ForeignKeyValues.of(metadata);
+
+        for (int start = 0; start < idList.size(); start += MAX_IN_CLAUSE) {
+          List<Object> chunk = idList.subList(start, Math.min(start + MAX_IN_CLAUSE, idList.size()));
+          String sql = "SELECT * FROM " + tableName + " WHERE " + idColumnName + (chunk.size() == 1
+              ? " = ?"
+              : " IN (" + "?, ".repeat(chunk.size() - 1) + "?)");
+
+          try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < chunk.size(); i++) {
+              statement.setObject(i + 1, chunk.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+              while (resultSet.next()) {
+                results.add(hydrate(resultSet, metadata, foreignKeys));
               }
             }
-
-            relationLoader.loadRelations(instance, metadata, connection);
-
-            results.add(instance);
           }
         }
 
+        relationLoader.loadRelations(results, metadata, connection, List.of(), foreignKeys, plan);
         return results;
       } finally {
         if (autoClose) {
@@ -481,130 +729,166 @@ public abstract class RelationalEntityRepository<T, ID> extends BaseEntityReposi
         }
       }
     } catch (Exception e) {
-      throw new RuntimeException("Error finding all entities in database", e);
+      throw new RuntimeException("Error finding entities by ID in database", e);
     }
   }
 
-  private void insertIntoDatabaseInternal(Object entity, TableMetadata metadata,
-      Connection connection) {
-    try {
-      String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
-      StringBuilder sql = new StringBuilder();
-      sql.append("INSERT INTO ").append(tableName).append(" (");
-
-      List<Object> values = new ArrayList<>();
-      StringBuilder placeholders = new StringBuilder();
-
-      for (var entry : metadata.columnFields().entrySet()) {
-        try {
-          Object value = entry.getValue().get(entity);
-          if (!values.isEmpty()) {
-            sql.append(", ");
-            placeholders.append(", ");
-          }
-          String columnName = SqlSanitizer.sanitizeColumnName(entry.getKey());
-          sql.append(columnName);
-          placeholders.append("?");
-          values.add(value);
-        } catch (IllegalAccessException e) {
-          throw new RuntimeException("Could not access field " + entry.getKey(), e);
-        }
+  @Override
+  protected AtomicUpdate<T> atomicUpdate(TableMetadata metadata, ID id) {
+    return AtomicUpdate.relational(orm, metadata, id, () -> activeConnection, resultSet -> {
+      try {
+        return hydrate(resultSet, metadata);
+      } catch (ReflectiveOperationException e) {
+        throw new RuntimeException("Error mapping atomic update result", e);
       }
+    });
+  }
+
+  private T hydrate(ResultSet resultSet, TableMetadata metadata, ForeignKeyValues foreignKeys)
+      throws ReflectiveOperationException {
+    T instance = hydrate(resultSet, metadata);
+    foreignKeys.capture(resultSet, metadata.idField().get(instance));
+    return instance;
+  }
 
-      sql.append(") VALUES (").append(placeholders).append(")");
+  private T hydrate(ResultSet resultSet, TableMetadata metadata)
+      throws ReflectiveOperationException {
+    T instance = getCachedConstructor(entityClass).newInstance();
 
-      try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
-        for (int i = 0; i < values.size(); i++) {
-          statement.setObject(i + 1, values.get(i));
+    for (var entry : metadata.columnFields().entrySet()) {
+      String columnName = entry.getKey();
+      Field field = entry.getValue();
+
+      try {
+        Object value = resultSet.getObject(columnName);
+
+        if (value != null) {
+          value = convertValue(value, field.getType());
+          field.set(instance, value);
         }
-        statement.executeUpdate();
+      } catch (SQLException ignored) {
       }
-    } catch (SQLException e) {
-      throw new RuntimeException("Error inserting related entity to database", e);
     }
+    return instance;
   }
 
-  private void updateInDatabaseInternal(Object entity, TableMetadata metadata,
-      Connection connection) {
-    try {
-      String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
-      StringBuilder sql = new StringBuilder();
-      sql.append("UPDATE ").append(tableName).append(" SET ");
-
-      List<Object> values = new ArrayList<>();
-      Object idValue = null;
-      String idColumnName = SqlSanitizer.sanitizeColumnName(getColumnNameForField(metadata.idField(), metadata));
+  private void insertBatchInternal(List<Object> entities, TableMetadata metadata,
+      Connection connection, boolean readGeneratedKeys, boolean upsert) {
+    if (entities.isEmpty()) {
+      return;
+    }
 
-      boolean first = true;
-      for (var entry : metadata.columnFields().entrySet()) {
-        try {
-          if (entry.getValue().equals(metadata.idField())) {
-            idValue = entry.getValue().get(entity);
-            continue;
-          }
+    List<Map.Entry<String, Field>> columns = new ArrayList<>(metadata.columnFields().entrySet());
+    String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+    StringBuilder sql = new StringBuilder();
+    sql.append("INSERT INTO ").append(tableName).append(" (");
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(SqlSanitizer.sanitizeColumnName(columns.get(i).getKey()));
+    }
+    sql.append(") VALUES (").append("?, ".repeat(columns.size() - 1)).append("?)");
+    if (upsert) {
+      List<String> columnNames = new ArrayList<>();
+      for (var column : columns) {
+        columnNames.add(SqlSanitizer.sanitizeColumnName(column.getKey()));
+      }
+      sql.append(Upserts.clause(orm.getDatabaseType(),
+          SqlSanitizer.sanitizeColumnName(getColumnNameForField(metadata.idField(), metadata)),
+          columnNames));
+    }
 
-          Object value = entry.getValue().get(entity);
-          if (!first) {
-            sql.append(", ");
+    try (PreparedStatement statement = readGeneratedKeys
+        ? connection.prepareStatement(sql.toString(), java.sql.Statement.RETURN_GENERATED_KEYS)
+        : connection.prepareStatement(sql.toString())) {
+      if (readGeneratedKeys && orm.getDatabaseType() != DatabaseType.MYSQL) {
+        for (Object entity : entities) {
+          for (int i = 0; i < columns.size(); i++) {
+            statement.setObject(i + 1, columns.get(i).getValue().get(entity));
           }
-          String columnName = SqlSanitizer.sanitizeColumnName(entry.getKey());
-          sql.append(columnName).append(" = ?");
-          values.add(value);
-          first = false;
-        } catch (IllegalAccessException e) {
-          throw new RuntimeException("Could not access field " + entry.getKey(), e);
+          statement.executeUpdate();
+          assignGeneratedKeys(statement, List.of(entity), metadata);
         }
+        return;
       }
 
-      sql.append(" WHERE ").append(idColumnName).append(" = ?");
-      values.add(idValue);
-
-      try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
-        for (int i = 0; i < values.size(); i++) {
-          statement.setObject(i + 1, values.get(i));
+      for (Object entity : entities) {
+        for (int i = 0; i < columns.size(); i++) {
+          statement.setObject(i + 1, columns.get(i).getValue().get(entity));
         }
-        statement.executeUpdate();
+        statement.addBatch();
       }
-    } catch (SQLException e) {
-      throw new RuntimeException("Error updating related entity in database", e);
+      statement.executeBatch();
+
+      if (readGeneratedKeys) {
+        assignGeneratedKeys(statement, entities, metadata);
+      }
+    } catch (SQLException | IllegalAccessException e) {
+      throw new RuntimeException("Error inserting related entities to database", e);
     }
   }
 
-  protected Object convertValue(Object value, Class<?> targetType) {
-    if (value == null) {
-      return null;
+  private void assignGeneratedKeys(PreparedStatement statement, List<Object> entities,
+      TableMetadata metadata) throws SQLException, IllegalAccessException {
+    List<Long> keys = new ArrayList<>(entities.size());
+    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+      while (generatedKeys.next()) {
+        keys.add(generatedKeys.getLong(1));
+      }
+    }
+    if (keys.size() != entities.size()) {
+      throw new IllegalStateException("Expected " + entities.size() + " generated keys for "
+          + metadata.tableName() + " but got " + keys.size());
     }
 
-    if (targetType == Long.class || targetType == long.class) {
-      if (value instanceof Integer) {
-        return ((Integer) value).longValue();
-      } else if (value instanceof Number) {
-        return ((Number) value).longValue();
-      }
-    } else if (targetType == Integer.class || targetType == int.class) {
-      if (value instanceof Long) {
-        return ((Long) value).intValue();
-      } else if (value instanceof Number) {
-        return ((Number) value).intValue();
+    Field idField = metadata.idField();
+    for (int i = 0; i < entities.size(); i++) {
+      if (idField.getType() == Long.class || idField.getType() == long.class) {
+        idField.set(entities.get(i), keys.get(i));
+      } else if (idField.getType() == Integer.class || idField.getType() == int.class) {
+        idField.set(entities.get(i), keys.get(i).intValue());
       }
-    } else if (targetType == Double.class || targetType == double.class) {
-      if (value instanceof Number) {
-        return ((Number) value).doubleValue();
-      }
-    } else if (targetType == Float.class || targetType == float.class) {
-      if (value instanceof Number) {
-        return ((Number) value).floatValue();
+    }
+  }
+
+  private void updateBatchInternal(List<Object> entities, TableMetadata metadata,
+      Connection connection) {
+    if (entities.isEmpty()) {
+      return;
+    }
+
+    List<Field> fields = new ArrayList<>();
+    String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+    String idColumnName = SqlSanitizer.sanitizeColumnName(getColumnNameForField(metadata.idField(), metadata));
+    StringBuilder sql = new StringBuilder();
+    sql.append("UPDATE ").append(tableName).append(" SET ");
+    for (var entry : metadata.columnFields().entrySet()) {
+      if (entry.getValue().equals(metadata.idField())) {
+        continue;
       }
-    } else if (targetType == boolean.class || targetType == Boolean.class) {
-      if (value instanceof Integer) {
-        return ((Integer) value) != 0;
-      } else if (value instanceof Long) {
-        return ((Long) value) != 0L;
-      } else if (value instanceof String) {
-        return "true".equalsIgnoreCase((String) value) || "1".equals(value);
+      if (!fields.isEmpty()) {
+        sql.append(", ");
       }
+      sql.append(SqlSanitizer.sanitizeColumnName(entry.getKey())).append(" = ?");
+      fields.add(entry.getValue());
+    }
+    if (fields.isEmpty()) {
+      return;
     }
+    sql.append(" WHERE ").append(idColumnName).append(" = ?");
 
-    return value;
+    try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+      for (Object entity : entities) {
+        for (int i = 0; i < fields.size(); i++) {
+          statement.setObject(i + 1, fields.get(i).get(entity));
+        }
+        statement.setObject(fields.size() + 1, metadata.idField().get(entity));
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    } catch (SQLException | IllegalAccessException e) {
+      throw new RuntimeException("Error updating related entities in database", e);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,631 @@
+package pl.minecodes.orm.entity;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import pl.minecodes.orm.DatabaseType;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.counter.CounterStore;
+import pl.minecodes.orm.exception.TransactionException;
+import pl.minecodes.orm.id.IdFilter;
+import pl.minecodes.orm.relation.CascadeHandler;
+import pl.minecodes.orm.relation.Lazy;
+import pl.minecodes.orm.relation.RelationInfo;
+import pl.minecodes.orm.relation.RelationType;
+import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.Ids;
+import pl.minecodes.orm.util.SqlSanitizer;
+import pl.minecodes.orm.util.Upserts;
+import pl.minecodes.orm.validation.EntityValidator;
+
+public class UnitOfWork {
+
+  private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+  private final FlexOrm orm;
+  private final Map<Class<?>, TableMetadata> metadataCache = new HashMap<>();
+  private final Map<Object, WriteType> pendingWrites = new IdentityHashMap<>();
+  private final List<Object> registrationOrder = new ArrayList<>();
+  private final CascadeHandler cascadeHandler;
+
+  private BaseEntityRepository<?, ?> metadataSource;
+  private Connection activeConnection;
+
+  public UnitOfWork(FlexOrm orm) {
+    if (orm.getDatabaseType() == DatabaseType.MONGODB) {
+      throw new UnsupportedOperationException("Unit of work is not supported for MongoDB");
+    }
+    this.orm = orm;
+    this.cascadeHandler = new CascadeHandler(orm, metadataCache, this::extractTableMetadata);
+  }
+
+  public UnitOfWork save(Object entity) {
+    register(entity, WriteType.SAVE);
+    return this;
+  }
+
+  public UnitOfWork update(Object entity) {
+    register(entity, WriteType.UPDATE);
+    return this;
+  }
+
+  public UnitOfWork delete(Object entity) {
+    validate(entity);
+
+    WriteType current = pendingWrites.get(entity);
+    if (current == WriteType.INSERT) {
+      pendingWrites.remove(entity);
+      registrationOrder.removeIf(pending -> pending == entity);
+      return this;
+    }
+
+    if (getEntityId(entity, getTableMetadata(entity.getClass())) == null) {
+      throw new IllegalArgumentException("Cannot delete an entity without ID");
+    }
+
+    putPending(entity, WriteType.DELETE);
+    return this;
+  }
+
+  public int pendingCount() {
+    return pendingWrites.size();
+  }
+
+  public boolean isActive() {
+    return activeConnection != null;
+  }
+
+  public void flush() {
+    if (pendingWrites.isEmpty()) {
+      return;
+    }
+
+    try {
+      Connection connection = getConnection();
+
+      Map<Class<?>, List<Object>> inserts = new LinkedHashMap<>();
+      Map<Class<?>, List<Object>> updates = new LinkedHashMap<>();
+      Map<Class<?>, List<Object>> deletes = new LinkedHashMap<>();
+      Map<Class<?>, List<Object>> saves = new LinkedHashMap<>();
+
+      for (Object entity : registrationOrder) {
+        Map<Class<?>, List<Object>> target = switch (pendingWrites.get(entity)) {
+          case INSERT -> inserts;
+          case UPDATE -> updates;
+          case DELETE -> deletes;
+          case SAVE -> saves;
+        };
+        target.computeIfAbsent(entity.getClass(), cls -> new ArrayList<>()).add(entity);
+      }
+
+      resolveSaves(saves, inserts, updates, connection);
+
+      Set<Class<?>> classes = new LinkedHashSet<>();
+      classes.addAll(inserts.keySet());
+      classes.addAll(updates.keySet());
+      classes.addAll(deletes.keySet());
+      List<Class<?>> order = sortByDependency(classes);
+
+      for (Class<?> entityClass : order) {
+        List<Object> entities = inserts.get(entityClass);
+        if (entities != null) {
+          executeInserts(entityClass, entities, connection);
+          rememberIds(entityClass, entities);
+        }
+      }
+
+      for (Class<?> entityClass : order) {
+        List<Object> entities = updates.get(entityClass);
+        if (entities != null) {
+          executeUpdates(entityClass, entities, connection);
+        }
+      }
+
+      for (Class<?> entityClass : order) {
+        TableMetadata metadata = getTableMetadata(entityClass);
+        for (Object entity : inserts.getOrDefault(entityClass, List.of())) {
+          cascadeHandler.saveManyToManyRelations(entity, metadata, connection);
+        }
+        for (Object entity : updates.getOrDefault(entityClass, List.of())) {
+          cascadeHandler.saveManyToManyRelations(entity, metadata, connection);
+        }
+      }
+
+      List<Class<?>> deleteOrder = new ArrayList<>(order);
+      Collections.reverse(deleteOrder);
+      for (Class<?> entityClass : deleteOrder) {
+        List<Object> entities = deletes.get(entityClass);
+        if (entities != null) {
+          executeDeletes(entityClass, entities, connection);
+        }
+      }
+
+      pendingWrites.clear();
+      registrationOrder.clear();
+    } catch (SQLException e) {
+      throw new TransactionException("Error flushing unit of work", e);
+    }
+  }
+
+  public void commit() {
+    try {
+      flush();
+      if (activeConnection != null) {
+        activeConnection.commit();
+      }
+    } catch (SQLException e) {
+      TransactionException failure = new TransactionException("Error committing unit of work", e);
+      rollbackAfterFailure(failure);
+      throw failure;
+    } catch (RuntimeException e) {
+      rollbackAfterFailure(e);
+      throw e;
+    } finally {
+      closeConnection();
+    }
+  }
+
+  public void rollback() {
+    pendingWrites.clear();
+    registrationOrder.clear();
+
+    try {
+      if (activeConnection != null) {
+        activeConnection.rollback();
+      }
+    } catch (SQLException e) {
+      throw new TransactionException("Error rolling back unit of work", e);
+    } finally {
+      closeConnection();
+    }
+  }
+
+  private void rollbackAfterFailure(RuntimeException failure) {
+    pendingWrites.clear();
+    registrationOrder.clear();
+
+    if (activeConnection == null) {
+      return;
+    }
+
+    try {
+      activeConnection.rollback();
+    } catch (SQLException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  private void register(Object entity, WriteType writeType) {
+    validate(entity);
+    EntityValidator.validate(entity);
+
+    TableMetadata metadata = getTableMetadata(entity.getClass());
+    Object id = getEntityId(entity, metadata);
+
+    WriteType current = pendingWrites.get(entity);
+    if (current == WriteType.INSERT || current == WriteType.DELETE) {
+      return;
+    }
+
+    if (orm.getIdGenerators().assignId(entity, metadata) || id == null) {
+      putPending(entity, WriteType.INSERT);
+    } else if (current != WriteType.UPDATE) {
+      putPending(entity, writeType);
+    }
+
+    registerCascade(entity, metadata);
+  }
+
+  private void registerCascade(Object entity, TableMetadata metadata) {
+    for (RelationInfo relation : metadata.relations()) {
+      if (!relation.cascade()) {
+        continue;
+      }
+
+      try {
+        Object relatedValue = relation.field().get(entity);
+        if (!Lazy.isInitialized(relatedValue)) {
+          continue;
+        }
+        relatedValue = Lazy.unwrap(relatedValue);
+        if (relatedValue instanceof Collection<?> collection) {
+          for (Object item : collection) {
+            if (item != null && !pendingWrites.containsKey(item)) {
+              register(item, WriteType.SAVE);
+            }
+          }
+        } else if (relatedValue != null && !pendingWrites.containsKey(relatedValue)) {
+          register(relatedValue, WriteType.SAVE);
+        }
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException("Error accessing relation field for cascade save", e);
+      }
+    }
+  }
+
+  private void putPending(Object entity, WriteType writeType) {
+    if (pendingWrites.put(entity, writeType) == null) {
+      registrationOrder.add(entity);
+    }
+  }
+
+  private void validate(Object entity) {
+    if (entity == null) {
+      throw new IllegalArgumentException("Entity cannot be null");
+    }
+    getTableMetadata(entity.getClass());
+  }
+
+  private void resolveSaves(Map<Class<?>, List<Object>> saves,
+      Map<Class<?>, List<Object>> inserts, Map<Class<?>, List<Object>> updates,
+      Connection connection) throws SQLException {
+    for (Map.Entry<Class<?>, List<Object>> entry : saves.entrySet()) {
+      TableMetadata metadata = getTableMetadata(entry.getKey());
+      IdFilter filter = orm.getIdFilter(entry.getKey());
+
+      List<Object> candidates = new ArrayList<>();
+      List<Object> ids = new ArrayList<>();
+      for (Object entity : entry.getValue()) {
+        Object id = getEntityId(entity, metadata);
+        if (filter != null && filter.checkAbsent(id)) {
+          inserts.computeIfAbsent(entry.getKey(), cls -> new ArrayList<>()).add(entity);
+        } else {
+          candidates.add(entity);
+          ids.add(id);
+        }
+      }
+      Set<Object> existingIds = ids.isEmpty()
+          ? Set.of()
+          : findExistingIds(metadata, ids, connection);
+
+      for (Object entity : candidates) {
+        Object id = getEntityId(entity, metadata);
+        boolean exists = existingIds.contains(Ids.normalize(id));
+        if (!exists && filter != null) {
+          filter.recordFalsePositive();
+        }
+        Map<Class<?>, List<Object>> target = exists ? updates : inserts;
+        target.computeIfAbsent(entry.getKey(), cls -> new ArrayList<>()).add(entity);
+      }
+    }
+  }
+
+  private void rememberIds(Class<?> entityClass, List<Object> entities) {
+    IdFilter filter = orm.getIdFilter(entityClass);
+    if (filter != null) {
+      TableMetadata metadata = getTableMetadata(entityClass);
+      for (Object entity : entities) {
+        filter.add(getEntityId(entity, metadata));
+      }
+    }
+  }
+
+  private Set<Object> findExistingIds(TableMetadata metadata, List<Object> ids,
+      Connection connection) throws SQLException {
+    Set<Object> existingIds = new HashSet<>();
+    String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+    String idColumn = SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata));
+
+    for (int start = 0; start < ids.size(); start += IN_CLAUSE_CHUNK_SIZE) {
+      List<Object> chunk = ids.subList(start, Math.min(ids.size(), start + IN_CLAUSE_CHUNK_SIZE));
+      String placeholders = chunk.stream().map(id -> "?").collect(Collectors.joining(", "));
+      String sql = "SELECT " + idColumn + " FROM " + tableName + " WHERE " + idColumn + " IN ("
+          + placeholders + ")";
+
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        for (int i = 0; i < chunk.size(); i++) {
+          statement.setObject(i + 1, chunk.get(i));
+        }
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            existingIds.add(Ids.normalize(resultSet.getObject(1)));
+          }
+        }
+      }
+    }
+
+    return existingIds;
+  }
+
+  private void executeInserts(Class<?> entityClass, List<Object> entities, Connection connection)
+      throws SQLException {
+    TableMetadata metadata = getTableMetadata(entityClass);
+
+    Map<List<String>, List<Object>> shapes = new LinkedHashMap<>();
+    Map<Object, Map<String, Object>> rows = new IdentityHashMap<>();
+    for (Object entity : entities) {
+      Map<String, Object> row = getColumnValues(entity, metadata, true);
+      rows.put(entity, row);
+      shapes.computeIfAbsent(new ArrayList<>(row.keySet()), key -> new ArrayList<>()).add(entity);
+    }
+
+    for (Map.Entry<List<String>, List<Object>> shape : shapes.entrySet()) {
+      List<String> columns = shape.getKey();
+      boolean generatedId = !columns.contains(getIdColumnName(metadata));
+      String sql = buildInsertSql(metadata, columns,
+          !generatedId && orm.getIdFilter(entityClass) != null);
+
+      if (generatedId && orm.getDatabaseType() != DatabaseType.MYSQL) {
+        for (Object entity : shape.getValue()) {
+          try (PreparedStatement statement = connection.prepareStatement(sql,
+              Statement.RETURN_GENERATED_KEYS)) {
+            bindRow(statement, rows.get(entity));
+            statement.executeUpdate();
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+              if (generatedKeys.next()) {
+                setGeneratedId(entity, metadata, generatedKeys);
+              }
+            }
+          }
+        }
+        continue;
+      }
+
+      try (PreparedStatement statement = generatedId
+          ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+          : connection.prepareStatement(sql)) {
+        for (Object entity : shape.getValue()) {
+          bindRow(statement, rows.get(entity));
+          statement.addBatch();
+        }
+        statement.executeBatch();
+
+        if (generatedId) {
+          try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+            for (Object entity : shape.getValue()) {
+              if (!generatedKeys.next()) {
+                break;
+              }
+              setGeneratedId(entity, metadata, generatedKeys);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private void executeUpdates(Class<?> entityClass, List<Object> entities, Connection connection)
+      throws SQLException {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    String idColumn = getIdColumnName(metadata);
+
+    Map<List<String>, List<Map<String, Object>>> shapes = new LinkedHashMap<>();
+    for (Object entity : entities) {
+      Map<String, Object> row = getColumnValues(entity, metadata, false);
+      row.put(idColumn, getEntityId(entity, metadata));
+      List<String> columns = new ArrayList<>(row.keySet());
+      columns.remove(idColumn);
+      shapes.computeIfAbsent(columns, key -> new ArrayList<>()).add(row);
+    }
+
+    for (Map.Entry<List<String>, List<Map<String, Object>>> shape : shapes.entrySet()) {
+      String sql = buildUpdateSql(metadata, shape.getKey());
+
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        for (Map<String, Object> row : shape.getValue()) {
+          int index = 1;
+          for (String column : shape.getKey()) {
+            statement.setObject(index++, row.get(column));
+          }
+          statement.setObject(index, row.get(idColumn));
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    }
+  }
+
+  private void executeDeletes(Class<?> entityClass, List<Object> entities, Connection connection)
+      throws SQLException {
+    TableMetadata metadata = getTableMetadata(entityClass);
+    String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+    String idColumn = SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata));
+
+    List<Runnable> afterDelete = new ArrayList<>();
+    for (Object entity : entities) {
+      afterDelete.add(cascadeHandler.handleCascadeDelete(entity, metadata, connection));
+    }
+
+    String sql = "DELETE FROM " + tableName + " WHERE " + idColumn + " = ?";
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      for (Object entity : entities) {
+        statement.setObject(1, getEntityId(entity, metadata));
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+    afterDelete.forEach(Runnable::run);
+
+    List<String> counterNames = CounterStore.getCounterNames(entityClass, metadata.tableName());
+    for (Object entity : entities) {
+      orm.getCounters().deleteAll(counterNames, String.valueOf(getEntityId(entity, metadata)),
+          connection);
+    }
+  }
+
+  private Map<String, Object> getColumnValues(Object entity, TableMetadata metadata,
+      boolean includeId) {
+    Map<String, Object> row = new LinkedHashMap<>();
+
+    try {
+      for (var entry : metadata.columnFields().entrySet()) {
+        Field field = entry.getValue();
+        Object value = field.get(entity);
+        if (field.equals(metadata.idField()) && (!includeId || value == null)) {
+          continue;
+        }
+        row.put(entry.getKey(), value);
+      }
+
+      for (RelationInfo relation : metadata.relations()) {
+        if (!isForeignKeyOwner(relation)) {
+          continue;
+        }
+
+        String fkColumn = metadata.fieldColumnNames().get(relation.field().getName());
+        Object related = Lazy.unwrap(relation.field().get(entity));
+        Object fkValue = null;
+        if (related != null) {
+          fkValue = getTableMetadata(relation.targetEntity()).idField().get(related);
+        }
+        row.put(fkColumn, fkValue);
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error reading entity columns", e);
+    }
+
+    return row;
+  }
+
+  private List<Class<?>> sortByDependency(Set<Class<?>> classes) {
+    List<Class<?>> sorted = new ArrayList<>();
+    Set<Class<?>> visiting = new HashSet<>();
+
+    for (Class<?> entityClass : classes) {
+      visit(entityClass, classes, visiting, sorted);
+    }
+
+    return sorted;
+  }
+
+  private void visit(Class<?> entityClass, Set<Class<?>> classes, Set<Class<?>> visiting,
+      List<Class<?>> sorted) {
+    if (sorted.contains(entityClass) || !visiting.add(entityClass)) {
+      return;
+    }
+
+    for (RelationInfo relation : getTableMetadata(entityClass).relations()) {
+      Class<?> target = relation.targetEntity();
+      if (isForeignKeyOwner(relation) && classes.contains(target) && target != entityClass) {
+        visit(target, classes, visiting, sorted);
+      }
+    }
+
+    sorted.add(entityClass);
+  }
+
+  private boolean isForeignKeyOwner(RelationInfo relation) {
+    return relation.type() == RelationType.MANY_TO_ONE
+        || (relation.type() == RelationType.ONE_TO_ONE && relation.isOwning());
+  }
+
+  private String buildInsertSql(TableMetadata metadata, List<String> columns, boolean upsert) {
+    List<String> columnNames = columns.stream().map(SqlSanitizer::sanitizeColumnName).toList();
+    String placeholders = columns.stream().map(column -> "?").collect(Collectors.joining(", "));
+
+    String sql = "INSERT INTO " + SqlSanitizer.sanitizeTableName(metadata.tableName()) + " ("
+        + String.join(", ", columnNames) + ") VALUES (" + placeholders + ")";
+    if (upsert) {
+      sql += Upserts.clause(orm.getDatabaseType(),
+          SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata)), columnNames);
+    }
+    return sql;
+  }
+
+  private String buildUpdateSql(TableMetadata metadata, List<String> columns) {
+    String assignments = columns.stream()
+        .map(column -> SqlSanitizer.sanitizeColumnName(column) + " = ?")
+        .collect(Collectors.joining(", "));
+
+    return "UPDATE " + SqlSanitizer.sanitizeTableName(metadata.tableName()) + " SET "
+        + assignments + " WHERE " + SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata))
+        + " = ?";
+  }
+
+  private void bindRow(PreparedStatement statement, Map<String, Object> row) throws SQLException {
+    int index = 1;
+    for (Object value : row.values()) {
+      statement.setObject(index++, value);
+    }
+  }
+
+  private void setGeneratedId(Object entity, TableMetadata metadata, ResultSet generatedKeys)
+      throws SQLException {
+    Field idField = metadata.idField();
+    try {
+      if (idField.getType() == Long.class || idField.getType() == long.class) {
+        idField.set(entity, generatedKeys.getLong(1));
+      } else if (idField.getType() == Integer.class || idField.getType() == int.class) {
+        idField.set(entity, generatedKeys.getInt(1));
+      } else {
+        idField.set(entity, generatedKeys.getObject(1));
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Could not set generated ID", e);
+    }
+  }
+
+  private Object getEntityId(Object entity, TableMetadata metadata) {
+    try {
+      return metadata.idField().get(entity);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Could not access ID field", e);
+    }
+  }
+
+  private String getIdColumnName(TableMetadata metadata) {
+    return metadata.fieldColumnNames().getOrDefault(
+        metadata.idField().getName(),
+        metadata.idField().getName()
+    );
+  }
+
+  private TableMetadata getTableMetadata(Class<?> entityClass) {
+    return metadataCache.computeIfAbsent(entityClass, this::extractTableMetadata);
+  }
+
+  private TableMetadata extractTableMetadata(Class<?> entityClass) {
+    if (metadataSource == null) {
+      metadataSource = (BaseEntityRepository<?, ?>) orm.getEntityRepository(entityClass);
+    }
+    metadataSource.validateClass(entityClass);
+    return metadataSource.extractTableMetadata(entityClass);
+  }
+
+  private Connection getConnection() throws SQLException {
+    if (activeConnection == null) {
+      HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+      activeConnection = dataSource.getConnection();
+      activeConnection.setAutoCommit(false);
+    }
+    return activeConnection;
+  }
+
+  private void closeConnection() {
+    if (activeConnection == null) {
+      return;
+    }
+
+    try {
+      activeConnection.setAutoCommit(true);
+      activeConnection.close();
+    } catch (SQLException e) {
+      throw new TransactionException("Error closing unit of work connection", e);
+    } finally {
+      activeConnection = null;
+    }
+  }
+
+  private enum WriteType {
+    INSERT,
+    UPDATE,
+    DELETE,
+    SAVE
+  }
+}
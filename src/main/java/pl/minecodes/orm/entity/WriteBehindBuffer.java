@@ -0,0 +1,228 @@
+package pl.minecodes.orm.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class WriteBehindBuffer<T> {
+
+  private final WriteBehindSettings settings;
+  private final Function<T, Object> idExtractor;
+  private final Consumer<List<T>> writer;
+  private final Map<Object, T> pending = new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final ScheduledExecutorService executor;
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private final AtomicLong saveRequests = new AtomicLong();
+  private final AtomicLong coalescedSaves = new AtomicLong();
+  private final AtomicLong writtenEntities = new AtomicLong();
+  private final AtomicLong flushes = new AtomicLong();
+  private final AtomicLong failedFlushes = new AtomicLong();
+  private final AtomicLong totalFlushNanos = new AtomicLong();
+  private final AtomicLong maxFlushNanos = new AtomicLong();
+  private final AtomicReference<RuntimeException> lastFailure = new AtomicReference<>();
+
+  public WriteBehindBuffer(String name, WriteBehindSettings settings,
+      Function<T, Object> idExtractor, Consumer<List<T>> writer) {
+    this.settings = settings;
+    this.idExtractor = idExtractor;
+    this.writer = writer;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "flexorm-write-behind-" + name);
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    long intervalMillis = settings.flushInterval().toMillis();
+    this.executor.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  public void save(T entity) {
+    if (closed.get()) {
+      throw new IllegalStateException("Write-behind buffer is closed");
+    }
+
+    saveRequests.incrementAndGet();
+    Object key = getKey(entity);
+
+    if (pending.replace(key, entity) != null) {
+      coalescedSaves.incrementAndGet();
+      return;
+    }
+
+    lock.lock();
+    try {
+      while (pending.size() >= settings.maxPending() && !pending.containsKey(key)) {
+        scheduleFlush();
+        notFull.await(settings.flushInterval().toMillis(), TimeUnit.MILLISECONDS);
+      }
+
+      if (pending.put(key, entity) != null) {
+        coalescedSaves.incrementAndGet();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for write-behind capacity", e);
+    } finally {
+      lock.unlock();
+    }
+
+    if (pending.size() >= settings.batchSize()) {
+      scheduleFlush();
+    }
+  }
+
+  public void flush() {
+    flushLock.lock();
+    try {
+      List<T> entities = drain();
+      if (entities.isEmpty()) {
+        return;
+      }
+
+      for (int start = 0; start < entities.size(); start += settings.batchSize()) {
+        List<T> batch = entities.subList(start,
+            Math.min(entities.size(), start + settings.batchSize()));
+        try {
+          writeBatch(batch);
+        } catch (RuntimeException e) {
+          requeue(entities.subList(start, entities.size()));
+          throw e;
+        }
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    executor.shutdown();
+    try {
+      executor.awaitTermination(settings.flushInterval().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  public boolean isClosed() {
+    return closed.get();
+  }
+
+  public WriteBehindStats getStats() {
+    return new WriteBehindStats(
+        saveRequests.get(),
+        coalescedSaves.get(),
+        writtenEntities.get(),
+        flushes.get(),
+        failedFlushes.get(),
+        totalFlushNanos.get(),
+        maxFlushNanos.get(),
+        pending.size(),
+        lastFailure.get()
+    );
+  }
+
+  private List<T> drain() {
+    List<T> entities = new ArrayList<>();
+
+    lock.lock();
+    try {
+      for (Object key : new ArrayList<>(pending.keySet())) {
+        T entity = pending.remove(key);
+        if (entity != null) {
+          entities.add(entity);
+        }
+      }
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    return entities;
+  }
+
+  private void writeBatch(List<T> batch) {
+    long start = System.nanoTime();
+    try {
+      writer.accept(batch);
+      writtenEntities.addAndGet(batch.size());
+    } catch (RuntimeException e) {
+      failedFlushes.incrementAndGet();
+      throw e;
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      flushes.incrementAndGet();
+      totalFlushNanos.addAndGet(elapsed);
+      maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+    }
+  }
+
+  private void requeue(List<T> batch) {
+    lock.lock();
+    try {
+      for (T entity : batch) {
+        pending.putIfAbsent(getKey(entity), entity);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void scheduleFlush() {
+    if (closed.get() || !flushScheduled.compareAndSet(false, true)) {
+      return;
+    }
+
+    executor.execute(() -> {
+      flushScheduled.set(false);
+      flushQuietly();
+    });
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      lastFailure.set(e);
+    }
+  }
+
+  private Object getKey(T entity) {
+    Object id = idExtractor.apply(entity);
+    return id != null ? id : new IdentityKey(entity);
+  }
+
+  private record IdentityKey(Object entity) {
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof IdentityKey other && other.entity == entity;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(entity);
+    }
+  }
+}
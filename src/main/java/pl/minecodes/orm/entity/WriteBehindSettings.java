@@ -0,0 +1,22 @@
+package pl.minecodes.orm.entity;
+
+import java.time.Duration;
+
+public record WriteBehindSettings(Duration flushInterval, int batchSize, int maxPending) {
+
+  public WriteBehindSettings {
+    if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+      throw new IllegalArgumentException("Flush interval must be positive");
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    if (maxPending < batchSize) {
+      throw new IllegalArgumentException("Max pending must not be lower than batch size");
+    }
+  }
+
+  public static WriteBehindSettings defaults() {
+    return new WriteBehindSettings(Duration.ofSeconds(5), 500, 10_000);
+  }
+}
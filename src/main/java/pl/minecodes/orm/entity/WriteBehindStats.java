@@ -0,0 +1,26 @@
+package pl.minecodes.orm.entity;
+
+public record WriteBehindStats(
+    long saveRequests,
+    long coalescedSaves,
+    long writtenEntities,
+    long flushes,
+    long failedFlushes,
+    long totalFlushNanos,
+    long maxFlushNanos,
+    int pending,
+    RuntimeException lastFailure
+) {
+
+  public double coalescingRatio() {
+    return saveRequests == 0 ? 0.0 : (double) coalescedSaves / saveRequests;
+  }
+
+  public double averageFlushLatencyMillis() {
+    return flushes == 0 ? 0.0 : totalFlushNanos / 1_000_000.0 / flushes;
+  }
+
+  public double maxFlushLatencyMillis() {
+    return maxFlushNanos / 1_000_000.0;
+  }
+}
@@ -0,0 +1,184 @@
+package pl.minecodes.orm.id;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.Document;
+import pl.minecodes.orm.DatabaseType;
+import pl.minecodes.orm.FlexOrm;
+
+public class HiLoIdGenerator implements IdGenerator {
+
+  public static final String SEQUENCES_TABLE = "_orm_sequences";
+
+  private final FlexOrm orm;
+  private final String sequenceName;
+  private final String tableName;
+  private final String idColumn;
+  private final int allocationSize;
+
+  private volatile Block block;
+
+  public HiLoIdGenerator(FlexOrm orm, String sequenceName, String tableName, String idColumn,
+      int allocationSize) {
+    if (allocationSize <= 0) {
+      throw new IllegalArgumentException("Allocation size must be positive");
+    }
+    this.orm = orm;
+    this.sequenceName = sequenceName;
+    this.tableName = tableName;
+    this.idColumn = idColumn;
+    this.allocationSize = allocationSize;
+  }
+
+  @Override
+  public Long nextId() {
+    while (true) {
+      Block current = block;
+      if (current != null) {
+        long id = current.cursor().getAndIncrement();
+        if (id < current.end()) {
+          return id;
+        }
+      }
+
+      synchronized (this) {
+        if (block == current) {
+          block = allocateBlock();
+        }
+      }
+    }
+  }
+
+  public int getAllocationSize() {
+    return allocationSize;
+  }
+
+  private Block allocateBlock() {
+    long end = orm.getDatabaseType() == DatabaseType.MONGODB
+        ? allocateInCollection()
+        : allocateInTable();
+    return new Block(new AtomicLong(end - allocationSize), end);
+  }
+
+  private long allocateInTable() {
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+
+    try (Connection connection = dataSource.getConnection()) {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("CREATE TABLE IF NOT EXISTS " + SEQUENCES_TABLE
+            + " (name VARCHAR(255) PRIMARY KEY, next_value BIGINT NOT NULL)");
+      }
+
+      connection.setAutoCommit(false);
+      try {
+        if (incrementSequence(connection) == 0) {
+          seedSequence(connection);
+          if (incrementSequence(connection) == 0) {
+            throw new SQLException("Sequence " + sequenceName + " could not be initialized");
+          }
+        }
+
+        long end;
+        try (PreparedStatement statement = connection.prepareStatement(
+            "SELECT next_value FROM " + SEQUENCES_TABLE + " WHERE name = ?")) {
+          statement.setString(1, sequenceName);
+          try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            end = resultSet.getLong(1);
+          }
+        }
+
+        connection.commit();
+        return end;
+      } catch (SQLException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error allocating ID block for sequence " + sequenceName, e);
+    }
+  }
+
+  private int incrementSequence(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(
+        "UPDATE " + SEQUENCES_TABLE + " SET next_value = next_value + ? WHERE name = ?")) {
+      statement.setLong(1, allocationSize);
+      statement.setString(2, sequenceName);
+      return statement.executeUpdate();
+    }
+  }
+
+  private void seedSequence(Connection connection) throws SQLException {
+    long start = 1;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(
+            "SELECT MAX(" + idColumn + ") FROM " + tableName)) {
+      if (resultSet.next()) {
+        start = resultSet.getLong(1) + 1;
+      }
+    } catch (SQLException ignored) {
+    }
+
+    String sql = orm.getDatabaseType() == DatabaseType.MYSQL
+        ? "INSERT IGNORE INTO " + SEQUENCES_TABLE + " (name, next_value) VALUES (?, ?)"
+        : "INSERT OR IGNORE INTO " + SEQUENCES_TABLE + " (name, next_value) VALUES (?, ?)";
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setString(1, sequenceName);
+      statement.setLong(2, start);
+      statement.executeUpdate();
+    }
+  }
+
+  private long allocateInCollection() {
+    MongoDatabase database = (MongoDatabase) orm.getConnection().getConnection();
+    MongoCollection<Document> sequences = database.getCollection(SEQUENCES_TABLE);
+
+    if (sequences.find(Filters.eq("_id", sequenceName)).first() == null) {
+      long start = 1;
+      Document last = database.getCollection(tableName).find()
+          .sort(Sorts.descending(idColumn))
+          .limit(1)
+          .first();
+      if (last != null && last.get(idColumn) instanceof Number number) {
+        start = number.longValue() + 1;
+      }
+
+      try {
+        sequences.insertOne(new Document("_id", sequenceName).append("next_value", start));
+      } catch (MongoWriteException e) {
+        if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+          throw e;
+        }
+      }
+    }
+
+    Document updated = sequences.findOneAndUpdate(
+        Filters.eq("_id", sequenceName),
+        Updates.inc("next_value", (long) allocationSize),
+        new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    if (updated == null) {
+      throw new IllegalStateException("Sequence " + sequenceName + " could not be initialized");
+    }
+    return ((Number) updated.get("next_value")).longValue();
+  }
+
+  private record Block(AtomicLong cursor, long end) {
+
+  }
+}
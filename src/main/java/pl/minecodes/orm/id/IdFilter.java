@@ -0,0 +1,169 @@
+package pl.minecodes.orm.id;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class IdFilter {
+
+  private static final int COUNTER_BITS = 4;
+  private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+  private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+  private final long expectedIds;
+  private final double targetFalsePositiveRate;
+  private final int counterCount;
+  private final int hashCount;
+  private final AtomicLongArray counters;
+  private volatile boolean seeded;
+
+  private final LongAdder ids = new LongAdder();
+  private final LongAdder checks = new LongAdder();
+  private final LongAdder selectsSaved = new LongAdder();
+  private final LongAdder falsePositives = new LongAdder();
+
+  public IdFilter(long expectedIds, double falsePositiveRate) {
+    if (expectedIds <= 0) {
+      throw new IllegalArgumentException("Expected ID count must be positive");
+    }
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+    }
+
+    this.expectedIds = expectedIds;
+    this.targetFalsePositiveRate = falsePositiveRate;
+
+    double size = -expectedIds * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    if (size > (double) Integer.MAX_VALUE - COUNTERS_PER_WORD) {
+      throw new IllegalArgumentException("Filter for " + expectedIds + " IDs is too large");
+    }
+    this.counterCount = Math.max(COUNTERS_PER_WORD, (int) Math.ceil(size));
+    this.hashCount = Math.max(1, (int) Math.round((double) counterCount / expectedIds * Math.log(2)));
+    this.counters = new AtomicLongArray((counterCount + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+  }
+
+  public void add(Object id) {
+    if (id == null) {
+      return;
+    }
+
+    long hash = hash(id);
+    for (int i = 0; i < hashCount; i++) {
+      adjust(index(hash, i), 1);
+    }
+    ids.increment();
+  }
+
+  public void remove(Object id) {
+    if (id == null || !mightContain(id)) {
+      return;
+    }
+
+    long hash = hash(id);
+    for (int i = 0; i < hashCount; i++) {
+      adjust(index(hash, i), -1);
+    }
+    ids.decrement();
+  }
+
+  public boolean mightContain(Object id) {
+    long hash = hash(id);
+    for (int i = 0; i < hashCount; i++) {
+      if (counter(index(hash, i)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void markSeeded() {
+    seeded = true;
+  }
+
+  public boolean isSeeded() {
+    return seeded;
+  }
+
+  public boolean checkAbsent(Object id) {
+    if (!seeded) {
+      return false;
+    }
+
+    checks.increment();
+    if (!mightContain(id)) {
+      selectsSaved.increment();
+      return true;
+    }
+    return false;
+  }
+
+  public void recordFalsePositive() {
+    if (seeded) {
+      falsePositives.increment();
+    }
+  }
+
+  public IdFilterStats getStats() {
+    return new IdFilterStats(
+        expectedIds,
+        ids.sum(),
+        targetFalsePositiveRate,
+        checks.sum(),
+        selectsSaved.sum(),
+        falsePositives.sum()
+    );
+  }
+
+  private int index(long hash, int i) {
+    int first = (int) hash;
+    int second = (int) (hash >>> 32) | 1;
+    return Math.floorMod(first + i * second, counterCount);
+  }
+
+  private long counter(int index) {
+    long word = counters.get(index / COUNTERS_PER_WORD);
+    return (word >>> shift(index)) & COUNTER_MAX;
+  }
+
+  private void adjust(int index, int delta) {
+    int wordIndex = index / COUNTERS_PER_WORD;
+    int shift = shift(index);
+
+    while (true) {
+      long word = counters.get(wordIndex);
+      long value = (word >>> shift) & COUNTER_MAX;
+      if (value == COUNTER_MAX || (delta < 0 && value == 0)) {
+        return;
+      }
+
+      long updated = (word & ~(COUNTER_MAX << shift)) | ((value + delta) << shift);
+      if (counters.compareAndSet(wordIndex, word, updated)) {
+        return;
+      }
+    }
+  }
+
+  private int shift(int index) {
+    return (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+  }
+
+  private long hash(Object id) {
+    long value;
+    if (id instanceof Number number && !(id instanceof Double) && !(id instanceof Float)) {
+      value = number.longValue();
+    } else {
+      value = 0xcbf29ce484222325L;
+      for (byte b : String.valueOf(id).getBytes(StandardCharsets.UTF_8)) {
+        value ^= b;
+        value *= 0x100000001b3L;
+      }
+    }
+
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
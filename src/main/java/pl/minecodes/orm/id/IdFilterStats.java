@@ -0,0 +1,20 @@
+package pl.minecodes.orm.id;
+
+public record IdFilterStats(
+    long expectedIds,
+    long ids,
+    double targetFalsePositiveRate,
+    long checks,
+    long selectsSaved,
+    long falsePositives
+) {
+
+  public double falsePositiveRate() {
+    long absentChecks = selectsSaved + falsePositives;
+    return absentChecks == 0 ? 0.0 : (double) falsePositives / absentChecks;
+  }
+
+  public double selectsSavedRatio() {
+    return checks == 0 ? 0.0 : (double) selectsSaved / checks;
+  }
+}
@@ -0,0 +1,7 @@
+package pl.minecodes.orm.id;
+
+public interface IdGenerator {
+
+  Object nextId();
+
+}
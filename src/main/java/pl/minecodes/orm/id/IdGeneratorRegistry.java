@@ -0,0 +1,126 @@
+package pl.minecodes.orm.id;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.GeneratorType;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.table.TableMetadata;
+
+public class IdGeneratorRegistry {
+
+  private static final IdGenerator NONE = () -> null;
+
+  private final FlexOrm orm;
+  private final Map<Class<?>, IdGenerator> generators = new ConcurrentHashMap<>();
+  private final UuidV7Generator uuidGenerator = new UuidV7Generator();
+  private volatile SnowflakeIdGenerator snowflakeGenerator;
+  private int nodeId = ThreadLocalRandom.current().nextInt(SnowflakeIdGenerator.MAX_NODE_ID + 1);
+
+  public IdGeneratorRegistry(FlexOrm orm) {
+    this.orm = orm;
+  }
+
+  public synchronized void setNodeId(int nodeId) {
+    if (snowflakeGenerator != null) {
+      throw new IllegalStateException("Node ID must be set before the first Snowflake ID is generated");
+    }
+    this.snowflakeGenerator = new SnowflakeIdGenerator(nodeId);
+    this.nodeId = nodeId;
+  }
+
+  public void register(Class<?> entityClass, IdGenerator generator) {
+    generators.put(entityClass, generator);
+  }
+
+  public boolean hasGenerator(Class<?> entityClass, TableMetadata metadata) {
+    return getGenerator(entityClass, metadata) != NONE;
+  }
+
+  public boolean assignId(Object entity, TableMetadata metadata) {
+    IdGenerator generator = getGenerator(entity.getClass(), metadata);
+    if (generator == NONE) {
+      return false;
+    }
+
+    Field idField = metadata.idField();
+    try {
+      Object current = idField.get(entity);
+      if (current != null && !(current instanceof Number number && number.longValue() == 0
+          && idField.getType().isPrimitive())) {
+        return false;
+      }
+      idField.set(entity, convertId(generator.nextId(), idField.getType()));
+      return true;
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Could not access ID field", e);
+    }
+  }
+
+  public Object nextId(Class<?> entityClass, TableMetadata metadata) {
+    IdGenerator generator = getGenerator(entityClass, metadata);
+    if (generator == NONE) {
+      return null;
+    }
+    return convertId(generator.nextId(), metadata.idField().getType());
+  }
+
+  private IdGenerator getGenerator(Class<?> entityClass, TableMetadata metadata) {
+    return generators.computeIfAbsent(entityClass, cls -> createGenerator(metadata));
+  }
+
+  private IdGenerator createGenerator(TableMetadata metadata) {
+    Field idField = metadata.idField();
+    OrmEntityId ormEntityId = idField.getAnnotation(OrmEntityId.class);
+    GeneratorType type = ormEntityId.generator();
+
+    return switch (type) {
+      case IDENTITY -> NONE;
+      case HILO -> {
+        requireType(idField, type, Long.class, long.class, Integer.class, int.class);
+        String idColumn = metadata.fieldColumnNames().getOrDefault(idField.getName(), idField.getName());
+        yield new HiLoIdGenerator(orm, metadata.tableName(), metadata.tableName(), idColumn,
+            ormEntityId.allocationSize());
+      }
+      case SNOWFLAKE -> {
+        requireType(idField, type, Long.class, long.class);
+        yield getSnowflakeGenerator();
+      }
+      case UUID_V7 -> {
+        requireType(idField, type, String.class);
+        yield uuidGenerator;
+      }
+    };
+  }
+
+  private synchronized SnowflakeIdGenerator getSnowflakeGenerator() {
+    if (snowflakeGenerator == null) {
+      snowflakeGenerator = new SnowflakeIdGenerator(nodeId);
+    }
+    return snowflakeGenerator;
+  }
+
+  private void requireType(Field idField, GeneratorType type, Class<?>... allowed) {
+    for (Class<?> allowedType : allowed) {
+      if (allowedType == idField.getType()) {
+        return;
+      }
+    }
+    throw new IllegalStateException("Generator " + type + " cannot be used for ID field "
+        + idField.getDeclaringClass().getSimpleName() + "." + idField.getName()
+        + " of type " + idField.getType().getSimpleName());
+  }
+
+  private Object convertId(Object id, Class<?> idType) {
+    if (id instanceof Number number && (idType == Integer.class || idType == int.class)) {
+      long value = number.longValue();
+      if (value > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Generated ID " + value + " does not fit into an int field");
+      }
+      return (int) value;
+    }
+    return id;
+  }
+}
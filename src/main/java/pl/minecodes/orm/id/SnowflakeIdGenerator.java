@@ -0,0 +1,52 @@
+package pl.minecodes.orm.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SnowflakeIdGenerator implements IdGenerator {
+
+  public static final long EPOCH = 1704067200000L;
+  public static final int MAX_NODE_ID = 1023;
+
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+  private final long nodeId;
+  private final AtomicLong state = new AtomicLong();
+
+  public SnowflakeIdGenerator(int nodeId) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID);
+    }
+    this.nodeId = nodeId;
+  }
+
+  @Override
+  public Long nextId() {
+    while (true) {
+      long now = System.currentTimeMillis();
+      long last = state.get();
+      long lastTimestamp = last >>> SEQUENCE_BITS;
+      long lastSequence = last & SEQUENCE_MASK;
+
+      long timestamp;
+      long sequence;
+      if (now > lastTimestamp) {
+        timestamp = now;
+        sequence = 0;
+      } else if (lastSequence < SEQUENCE_MASK) {
+        timestamp = lastTimestamp;
+        sequence = lastSequence + 1;
+      } else {
+        timestamp = lastTimestamp + 1;
+        sequence = 0;
+      }
+
+      if (state.compareAndSet(last, (timestamp << SEQUENCE_BITS) | sequence)) {
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS))
+            | (nodeId << SEQUENCE_BITS)
+            | sequence;
+      }
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package pl.minecodes.orm.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class UuidV7Generator implements IdGenerator {
+
+  @Override
+  public String nextId() {
+    return nextUuid().toString();
+  }
+
+  public UUID nextUuid() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long timestamp = System.currentTimeMillis();
+
+    long mostSignificantBits = (timestamp << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+    long leastSignificantBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+    return new UUID(mostSignificantBits, leastSignificantBits);
+  }
+}
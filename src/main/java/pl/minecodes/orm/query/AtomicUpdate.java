@@ -0,0 +1,422 @@
+package pl.minecodes.orm.query;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.result.UpdateResult;
+import com.zaxxer.hikari.HikariDataSource;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import pl.minecodes.orm.DatabaseType;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.exception.QueryException;
+import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.SqlSanitizer;
+
+public class AtomicUpdate<T> {
+
+  private final FlexOrm orm;
+  private final TableMetadata metadata;
+  private final Object id;
+  private final Supplier<Connection> activeConnection;
+  private final Supplier<ClientSession> activeSession;
+  private final Function<ResultSet, T> rowMapper;
+  private final Function<Document, T> documentMapper;
+  private final List<FieldOperation> operations = new ArrayList<>();
+
+  private AtomicUpdate(FlexOrm orm, TableMetadata metadata, Object id,
+      Supplier<Connection> activeConnection, Supplier<ClientSession> activeSession,
+      Function<ResultSet, T> rowMapper, Function<Document, T> documentMapper) {
+    this.orm = orm;
+    this.metadata = metadata;
+    this.id = id;
+    this.activeConnection = activeConnection;
+    this.activeSession = activeSession;
+    this.rowMapper = rowMapper;
+    this.documentMapper = documentMapper;
+  }
+
+  public static <T> AtomicUpdate<T> relational(FlexOrm orm, TableMetadata metadata, Object id,
+      Supplier<Connection> activeConnection, Function<ResultSet, T> rowMapper) {
+    return new AtomicUpdate<>(orm, metadata, id, activeConnection, () -> null, rowMapper, null);
+  }
+
+  public static <T> AtomicUpdate<T> mongo(FlexOrm orm, TableMetadata metadata, Object id,
+      Supplier<ClientSession> activeSession, Function<Document, T> documentMapper) {
+    return new AtomicUpdate<>(orm, metadata, id, () -> null, activeSession, null,
+        documentMapper);
+  }
+
+  public AtomicUpdate<T> set(String field, Object value) {
+    return addOperation(field, OperationType.SET, value);
+  }
+
+  public AtomicUpdate<T> increment(String field, Number amount) {
+    requireNumeric(field);
+    return addOperation(field, OperationType.INCREMENT, amount);
+  }
+
+  public AtomicUpdate<T> decrement(String field, Number amount) {
+    requireNumeric(field);
+    return addOperation(field, OperationType.INCREMENT, negate(amount));
+  }
+
+  public AtomicUpdate<T> min(String field, Object value) {
+    return addOperation(field, OperationType.MIN, value);
+  }
+
+  public AtomicUpdate<T> max(String field, Object value) {
+    return addOperation(field, OperationType.MAX, value);
+  }
+
+  public AtomicUpdate<T> append(String field, Object value) {
+    Field target = getField(field);
+    if (target.getType() != String.class && !Collection.class.isAssignableFrom(target.getType())) {
+      throw new IllegalArgumentException("Field " + field + " does not support append");
+    }
+    if (Collection.class.isAssignableFrom(target.getType())
+        && orm.getDatabaseType() != DatabaseType.MONGODB) {
+      throw new UnsupportedOperationException(
+          "Appending to collection fields is only supported for MongoDB");
+    }
+    return addOperation(field, OperationType.APPEND, value);
+  }
+
+  public int execute() {
+    requireOperations();
+    return switch (orm.getDatabaseType()) {
+      case MYSQL, SQLLITE -> executeRelational();
+      case MONGODB -> executeMongo();
+    };
+  }
+
+  public Optional<T> executeAndFetch() {
+    requireOperations();
+    return switch (orm.getDatabaseType()) {
+      case SQLLITE -> executeSQLiteReturning();
+      case MYSQL -> executeMySQLAndSelect();
+      case MONGODB -> executeMongoAndFetch();
+    };
+  }
+
+  private int executeRelational() {
+    try {
+      Connection connection = getConnection();
+      try (PreparedStatement statement = prepareUpdate(connection, buildUpdateSql(""))) {
+        return statement.executeUpdate();
+      } finally {
+        closeIfOwned(connection);
+      }
+    } catch (SQLException e) {
+      throw new QueryException("Error executing atomic update", e);
+    }
+  }
+
+  private Optional<T> executeSQLiteReturning() {
+    try {
+      Connection connection = getConnection();
+      try (PreparedStatement statement = prepareUpdate(connection, buildUpdateSql(" RETURNING *"));
+          ResultSet resultSet = statement.executeQuery()) {
+        if (resultSet.next()) {
+          return Optional.of(rowMapper.apply(resultSet));
+        }
+        return Optional.empty();
+      } finally {
+        closeIfOwned(connection);
+      }
+    } catch (SQLException e) {
+      throw new QueryException("Error executing atomic update", e);
+    }
+  }
+
+  private Optional<T> executeMySQLAndSelect() {
+    try {
+      Connection connection = getConnection();
+      boolean owned = connection != activeConnection.get();
+      try {
+        if (owned) {
+          connection.setAutoCommit(false);
+        }
+        try {
+          Optional<T> result = updateAndSelect(connection);
+          if (owned) {
+            connection.commit();
+          }
+          return result;
+        } catch (SQLException e) {
+          if (owned) {
+            connection.rollback();
+          }
+          throw e;
+        } finally {
+          if (owned) {
+            connection.setAutoCommit(true);
+          }
+        }
+      } finally {
+        closeIfOwned(connection);
+      }
+    } catch (SQLException e) {
+      throw new QueryException("Error executing atomic update", e);
+    }
+  }
+
+  private Optional<T> updateAndSelect(Connection connection) throws SQLException {
+    int affected;
+    try (PreparedStatement statement = prepareUpdate(connection, buildUpdateSql(""))) {
+      affected = statement.executeUpdate();
+    }
+    if (affected == 0) {
+      return Optional.empty();
+    }
+
+    String sql = "SELECT * FROM " + SqlSanitizer.sanitizeTableName(metadata.tableName())
+        + " WHERE " + getIdColumnName() + " = ?";
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setObject(1, id);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? Optional.of(rowMapper.apply(resultSet)) : Optional.empty();
+      }
+    }
+  }
+
+  private Connection getConnection() throws SQLException {
+    Connection connection = activeConnection.get();
+    if (connection != null && !connection.isClosed()) {
+      return connection;
+    }
+    return ((HikariDataSource) orm.getConnection().getConnection()).getConnection();
+  }
+
+  private void closeIfOwned(Connection connection) throws SQLException {
+    if (connection != activeConnection.get()) {
+      connection.close();
+    }
+  }
+
+  private String buildUpdateSql(String suffix) {
+    StringBuilder sql = new StringBuilder();
+    sql.append("UPDATE ").append(SqlSanitizer.sanitizeTableName(metadata.tableName()))
+        .append(" SET ");
+
+    for (int i = 0; i < operations.size(); i++) {
+      FieldOperation operation = operations.get(i);
+      String column = operation.column();
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(column).append(" = ");
+
+      switch (operation.type()) {
+        case SET -> sql.append("?");
+        case INCREMENT -> sql.append("COALESCE(").append(column).append(", 0) + ?");
+        case MIN -> sql.append("CASE WHEN ").append(column).append(" IS NULL OR ? < ")
+            .append(column).append(" THEN ? ELSE ").append(column).append(" END");
+        case MAX -> sql.append("CASE WHEN ").append(column).append(" IS NULL OR ? > ")
+            .append(column).append(" THEN ? ELSE ").append(column).append(" END");
+        case APPEND -> {
+          if (orm.getDatabaseType() == DatabaseType.MYSQL) {
+            sql.append("CONCAT(COALESCE(").append(column).append(", ''), ?)");
+          } else {
+            sql.append("COALESCE(").append(column).append(", '') || ?");
+          }
+        }
+      }
+    }
+
+    sql.append(" WHERE ").append(getIdColumnName()).append(" = ?").append(suffix);
+    return sql.toString();
+  }
+
+  private PreparedStatement prepareUpdate(Connection connection, String sql) throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(sql);
+    int index = 1;
+    for (FieldOperation operation : operations) {
+      statement.setObject(index++, operation.value());
+      if (operation.type() == OperationType.MIN || operation.type() == OperationType.MAX) {
+        statement.setObject(index++, operation.value());
+      }
+    }
+    statement.setObject(index, id);
+    return statement;
+  }
+
+  private int executeMongo() {
+    MongoCollection<Document> collection = getCollection();
+    ClientSession session = activeSession.get();
+    UpdateResult result;
+    if (requiresPipeline()) {
+      result = session != null
+          ? collection.updateOne(session, getMongoFilter(), buildMongoPipeline())
+          : collection.updateOne(getMongoFilter(), buildMongoPipeline());
+    } else {
+      result = session != null
+          ? collection.updateOne(session, getMongoFilter(), buildMongoUpdate())
+          : collection.updateOne(getMongoFilter(), buildMongoUpdate());
+    }
+    return (int) result.getMatchedCount();
+  }
+
+  private Optional<T> executeMongoAndFetch() {
+    MongoCollection<Document> collection = getCollection();
+    FindOneAndUpdateOptions options = new FindOneAndUpdateOptions()
+        .returnDocument(ReturnDocument.AFTER);
+
+    ClientSession session = activeSession.get();
+    Document document;
+    if (requiresPipeline()) {
+      document = session != null
+          ? collection.findOneAndUpdate(session, getMongoFilter(), buildMongoPipeline(), options)
+          : collection.findOneAndUpdate(getMongoFilter(), buildMongoPipeline(), options);
+    } else {
+      document = session != null
+          ? collection.findOneAndUpdate(session, getMongoFilter(), buildMongoUpdate(), options)
+          : collection.findOneAndUpdate(getMongoFilter(), buildMongoUpdate(), options);
+    }
+
+    return Optional.ofNullable(document).map(documentMapper);
+  }
+
+  private Document buildMongoUpdate() {
+    Document update = new Document();
+    for (FieldOperation operation : operations) {
+      String operator = switch (operation.type()) {
+        case SET -> "$set";
+        case INCREMENT -> "$inc";
+        case MIN -> "$min";
+        case MAX -> "$max";
+        case APPEND -> "$push";
+      };
+      Document fields = (Document) update.computeIfAbsent(operator, key -> new Document());
+      fields.append(operation.column(), operation.value());
+    }
+    return update;
+  }
+
+  private List<Bson> buildMongoPipeline() {
+    Document fields = new Document();
+    for (FieldOperation operation : operations) {
+      String reference = "$" + operation.column();
+      Object expression = switch (operation.type()) {
+        case SET -> new Document("$literal", operation.value());
+        case INCREMENT -> new Document("$add",
+            List.of(new Document("$ifNull", List.of(reference, 0)), operation.value()));
+        case MIN -> new Document("$min", List.of(reference, operation.value()));
+        case MAX -> new Document("$max", List.of(reference, operation.value()));
+        case APPEND -> new Document("$concat",
+            List.of(new Document("$ifNull", List.of(reference, "")), operation.value()));
+      };
+      fields.append(operation.column(), expression);
+    }
+    return List.of(new Document("$set", fields));
+  }
+
+  private boolean requiresPipeline() {
+    for (FieldOperation operation : operations) {
+      if (operation.type() == OperationType.APPEND
+          && !Collection.class.isAssignableFrom(operation.field().getType())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Bson getMongoFilter() {
+    String idColumnName = metadata.fieldColumnNames().getOrDefault(
+        metadata.idField().getName(), metadata.idField().getName());
+    return new Document(idColumnName, id);
+  }
+
+  private MongoCollection<Document> getCollection() {
+    MongoDatabase database = (MongoDatabase) orm.getConnection().getConnection();
+    return database.getCollection(metadata.tableName());
+  }
+
+  private AtomicUpdate<T> addOperation(String field, OperationType type, Object value) {
+    Field target = getField(field);
+    if (target.equals(metadata.idField())) {
+      throw new IllegalArgumentException("ID field cannot be modified");
+    }
+    if (value == null && type != OperationType.SET) {
+      throw new IllegalArgumentException("Value for " + field + " cannot be null");
+    }
+    operations.add(new FieldOperation(getColumnName(field), target, type, value));
+    return this;
+  }
+
+  private void requireOperations() {
+    if (operations.isEmpty()) {
+      throw new IllegalStateException("No field operations specified");
+    }
+  }
+
+  private void requireNumeric(String field) {
+    Class<?> type = getField(field).getType();
+    boolean numeric = type.isPrimitive()
+        ? type != boolean.class && type != char.class
+        : Number.class.isAssignableFrom(type);
+    if (!numeric) {
+      throw new IllegalArgumentException("Field " + field + " is not numeric");
+    }
+  }
+
+  private Number negate(Number amount) {
+    if (amount instanceof Integer value) {
+      return -value;
+    } else if (amount instanceof Long value) {
+      return -value;
+    } else if (amount instanceof Float value) {
+      return -value;
+    } else if (amount instanceof BigDecimal value) {
+      return value.negate();
+    } else if (amount instanceof BigInteger value) {
+      return value.negate();
+    }
+    return -amount.doubleValue();
+  }
+
+  private Field getField(String field) {
+    String columnName = metadata.fieldColumnNames().getOrDefault(field, field);
+    Field target = metadata.columnFields().get(columnName);
+    if (target == null) {
+      throw new IllegalArgumentException("Unknown field: " + field);
+    }
+    return target;
+  }
+
+  private String getColumnName(String field) {
+    return SqlSanitizer.sanitizeColumnName(metadata.fieldColumnNames().getOrDefault(field, field));
+  }
+
+  private String getIdColumnName() {
+    return SqlSanitizer.sanitizeColumnName(metadata.fieldColumnNames().getOrDefault(
+        metadata.idField().getName(), metadata.idField().getName()));
+  }
+
+  private enum OperationType {
+    SET,
+    INCREMENT,
+    MIN,
+    MAX,
+    APPEND
+  }
+
+  private record FieldOperation(String column, Field field, OperationType type, Object value) {
+
+  }
+}
@@ -3,47 +3,81 @@ package pl.minecodes.orm.query;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.google.gson.stream.JsonReader;
 import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import pl.minecodes.orm.DatabaseType;
 import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.relation.FetchPlan;
+import pl.minecodes.orm.relation.ForeignKeyValues;
+import pl.minecodes.orm.relation.Lazy;
+import pl.minecodes.orm.relation.RelationInfo;
+import pl.minecodes.orm.relation.RelationLoader;
+import pl.minecodes.orm.relation.RelationType;
+import pl.minecodes.orm.relation.Subselect;
 import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.Ids;
 import pl.minecodes.orm.util.SqlSanitizer;
 
 public class Query<T> {
 
   public static final int DEFAULT_QUERY_LIMIT = 1000;
+  private static final String JSON_COLUMN_PREFIX = "flexorm_json_";
 
   private final FlexOrm orm;
   private final Class<T> entityClass;
   private final TableMetadata metadata;
+  private final RelationLoader relationLoader;
   private final Map<String, Object> parameters = new HashMap<>();
   private final List<String> orderBy = new ArrayList<>();
   private final List<String> groupBy = new ArrayList<>();
   private final List<QueryCondition> conditions = new ArrayList<>();
+  private final List<RelationInfo> fetchJoins = new ArrayList<>();
+  private final List<RelationInfo> jsonFetches = new ArrayList<>();
+  private final List<RelationInfo> subselectFetches = new ArrayList<>();
+  private FetchPlan fetchPlan;
   private Integer limit;
   private Integer offset;
   private String customSql;
   private Document mongoQuery;
   private boolean useDistinct = false;
   private boolean unlimitedResults = false;
+  private Integer chunkSize;
 
   public Query(FlexOrm orm, Class<T> entityClass, TableMetadata metadata) {
+    this(orm, entityClass, metadata, null);
+  }
+
+  public Query(FlexOrm orm, Class<T> entityClass, TableMetadata metadata,
+      RelationLoader relationLoader) {
     this.orm = orm;
     this.entityClass = entityClass;
     this.metadata = metadata;
+    this.relationLoader = relationLoader;
   }
 
   public Query<T> where(String field, Object value) {
@@ -89,6 +123,75 @@ public class Query<T> {
     return this;
   }
 
+  public Query<T> fetchJoin(String relationField) {
+    RelationInfo relation = findRelation(relationField);
+    if (relation.type() != RelationType.MANY_TO_ONE && (relation.type() != RelationType.ONE_TO_ONE
+        || (!relation.isOwning() && !relation.isInverse()))) {
+      throw new IllegalArgumentException(
+          "Fetch joins are only supported for ManyToOne and OneToOne relations: " + relationField);
+    }
+
+    if (!fetchJoins.contains(relation)) {
+      fetchJoins.add(relation);
+    }
+    return this;
+  }
+
+  public Query<T> fetchJson(String relationField) {
+    RelationInfo relation = findRelation(relationField);
+    if (relation.type() != RelationType.ONE_TO_MANY) {
+      throw new IllegalArgumentException(
+          "JSON fetches are only supported for OneToMany relations: " + relationField);
+    }
+    if (relation.isOrdered() || relation.isBounded()) {
+      throw new IllegalArgumentException(
+          "JSON fetches do not support ordered or bounded relations: " + relationField);
+    }
+
+    if (!jsonFetches.contains(relation)) {
+      jsonFetches.add(relation);
+    }
+    return this;
+  }
+
+  public Query<T> fetchSubselect(String relationField) {
+    RelationInfo relation = findRelation(relationField);
+    if (relation.type() != RelationType.ONE_TO_MANY
+        && relation.type() != RelationType.MANY_TO_MANY) {
+      throw new IllegalArgumentException(
+          "Subselect fetches are only supported for OneToMany and ManyToMany relations: "
+              + relationField);
+    }
+
+    if (!subselectFetches.contains(relation)) {
+      subselectFetches.add(relation);
+    }
+    return this;
+  }
+
+  public Query<T> fetch(String... paths) {
+    fetchPlan = (fetchPlan == null ? FetchPlan.none() : fetchPlan).fetch(paths);
+    return this;
+  }
+
+  public Query<T> fetch(FetchPlan plan) {
+    for (String relation : plan.joins()) {
+      fetchJoin(relation);
+    }
+    fetchPlan = plan;
+    return this;
+  }
+
+  private RelationInfo findRelation(String relationField) {
+    for (RelationInfo candidate : metadata.relations()) {
+      if (candidate.field().getName().equals(relationField)) {
+        return candidate;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Field " + relationField + " is not a relation of " + entityClass.getSimpleName());
+  }
+
   public Query<T> limit(int limit) {
     this.limit = limit;
     return this;
@@ -125,6 +228,14 @@ public class Query<T> {
     return this;
   }
 
+  public Query<T> chunked(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
   public List<T> execute() {
     return switch (orm.getDatabaseType()) {
       case MYSQL, SQLLITE -> executeRelationalQuery();
@@ -136,6 +247,17 @@ public class Query<T> {
     try {
       HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
       try (Connection connection = dataSource.getConnection()) {
+        if (!jsonFetches.isEmpty() && relationLoader == null) {
+          throw new IllegalStateException("JSON fetches require a query created by a repository");
+        }
+        if (!subselectFetches.isEmpty() && relationLoader == null) {
+          throw new IllegalStateException(
+              "Subselect fetches require a query created by a repository");
+        }
+        if (customSql == null && !fetchJoins.isEmpty()) {
+          return executeJoinQuery(connection);
+        }
+
         String sql;
         if (customSql != null) {
           sql = customSql;
@@ -144,9 +266,18 @@ public class Query<T> {
         }
 
         try (PreparedStatement statement = prepareStatement(connection, sql)) {
+          ForeignKeyValues foreignKeys = ForeignKeyValues.of(metadata);
+          List<T> results;
           try (ResultSet resultSet = statement.executeQuery()) {
-            return mapResultSetToEntities(resultSet);
+            results = mapResultSetToEntities(resultSet, foreignKeys);
           }
+          if (relationLoader != null) {
+            relationLoader.loadRelations(results, metadata, connection,
+                customSql == null ? jsonFetches : List.of(), foreignKeys, fetchPlan, subselects());
+          } else if (fetchPlan != null) {
+            throw new IllegalStateException("Fetch plans require a query created by a repository");
+          }
+          return results;
         }
       }
     } catch (SQLException e) {
@@ -154,7 +285,198 @@ public class Query<T> {
     }
   }
 
+  private List<T> executeJoinQuery(Connection connection) throws SQLException {
+    if (relationLoader == null) {
+      throw new IllegalStateException("Fetch joins require a query created by a repository");
+    }
+
+    List<JoinedTable> tables = new ArrayList<>();
+    tables.add(new JoinedTable(null, metadata, "t0",
+        new ArrayList<>(metadata.columnFields().entrySet())));
+    for (RelationInfo relation : fetchJoins) {
+      TableMetadata targetMetadata = relationLoader.getMetadata(relation.targetEntity());
+      tables.add(new JoinedTable(relation, targetMetadata, "t" + tables.size(),
+          new ArrayList<>(targetMetadata.columnFields().entrySet())));
+    }
+
+    ForeignKeyValues foreignKeys = ForeignKeyValues.of(metadata);
+    try (PreparedStatement statement = connection.prepareStatement(
+        buildJoinSqlQuery(tables, foreignKeys.columns()))) {
+      bindConditionParameters(statement, 1);
+      List<T> results;
+      try (ResultSet resultSet = statement.executeQuery()) {
+        results = mapJoinedResultSet(resultSet, tables, foreignKeys);
+      }
+      List<RelationInfo> loaded = new ArrayList<>(fetchJoins);
+      loaded.addAll(jsonFetches);
+      relationLoader.loadRelations(results, metadata, connection, loaded, foreignKeys, fetchPlan,
+          subselects());
+      return results;
+    }
+  }
+
+  private Map<RelationInfo, Subselect> subselects() {
+    if (customSql != null || subselectFetches.isEmpty()) {
+      return Map.of();
+    }
+
+    StringBuilder sql = new StringBuilder("SELECT ");
+    if (useDistinct) {
+      sql.append("DISTINCT ");
+    }
+    sql.append(getIdColumnName()).append(" FROM ")
+        .append(SqlSanitizer.sanitizeTableName(metadata.tableName()));
+    appendClauses(sql, "");
+
+    Subselect subselect = new Subselect(sql.toString(),
+        statement -> bindConditionParameters(statement, 1));
+    Map<RelationInfo, Subselect> subselects = new HashMap<>();
+    for (RelationInfo relation : subselectFetches) {
+      subselects.put(relation, subselect);
+    }
+    return subselects;
+  }
+
+  private String buildJoinSqlQuery(List<JoinedTable> tables, List<String> foreignKeyColumns) {
+    StringBuilder sql = new StringBuilder("SELECT ");
+    if (useDistinct) {
+      sql.append("DISTINCT ");
+    }
+
+    List<String> selected = new ArrayList<>();
+    for (JoinedTable table : tables) {
+      for (int i = 0; i < table.columns().size(); i++) {
+        selected.add(table.alias() + "." + SqlSanitizer.sanitizeColumnName(
+            table.columns().get(i).getKey()) + " AS " + table.alias() + "_" + i);
+      }
+    }
+    for (int i = 0; i < foreignKeyColumns.size(); i++) {
+      selected.add("t0." + SqlSanitizer.sanitizeColumnName(foreignKeyColumns.get(i))
+          + " AS t0_fk_" + i);
+    }
+    selected.addAll(jsonSelections("t0"));
+    sql.append(String.join(", ", selected));
+    sql.append(" FROM ").append(SqlSanitizer.sanitizeTableName(metadata.tableName())).append(" t0");
+
+    for (JoinedTable table : tables.subList(1, tables.size())) {
+      RelationInfo relation = table.relation();
+      String targetId = table.alias() + "." + SqlSanitizer.sanitizeColumnName(
+          getIdColumnName(table.metadata()));
+      sql.append(" LEFT JOIN ").append(SqlSanitizer.sanitizeTableName(table.metadata().tableName()))
+          .append(" ").append(table.alias()).append(" ON ");
+
+      if (relation.type() == RelationType.ONE_TO_ONE && relation.isInverse()) {
+        sql.append(table.alias()).append(".")
+            .append(SqlSanitizer.sanitizeColumnName(relation.mappedBy() + "_id"))
+            .append(" = t0.").append(SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata)));
+      } else {
+        String fkColumn = relation.joinColumn().isEmpty()
+            ? relation.field().getName() + "_id"
+            : relation.joinColumn();
+        sql.append("t0.").append(SqlSanitizer.sanitizeColumnName(fkColumn))
+            .append(" = ").append(targetId);
+      }
+    }
+
+    appendClauses(sql, "t0.");
+    return sql.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<T> mapJoinedResultSet(ResultSet resultSet, List<JoinedTable> tables,
+      ForeignKeyValues foreignKeys) throws SQLException {
+    List<T> results = new ArrayList<>();
+    Set<Object> seenIds = new HashSet<>();
+    Map<Class<?>, Map<Object, Object>> identityMap = new HashMap<>();
+    List<String> foreignKeyLabels = new ArrayList<>();
+    for (int i = 0; i < foreignKeys.columns().size(); i++) {
+      foreignKeyLabels.add("t0_fk_" + i);
+    }
+
+    try {
+      while (resultSet.next()) {
+        T instance = (T) hydrate(resultSet, tables.get(0));
+        Object id = metadata.idField().get(instance);
+        if (id != null && !seenIds.add(Ids.normalize(id))) {
+          continue;
+        }
+        results.add(instance);
+        foreignKeys.capture(resultSet, id, foreignKeyLabels);
+        applyJsonFetches(resultSet, instance, foreignKeys);
+
+        for (JoinedTable table : tables.subList(1, tables.size())) {
+          Field field = table.relation().field();
+          Object related = hydrate(resultSet, table);
+          if (related != null) {
+            Object relatedId = Ids.normalize(table.metadata().idField().get(related));
+            Map<Object, Object> instances = identityMap.computeIfAbsent(
+                table.relation().targetEntity(), key -> new HashMap<>());
+            Object shared = instances.putIfAbsent(relatedId, related);
+            related = shared != null ? shared : related;
+          }
+
+          if (field.getType() == Lazy.class) {
+            field.set(instance, Lazy.of(related));
+          } else if (related != null) {
+            field.set(instance, related);
+          }
+        }
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException("Error mapping joined result set to entity", e);
+    }
+
+    return results;
+  }
+
+  private Object hydrate(ResultSet resultSet, JoinedTable table)
+      throws SQLException, ReflectiveOperationException {
+    Field idField = table.metadata().idField();
+    Object instance = null;
+
+    for (int i = 0; i < table.columns().size(); i++) {
+      Field field = table.columns().get(i).getValue();
+      Object value = resultSet.getObject(table.alias() + "_" + i);
+      if (field.equals(idField) && value == null && table.relation() != null) {
+        return null;
+      }
+
+      if (instance == null) {
+        Constructor<?> constructor = idField.getDeclaringClass().getDeclaredConstructor();
+        constructor.setAccessible(true);
+        instance = constructor.newInstance();
+      }
+      if (value != null) {
+        field.set(instance, convertValue(value, field.getType()));
+      }
+    }
+    return instance;
+  }
+
+  private String getIdColumnName(TableMetadata tableMetadata) {
+    return tableMetadata.fieldColumnNames().getOrDefault(tableMetadata.idField().getName(),
+        tableMetadata.idField().getName());
+  }
+
+  private record JoinedTable(RelationInfo relation, TableMetadata metadata, String alias,
+      List<Map.Entry<String, Field>> columns) {
+
+  }
+
   private List<T> executeMongoQuery() {
+    if (!fetchJoins.isEmpty()) {
+      throw new UnsupportedOperationException("Fetch joins are not supported for MongoDB");
+    }
+    if (fetchPlan != null) {
+      throw new UnsupportedOperationException("Fetch plans are not supported for MongoDB");
+    }
+    if (!jsonFetches.isEmpty()) {
+      throw new UnsupportedOperationException("JSON fetches are not supported for MongoDB");
+    }
+    if (!subselectFetches.isEmpty()) {
+      throw new UnsupportedOperationException("Subselect fetches are not supported for MongoDB");
+    }
+
     MongoDatabase database = (MongoDatabase) orm.getConnection().getConnection();
     MongoCollection<Document> collection = database.getCollection(metadata.tableName());
 
@@ -201,19 +523,31 @@ public class Query<T> {
     if (useDistinct) {
       sql.append("DISTINCT ");
     }
-    sql.append("* FROM ").append(SqlSanitizer.sanitizeTableName(metadata.tableName()));
+    String tableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
+    if (jsonFetches.isEmpty()) {
+      sql.append("*");
+    } else {
+      sql.append(tableName).append(".*, ").append(String.join(", ", jsonSelections(tableName)));
+    }
+    sql.append(" FROM ").append(tableName);
+
+    appendClauses(sql, "");
+    return sql.toString();
+  }
 
+  private void appendClauses(StringBuilder sql, String prefix) {
     if (!conditions.isEmpty()) {
       sql.append(" WHERE ");
-      buildWhereClause(sql);
+      buildWhereClause(sql, prefix);
     }
 
     if (!groupBy.isEmpty()) {
-      sql.append(" GROUP BY ").append(String.join(", ", groupBy));
+      sql.append(" GROUP BY ").append(prefixed(groupBy, prefix));
     }
 
-    if (!orderBy.isEmpty()) {
-      sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+    List<String> order = orderClauses();
+    if (!order.isEmpty()) {
+      sql.append(" ORDER BY ").append(prefixed(order, prefix));
     }
 
     int effectiveLimit = getEffectiveLimit();
@@ -224,8 +558,24 @@ public class Query<T> {
     if (offset != null) {
       sql.append(" OFFSET ").append(offset);
     }
+  }
 
-    return sql.toString();
+  private List<String> orderClauses() {
+    if (subselectFetches.isEmpty() || (getEffectiveLimit() <= 0 && offset == null)) {
+      return orderBy;
+    }
+
+    String idColumn = getIdColumnName();
+    if (orderBy.stream().anyMatch(order -> order.startsWith(idColumn + " "))) {
+      return orderBy;
+    }
+    List<String> order = new ArrayList<>(orderBy);
+    order.add(idColumn + " ASC");
+    return order;
+  }
+
+  private String prefixed(List<String> columns, String prefix) {
+    return columns.stream().map(column -> prefix + column).collect(Collectors.joining(", "));
   }
 
   private int getEffectiveLimit() {
@@ -239,6 +589,10 @@ public class Query<T> {
   }
 
   private void buildWhereClause(StringBuilder sql) {
+    buildWhereClause(sql, "");
+  }
+
+  private void buildWhereClause(StringBuilder sql, String prefix) {
     for (int i = 0; i < conditions.size(); i++) {
       QueryCondition condition = conditions.get(i);
 
@@ -247,7 +601,7 @@ public class Query<T> {
       }
 
       String columnName = getActualColumnName(condition.field());
-      sql.append(columnName);
+      sql.append(prefix).append(columnName);
 
       switch (condition.operator()) {
         case EQUALS -> {
@@ -360,7 +714,13 @@ public class Query<T> {
       return statement;
     }
 
-    int paramIndex = 1;
+    bindConditionParameters(statement, 1);
+    return statement;
+  }
+
+  private int bindConditionParameters(PreparedStatement statement, int startIndex)
+      throws SQLException {
+    int paramIndex = startIndex;
     for (QueryCondition condition : conditions) {
       if (condition.operator() == Operator.IS_NULL ||
           condition.operator() == Operator.IS_NOT_NULL) {
@@ -393,7 +753,7 @@ public class Query<T> {
       }
     }
 
-    return statement;
+    return paramIndex;
   }
 
   private void setStatementParameter(PreparedStatement statement, int index, Object value)
@@ -415,9 +775,10 @@ public class Query<T> {
     }
   }
 
-  private List<T> mapResultSetToEntities(ResultSet resultSet) throws SQLException {
+  private List<T> mapResultSetToEntities(ResultSet resultSet, ForeignKeyValues foreignKeys)
+      throws SQLException {
     List<T> results = new ArrayList<>();
-    Map<Object, T> uniqueResults = new HashMap<>();
+    Set<Object> seenIds = new HashSet<>();
 
     while (resultSet.next()) {
       try {
@@ -443,11 +804,11 @@ public class Query<T> {
           }
         }
 
-        if (idValue != null) {
-          if (!uniqueResults.containsKey(idValue)) {
-            uniqueResults.put(idValue, instance);
-          }
-        } else {
+        foreignKeys.capture(resultSet, idValue);
+        if (customSql == null) {
+          applyJsonFetches(resultSet, instance, foreignKeys);
+        }
+        if (idValue == null || seenIds.add(idValue)) {
           results.add(instance);
         }
       } catch (Exception e) {
@@ -455,11 +816,144 @@ public class Query<T> {
       }
     }
 
-    results.addAll(uniqueResults.values());
-
     return results;
   }
 
+  private List<String> jsonSelections(String owner) {
+    boolean mysql = orm.getDatabaseType() == DatabaseType.MYSQL;
+    List<String> selections = new ArrayList<>();
+    for (int i = 0; i < jsonFetches.size(); i++) {
+      RelationInfo relation = jsonFetches.get(i);
+      TableMetadata targetMetadata = relationLoader.getMetadata(relation.targetEntity());
+      String alias = "j" + i;
+      String fkColumn = relation.mappedBy().isEmpty()
+          ? metadata.tableName() + "_id"
+          : relation.mappedBy() + "_id";
+
+      Set<String> columns = new LinkedHashSet<>(targetMetadata.columnFields().keySet());
+      columns.addAll(ForeignKeyValues.of(targetMetadata).columns());
+      List<String> pairs = new ArrayList<>();
+      for (String column : columns) {
+        String sanitized = SqlSanitizer.sanitizeColumnName(column);
+        pairs.add("'" + sanitized + "', " + alias + "." + sanitized);
+      }
+      String object = (mysql ? "JSON_OBJECT(" : "json_object(") + String.join(", ", pairs) + ")";
+
+      selections.add("(SELECT " + (mysql ? "JSON_ARRAYAGG(" : "json_group_array(") + object
+          + ") FROM " + SqlSanitizer.sanitizeTableName(targetMetadata.tableName()) + " " + alias
+          + " WHERE " + alias + "." + SqlSanitizer.sanitizeColumnName(fkColumn) + " = " + owner
+          + "." + SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata)) + ") AS "
+          + JSON_COLUMN_PREFIX + i);
+    }
+    return selections;
+  }
+
+  private void applyJsonFetches(ResultSet resultSet, Object owner, ForeignKeyValues foreignKeys)
+      throws SQLException {
+    for (int i = 0; i < jsonFetches.size(); i++) {
+      RelationInfo relation = jsonFetches.get(i);
+      TableMetadata targetMetadata = relationLoader.getMetadata(relation.targetEntity());
+      String json = resultSet.getString(JSON_COLUMN_PREFIX + i);
+
+      try {
+        Field field = relation.field();
+        Collection<Object> children = field.getType().isAssignableFrom(ArrayList.class)
+            ? new ArrayList<>() : new LinkedHashSet<>();
+        if (json != null) {
+          readJsonChildren(json, relation, targetMetadata, owner, children,
+              foreignKeys.related(relation.targetEntity(), targetMetadata));
+        }
+        field.set(owner, children);
+      } catch (IOException | ReflectiveOperationException e) {
+        throw new RuntimeException("Error decoding JSON relation " + relation.field().getName(), e);
+      }
+    }
+  }
+
+  private void readJsonChildren(String json, RelationInfo relation, TableMetadata targetMetadata,
+      Object owner, Collection<Object> children, ForeignKeyValues childForeignKeys)
+      throws IOException, ReflectiveOperationException {
+    RelationInfo backReference = null;
+    Map<String, Class<?>> foreignKeyTypes = new HashMap<>();
+    for (RelationInfo candidate : targetMetadata.relations()) {
+      if (candidate.type() == RelationType.MANY_TO_ONE
+          && candidate.field().getName().equals(relation.mappedBy())) {
+        backReference = candidate;
+      }
+      String column = targetMetadata.fieldColumnNames().get(candidate.field().getName());
+      if (childForeignKeys.columns().contains(column)) {
+        foreignKeyTypes.put(column,
+            relationLoader.getMetadata(candidate.targetEntity()).idField().getType());
+      }
+    }
+
+    Constructor<?> constructor = relation.targetEntity().getDeclaredConstructor();
+    constructor.setAccessible(true);
+    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        Object child = constructor.newInstance();
+        Map<String, Object> foreignKeyRow = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          String name = reader.nextName();
+          Field field = targetMetadata.columnFields().get(name);
+          if (field == null) {
+            if (foreignKeyTypes.containsKey(name)) {
+              foreignKeyRow.put(name, readJsonValue(reader, foreignKeyTypes.get(name)));
+            } else {
+              reader.skipValue();
+            }
+            continue;
+          }
+          Object value = readJsonValue(reader, field.getType());
+          if (value != null) {
+            field.set(child, value);
+          }
+        }
+        reader.endObject();
+        childForeignKeys.capture(foreignKeyRow, targetMetadata.idField().get(child));
+
+        if (backReference != null) {
+          Field field = backReference.field();
+          field.set(child, field.getType() == Lazy.class ? Lazy.of(owner) : owner);
+        }
+        children.add(child);
+      }
+      reader.endArray();
+    }
+  }
+
+  private Object readJsonValue(JsonReader reader, Class<?> type) throws IOException {
+    switch (reader.peek()) {
+      case NULL -> {
+        reader.nextNull();
+        return null;
+      }
+      case BOOLEAN -> {
+        return reader.nextBoolean();
+      }
+      case NUMBER -> {
+        String text = reader.nextString();
+        if (type == String.class) {
+          return text;
+        } else if (type == boolean.class || type == Boolean.class) {
+          return new BigDecimal(text).signum() != 0;
+        } else if (type == BigDecimal.class) {
+          return new BigDecimal(text);
+        }
+        return convertValue(new BigDecimal(text), type);
+      }
+      case STRING -> {
+        return convertValue(reader.nextString(), type);
+      }
+      default -> {
+        reader.skipValue();
+        return null;
+      }
+    }
+  }
+
   private T mapDocumentToEntity(Document document) {
     try {
       T instance = entityClass.getDeclaredConstructor().newInstance();
@@ -561,6 +1055,354 @@ public class Query<T> {
     return collection.countDocuments(filter);
   }
 
+  public long scan(List<String> columns, int fetchSize, Consumer<Object[]> consumer) {
+    if (fetchSize <= 0) {
+      throw new IllegalArgumentException("Fetch size must be positive");
+    }
+    return switch (orm.getDatabaseType()) {
+      case MYSQL, SQLLITE -> scanRelational(columns, fetchSize, consumer);
+      case MONGODB -> scanMongo(columns, fetchSize, consumer);
+    };
+  }
+
+  private long scanRelational(List<String> columns, int fetchSize, Consumer<Object[]> consumer) {
+    String sql = customSql != null ? customSql : buildScanSql(columns);
+    boolean mysql = orm.getDatabaseType() == DatabaseType.MYSQL;
+
+    try {
+      HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+      try (Connection connection = dataSource.getConnection()) {
+        try (PreparedStatement statement = prepareStatement(connection, sql)) {
+          statement.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+          try (ResultSet resultSet = statement.executeQuery()) {
+            long rows = 0;
+            while (resultSet.next()) {
+              Object[] row = new Object[columns.size()];
+              for (int i = 0; i < row.length; i++) {
+                row[i] = resultSet.getObject(columns.get(i));
+              }
+              consumer.accept(row);
+              rows++;
+            }
+            return rows;
+          }
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error executing scan query: " + e.getMessage(), e);
+    }
+  }
+
+  private String buildScanSql(List<String> columns) {
+    StringBuilder sql = new StringBuilder("SELECT ");
+    if (useDistinct) {
+      sql.append("DISTINCT ");
+    }
+    List<String> selected = new ArrayList<>();
+    for (String column : columns) {
+      selected.add(getActualColumnName(column));
+    }
+    sql.append(String.join(", ", selected)).append(" FROM ")
+        .append(SqlSanitizer.sanitizeTableName(metadata.tableName()));
+
+    if (!conditions.isEmpty()) {
+      sql.append(" WHERE ");
+      buildWhereClause(sql);
+    }
+
+    if (!groupBy.isEmpty()) {
+      sql.append(" GROUP BY ").append(String.join(", ", groupBy));
+    }
+
+    if (!orderBy.isEmpty()) {
+      sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+    }
+
+    if (limit != null) {
+      sql.append(" LIMIT ").append(limit);
+    } else if (offset != null) {
+      sql.append(orm.getDatabaseType() == DatabaseType.SQLLITE
+          ? " LIMIT -1" : " LIMIT 18446744073709551615");
+    }
+
+    if (offset != null) {
+      sql.append(" OFFSET ").append(offset);
+    }
+
+    return sql.toString();
+  }
+
+  private long scanMongo(List<String> columns, int fetchSize, Consumer<Object[]> consumer) {
+    FindIterable<Document> findIterable = getMongoCollection().find(getMongoFilter())
+        .projection(Projections.include(columns))
+        .batchSize(fetchSize);
+
+    if (!orderBy.isEmpty()) {
+      Document sort = new Document();
+      for (String order : orderBy) {
+        String[] parts = order.split(" ");
+        sort.append(parts[0], "ASC".equals(parts[1]) ? 1 : -1);
+      }
+      findIterable.sort(sort);
+    }
+    if (limit != null) {
+      findIterable.limit(limit);
+    }
+    if (offset != null) {
+      findIterable.skip(offset);
+    }
+
+    long rows = 0;
+    for (Document document : findIterable) {
+      Object[] row = new Object[columns.size()];
+      for (int i = 0; i < row.length; i++) {
+        row[i] = document.get(columns.get(i));
+      }
+      consumer.accept(row);
+      rows++;
+    }
+    return rows;
+  }
+
+  public long update(Map<String, Object> values) {
+    requireCriteria();
+    return executeUpdate(values);
+  }
+
+  public long updateAll(Map<String, Object> values) {
+    requireBulkQuery();
+    return executeUpdate(values);
+  }
+
+  public long delete() {
+    requireCriteria();
+    return executeDelete();
+  }
+
+  public long deleteAll() {
+    requireBulkQuery();
+    return executeDelete();
+  }
+
+  private long executeUpdate(Map<String, Object> values) {
+    if (values == null || values.isEmpty()) {
+      throw new IllegalArgumentException("No values to update");
+    }
+
+    return switch (orm.getDatabaseType()) {
+      case MYSQL, SQLLITE -> updateRelational(values);
+      case MONGODB -> updateMongo(values);
+    };
+  }
+
+  private long executeDelete() {
+    return switch (orm.getDatabaseType()) {
+      case MYSQL, SQLLITE -> executeBulkRelational(
+          "DELETE FROM " + SqlSanitizer.sanitizeTableName(metadata.tableName()), List.of());
+      case MONGODB -> deleteMongo();
+    };
+  }
+
+  private void requireCriteria() {
+    requireBulkQuery();
+    if (conditions.isEmpty() && mongoQuery == null) {
+      throw new IllegalStateException(
+          "Bulk operations without conditions must use updateAll or deleteAll");
+    }
+  }
+
+  private void requireBulkQuery() {
+    if (customSql != null) {
+      throw new IllegalStateException("Bulk operations cannot be combined with raw SQL");
+    }
+    if (limit != null || offset != null || !orderBy.isEmpty()) {
+      throw new IllegalStateException(
+          "Bulk operations cannot be combined with limit, offset or orderBy");
+    }
+  }
+
+  private long updateRelational(Map<String, Object> values) {
+    List<String> assignments = new ArrayList<>();
+    List<Object> setValues = new ArrayList<>();
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      assignments.add(getActualColumnName(entry.getKey()) + " = ?");
+      setValues.add(entry.getValue());
+    }
+
+    String prefix = "UPDATE " + SqlSanitizer.sanitizeTableName(metadata.tableName()) + " SET "
+        + String.join(", ", assignments);
+    return executeBulkRelational(prefix, setValues);
+  }
+
+  private long executeBulkRelational(String statementPrefix, List<Object> leadingValues) {
+    try {
+      HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+      try (Connection connection = dataSource.getConnection()) {
+        if (chunkSize != null) {
+          return executeChunkedRelational(connection, statementPrefix, leadingValues);
+        }
+
+        StringBuilder sql = new StringBuilder(statementPrefix);
+        if (!conditions.isEmpty()) {
+          sql.append(" WHERE ");
+          buildWhereClause(sql);
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+          int paramIndex = 1;
+          for (Object value : leadingValues) {
+            setStatementParameter(statement, paramIndex++, value);
+          }
+          bindConditionParameters(statement, paramIndex);
+          return statement.executeUpdate();
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error executing bulk statement: " + e.getMessage(), e);
+    }
+  }
+
+  private long executeChunkedRelational(Connection connection, String statementPrefix,
+      List<Object> leadingValues) throws SQLException {
+    long affected = 0;
+    Object lowerBound = null;
+
+    while (true) {
+      Object upperBound = findChunkUpperBound(connection, lowerBound);
+
+      StringBuilder sql = new StringBuilder(statementPrefix).append(" WHERE ");
+      appendChunkCondition(sql, lowerBound != null, upperBound != null);
+
+      try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+        int paramIndex = 1;
+        for (Object value : leadingValues) {
+          setStatementParameter(statement, paramIndex++, value);
+        }
+        paramIndex = bindConditionParameters(statement, paramIndex);
+        if (lowerBound != null) {
+          statement.setObject(paramIndex++, lowerBound);
+        }
+        if (upperBound != null) {
+          statement.setObject(paramIndex, upperBound);
+        }
+        affected += statement.executeUpdate();
+      }
+
+      if (upperBound == null) {
+        return affected;
+      }
+      lowerBound = upperBound;
+    }
+  }
+
+  private Object findChunkUpperBound(Connection connection, Object lowerBound)
+      throws SQLException {
+    String idColumn = getIdColumnName();
+    StringBuilder sql = new StringBuilder();
+    sql.append("SELECT ").append(idColumn).append(" FROM ")
+        .append(SqlSanitizer.sanitizeTableName(metadata.tableName())).append(" WHERE ");
+    appendChunkCondition(sql, lowerBound != null, false);
+    sql.append(" ORDER BY ").append(idColumn)
+        .append(" LIMIT 1 OFFSET ").append(chunkSize - 1);
+
+    try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+      int paramIndex = bindConditionParameters(statement, 1);
+      if (lowerBound != null) {
+        statement.setObject(paramIndex, lowerBound);
+      }
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? resultSet.getObject(1) : null;
+      }
+    }
+  }
+
+  private void appendChunkCondition(StringBuilder sql, boolean hasLowerBound,
+      boolean hasUpperBound) {
+    String idColumn = getIdColumnName();
+    List<String> parts = new ArrayList<>();
+
+    if (!conditions.isEmpty()) {
+      StringBuilder where = new StringBuilder("(");
+      buildWhereClause(where);
+      parts.add(where.append(")").toString());
+    }
+    if (hasLowerBound) {
+      parts.add(idColumn + " > ?");
+    }
+    if (hasUpperBound) {
+      parts.add(idColumn + " <= ?");
+    }
+
+    sql.append(parts.isEmpty() ? "1 = 1" : String.join(" AND ", parts));
+  }
+
+  private long updateMongo(Map<String, Object> values) {
+    MongoCollection<Document> collection = getMongoCollection();
+    Document set = new Document();
+    for (Map.Entry<String, Object> entry : values.entrySet()) {
+      set.append(getActualColumnName(entry.getKey()), entry.getValue());
+    }
+    Document update = new Document("$set", set);
+
+    if (chunkSize == null) {
+      return collection.updateMany(getMongoFilter(), update).getMatchedCount();
+    }
+    return executeChunkedMongo(collection,
+        filter -> collection.updateMany(filter, update).getMatchedCount());
+  }
+
+  private long deleteMongo() {
+    MongoCollection<Document> collection = getMongoCollection();
+
+    if (chunkSize == null) {
+      return collection.deleteMany(getMongoFilter()).getDeletedCount();
+    }
+    return executeChunkedMongo(collection,
+        filter -> collection.deleteMany(filter).getDeletedCount());
+  }
+
+  private long executeChunkedMongo(MongoCollection<Document> collection,
+      Function<Bson, Long> operation) {
+    String idColumn = getIdColumnName();
+    Bson filter = getMongoFilter();
+    long affected = 0;
+    Object lastId = null;
+
+    while (true) {
+      Bson chunkFilter = lastId == null
+          ? filter
+          : Filters.and(filter, Filters.gt(idColumn, lastId));
+
+      List<Object> ids = new ArrayList<>();
+      for (Document document : collection.find(chunkFilter)
+          .projection(Projections.include(idColumn))
+          .sort(Sorts.ascending(idColumn))
+          .limit(chunkSize)) {
+        ids.add(document.get(idColumn));
+      }
+
+      if (ids.isEmpty()) {
+        return affected;
+      }
+
+      affected += operation.apply(Filters.and(filter, Filters.in(idColumn, ids)));
+      lastId = ids.get(ids.size() - 1);
+    }
+  }
+
+  private Bson getMongoFilter() {
+    return mongoQuery != null ? mongoQuery : buildMongoQuery();
+  }
+
+  private MongoCollection<Document> getMongoCollection() {
+    MongoDatabase database = (MongoDatabase) orm.getConnection().getConnection();
+    return database.getCollection(metadata.tableName());
+  }
+
+  private String getIdColumnName() {
+    return getActualColumnName(metadata.idField().getName());
+  }
+
   public void executeRawUpdate(String sql, Consumer<Exception> errorHandler) {
     if (orm.getDatabaseType() == DatabaseType.MYSQL
         || orm.getDatabaseType() == DatabaseType.SQLLITE) {
@@ -0,0 +1,7 @@
+package pl.minecodes.orm.relation;
+
+public enum CascadeDeleteStrategy {
+  LOADED,
+  SET_BASED,
+  DATABASE
+}
@@ -1,21 +1,35 @@
 package pl.minecodes.orm.relation;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import pl.minecodes.orm.DatabaseType;
 import pl.minecodes.orm.FlexOrm;
 import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.Ids;
 import pl.minecodes.orm.util.SqlSanitizer;
 
 public class CascadeHandler {
 
+  private static final int MAX_IN_CLAUSE = 500;
+
   private final FlexOrm orm;
   private final Map<Class<?>, TableMetadata> metadataCache;
   private final Function<Class<?>, TableMetadata> metadataExtractor;
+  private final Map<String, Boolean> databaseCascades = new ConcurrentHashMap<>();
 
   public CascadeHandler(FlexOrm orm, Map<Class<?>, TableMetadata> metadataCache,
       Function<Class<?>, TableMetadata> metadataExtractor) {
@@ -25,7 +39,7 @@ public class CascadeHandler {
   }
 
   public <T> void handleCascadeSave(T entity, TableMetadata metadata, Connection connection,
-      BiConsumer<Object, Connection> saveCallback) {
+      BiConsumer<Collection<?>, Connection> saveCallback) {
     for (RelationInfo relation : metadata.relations()) {
       if (!relation.cascade()) {
         continue;
@@ -33,19 +47,21 @@ public class CascadeHandler {
 
       try {
         Object relatedValue = relation.field().get(entity);
+        if (!Lazy.isInitialized(relatedValue)) {
+          continue;
+        }
+        relatedValue = Lazy.unwrap(relatedValue);
         if (relatedValue == null) {
           continue;
         }
 
         switch (relation.type()) {
           case ONE_TO_ONE, MANY_TO_ONE -> {
-            saveCallback.accept(relatedValue, connection);
+            saveCallback.accept(List.of(relatedValue), connection);
           }
           case ONE_TO_MANY, MANY_TO_MANY -> {
-            if (relatedValue instanceof Collection<?> collection) {
-              for (Object item : collection) {
-                saveCallback.accept(item, connection);
-              }
+            if (relatedValue instanceof Collection<?> collection && !collection.isEmpty()) {
+              saveCallback.accept(collection, connection);
             }
           }
         }
@@ -55,14 +71,24 @@ public class CascadeHandler {
     }
   }
 
-  public <T> void handleCascadeDelete(T entity, TableMetadata metadata, Connection connection) {
+  public <T> Runnable handleCascadeDelete(T entity, TableMetadata metadata,
+      Connection connection) {
+    if (orm.getCascadeDeleteStrategy() != CascadeDeleteStrategy.LOADED) {
+      try {
+        return handleCascadeDeleteById(metadata.idField().get(entity), metadata, connection);
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException("Error accessing ID field for cascade delete", e);
+      }
+    }
+
+    List<Runnable> deferred = new ArrayList<>();
     for (RelationInfo relation : metadata.relations()) {
       if (!relation.cascade()) {
         continue;
       }
 
       try {
-        Object relatedValue = relation.field().get(entity);
+        Object relatedValue = Lazy.unwrap(relation.field().get(entity));
         if (relatedValue == null) {
           continue;
         }
@@ -72,7 +98,11 @@ public class CascadeHandler {
 
         switch (relation.type()) {
           case ONE_TO_ONE -> {
-            deleteEntity(relatedValue, targetMetadata, connection);
+            if (relation.isInverse()) {
+              deleteEntity(relatedValue, targetMetadata, connection);
+            } else {
+              deferred.add(() -> deleteEntity(relatedValue, targetMetadata, connection));
+            }
           }
           case ONE_TO_MANY -> {
             if (relatedValue instanceof Collection<?> collection) {
@@ -83,14 +113,8 @@ public class CascadeHandler {
           }
           case MANY_TO_MANY -> {
             Object entityId = metadata.idField().get(entity);
-            String joinTable = relation.joinTable().isEmpty()
-                ? metadata.tableName() + "_" + targetMetadata.tableName()
-                : relation.joinTable();
-            String joinColumn = relation.joinColumn().isEmpty()
-                ? metadata.tableName() + "_id"
-                : relation.joinColumn();
-
-            deleteFromJoinTable(joinTable, joinColumn, entityId, connection);
+            deleteAllFromJoinTable(new JoinTable(metadata, relation, targetMetadata), entityId,
+                connection);
           }
           default -> {
           }
@@ -99,6 +123,230 @@ public class CascadeHandler {
         throw new RuntimeException("Error accessing relation field for cascade delete", e);
       }
     }
+    return () -> deferred.forEach(Runnable::run);
+  }
+
+  public Runnable handleCascadeDeleteById(Object id, TableMetadata metadata,
+      Connection connection) {
+    List<Runnable> deferred = new ArrayList<>();
+    if (id == null) {
+      return () -> { };
+    }
+
+    switch (orm.getCascadeDeleteStrategy()) {
+      case SET_BASED -> {
+        Map<String, Set<Object>> visited = new HashMap<>();
+        visited.computeIfAbsent(metadata.tableName(), key -> new HashSet<>())
+            .add(Ids.normalize(id));
+        deleteRelatedRows(metadata, List.of(id), connection, visited, deferred);
+      }
+      case DATABASE -> {
+        Map<String, Set<Object>> visited = new HashMap<>();
+        visited.computeIfAbsent(metadata.tableName(), key -> new HashSet<>())
+            .add(Ids.normalize(id));
+        for (RelationInfo relation : metadata.relations()) {
+          if (!relation.cascade()) {
+            continue;
+          }
+          if (relation.type() == RelationType.MANY_TO_MANY) {
+            deleteAllFromJoinTable(new JoinTable(metadata, relation,
+                getOrCreateMetadata(relation.targetEntity())), id, connection);
+          } else if (!cascadesInDatabase(metadata, relation, connection)) {
+            deleteRelatedRows(metadata, relation, List.of(id), connection, visited, deferred);
+          }
+        }
+      }
+      case LOADED -> {
+      }
+    }
+    return () -> deferred.forEach(Runnable::run);
+  }
+
+  private void deleteRelatedRows(TableMetadata metadata, List<Object> ids, Connection connection,
+      Map<String, Set<Object>> visited, List<Runnable> deferred) {
+    for (RelationInfo relation : metadata.relations()) {
+      if (relation.cascade()) {
+        deleteRelatedRows(metadata, relation, ids, connection, visited, deferred);
+      }
+    }
+  }
+
+  private void deleteRelatedRows(TableMetadata metadata, RelationInfo relation, List<Object> ids,
+      Connection connection, Map<String, Set<Object>> visited, List<Runnable> deferred) {
+    TableMetadata targetMetadata = getOrCreateMetadata(relation.targetEntity());
+    switch (relation.type()) {
+      case ONE_TO_MANY -> deleteWhereIn(targetMetadata, childColumn(metadata, relation), ids,
+          connection, visited);
+      case ONE_TO_ONE -> {
+        if (relation.isInverse()) {
+          deleteWhereIn(targetMetadata, childColumn(metadata, relation), ids, connection,
+              visited);
+        } else {
+          String fkColumn = relation.joinColumn().isEmpty()
+              ? relation.field().getName() + "_id"
+              : relation.joinColumn();
+          List<Object> targetIds = selectWhereIn(metadata.tableName(), fkColumn,
+              idColumn(metadata), ids, connection);
+          deferred.add(() -> deleteWhereIn(targetMetadata, idColumn(targetMetadata), targetIds,
+              connection, visited));
+        }
+      }
+      case MANY_TO_MANY -> {
+        JoinTable joinTable = new JoinTable(metadata, relation, targetMetadata);
+        deleteChunked(joinTable.table(), joinTable.joinColumn(), ids, connection);
+      }
+      default -> {
+      }
+    }
+  }
+
+  private String childColumn(TableMetadata metadata, RelationInfo relation) {
+    return relation.mappedBy().isEmpty()
+        ? metadata.tableName() + "_id"
+        : relation.mappedBy() + "_id";
+  }
+
+  private boolean cascadesInDatabase(TableMetadata metadata, RelationInfo relation,
+      Connection connection) {
+    String key = metadata.tableName() + "." + relation.field().getName();
+    Boolean cascades = databaseCascades.get(key);
+    if (cascades == null) {
+      cascades = cascadesInDatabase(metadata, relation, connection, new HashSet<>());
+      databaseCascades.put(key, cascades);
+    }
+    return cascades;
+  }
+
+  private boolean cascadesInDatabase(TableMetadata metadata, RelationInfo relation,
+      Connection connection, Set<String> path) {
+    if (relation.type() == RelationType.MANY_TO_MANY
+        || relation.type() == RelationType.ONE_TO_ONE && !relation.isInverse()) {
+      return false;
+    }
+
+    TableMetadata targetMetadata = getOrCreateMetadata(relation.targetEntity());
+    if (!hasCascadingForeignKey(metadata.tableName(), targetMetadata.tableName(),
+        childColumn(metadata, relation), connection)) {
+      return false;
+    }
+
+    if (path.add(targetMetadata.tableName())) {
+      for (RelationInfo childRelation : targetMetadata.relations()) {
+        if (childRelation.cascade()
+            && !cascadesInDatabase(targetMetadata, childRelation, connection, path)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean hasCascadingForeignKey(String parentTable, String childTable, String column,
+      Connection connection) {
+    try (ResultSet keys = connection.getMetaData().getImportedKeys(connection.getCatalog(), null,
+        childTable)) {
+      while (keys.next()) {
+        if (parentTable.equalsIgnoreCase(keys.getString("PKTABLE_NAME"))
+            && column.equalsIgnoreCase(keys.getString("FKCOLUMN_NAME"))
+            && keys.getShort("DELETE_RULE") == DatabaseMetaData.importedKeyCascade) {
+          return true;
+        }
+      }
+      return false;
+    } catch (SQLException e) {
+      throw new RuntimeException("Error reading foreign keys of " + childTable, e);
+    }
+  }
+
+  private void deleteWhereIn(TableMetadata metadata, String column, List<Object> values,
+      Connection connection, Map<String, Set<Object>> visited) {
+    if (values.isEmpty()) {
+      return;
+    }
+
+    List<Runnable> deferred = new ArrayList<>();
+    if (hasCascadeRelations(metadata)) {
+      Set<Object> seen = visited.computeIfAbsent(metadata.tableName(), key -> new HashSet<>());
+      List<Object> childIds = new ArrayList<>();
+      for (Object childId : selectWhereIn(metadata.tableName(), idColumn(metadata), column, values,
+          connection)) {
+        if (seen.add(Ids.normalize(childId))) {
+          childIds.add(childId);
+        }
+      }
+      if (!childIds.isEmpty()) {
+        deleteRelatedRows(metadata, childIds, connection, visited, deferred);
+      }
+    }
+
+    deleteChunked(SqlSanitizer.sanitizeTableName(metadata.tableName()),
+        SqlSanitizer.sanitizeColumnName(column), values, connection);
+    deferred.forEach(Runnable::run);
+  }
+
+  private List<Object> selectWhereIn(String table, String selectColumn, String whereColumn,
+      List<Object> values, Connection connection) {
+    List<Object> result = new ArrayList<>();
+    String tableName = SqlSanitizer.sanitizeTableName(table);
+    String selected = SqlSanitizer.sanitizeColumnName(selectColumn);
+    String filtered = SqlSanitizer.sanitizeColumnName(whereColumn);
+
+    try {
+      for (int start = 0; start < values.size(); start += MAX_IN_CLAUSE) {
+        List<Object> chunk = values.subList(start, Math.min(start + MAX_IN_CLAUSE, values.size()));
+        String sql = "SELECT " + selected + " FROM " + tableName + " WHERE " + filtered
+            + inClause(chunk.size()) + " AND " + selected + " IS NOT NULL";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+          for (int i = 0; i < chunk.size(); i++) {
+            stmt.setObject(i + 1, chunk.get(i));
+          }
+          try (ResultSet resultSet = stmt.executeQuery()) {
+            while (resultSet.next()) {
+              result.add(resultSet.getObject(1));
+            }
+          }
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error reading related rows from " + table, e);
+    }
+    return result;
+  }
+
+  private void deleteChunked(String table, String column, List<Object> values,
+      Connection connection) {
+    try {
+      for (int start = 0; start < values.size(); start += MAX_IN_CLAUSE) {
+        List<Object> chunk = values.subList(start, Math.min(start + MAX_IN_CLAUSE, values.size()));
+        String sql = "DELETE FROM " + table + " WHERE " + column + inClause(chunk.size());
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+          for (int i = 0; i < chunk.size(); i++) {
+            stmt.setObject(i + 1, chunk.get(i));
+          }
+          stmt.executeUpdate();
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error deleting related rows from " + table, e);
+    }
+  }
+
+  private String inClause(int size) {
+    return size == 1 ? " = ?" : " IN (" + "?, ".repeat(size - 1) + "?)";
+  }
+
+  private boolean hasCascadeRelations(TableMetadata metadata) {
+    for (RelationInfo relation : metadata.relations()) {
+      if (relation.cascade()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String idColumn(TableMetadata metadata) {
+    return metadata.fieldColumnNames().getOrDefault(metadata.idField().getName(),
+        metadata.idField().getName());
   }
 
   private void deleteEntity(Object entity, TableMetadata metadata, Connection connection) {
@@ -125,13 +373,10 @@ public class CascadeHandler {
     }
   }
 
-  private void deleteFromJoinTable(String joinTable, String joinColumn, Object entityId,
+  private void deleteAllFromJoinTable(JoinTable joinTable, Object entityId,
       Connection connection) {
     try {
-      String sanitizedJoinTable = SqlSanitizer.sanitizeTableName(joinTable);
-      String sanitizedJoinColumn = SqlSanitizer.sanitizeColumnName(joinColumn);
-
-      String sql = "DELETE FROM " + sanitizedJoinTable + " WHERE " + sanitizedJoinColumn + " = ?";
+      String sql = "DELETE FROM " + joinTable.table() + " WHERE " + joinTable.joinColumn() + " = ?";
       try (PreparedStatement stmt = connection.prepareStatement(sql)) {
         stmt.setObject(1, entityId);
         stmt.executeUpdate();
@@ -149,66 +394,157 @@ public class CascadeHandler {
 
       try {
         Object relatedCollection = relation.field().get(entity);
-        if (relatedCollection == null || !(relatedCollection instanceof Collection<?> collection)) {
+        if (!Lazy.isInitialized(relatedCollection)
+            || !(relatedCollection instanceof Collection<?> collection)) {
           continue;
         }
 
-        if (collection.isEmpty()) {
-          continue;
+        TableMetadata targetMetadata = getOrCreateMetadata(relation.targetEntity());
+        Object entityId = metadata.idField().get(entity);
+
+        Map<Object, Object> desired = new LinkedHashMap<>();
+        for (Object related : collection) {
+          Object relatedId = related == null ? null : targetMetadata.idField().get(related);
+          if (relatedId != null) {
+            desired.putIfAbsent(Ids.normalize(relatedId), relatedId);
+          }
         }
 
-        Class<?> targetClass = relation.targetEntity();
-        TableMetadata targetMetadata = getOrCreateMetadata(targetClass);
+        syncJoinTable(new JoinTable(metadata, relation, targetMetadata), entityId, desired,
+            connection);
+      } catch (IllegalAccessException e) {
+        throw new RuntimeException("Error saving ManyToMany relations", e);
+      }
+    }
+  }
 
-        Object entityId = metadata.idField().get(entity);
+  public void link(TableMetadata metadata, RelationInfo relation, Object entityId,
+      Object relatedId, Connection connection) {
+    JoinTable joinTable = new JoinTable(metadata, relation,
+        getOrCreateMetadata(relation.targetEntity()));
+    String sql = insertIgnore() + joinTable.table() + " (" + joinTable.joinColumn() + ", "
+        + joinTable.inverseJoinColumn() + ") SELECT ?, ? FROM (SELECT 1) flexorm_link"
+        + " WHERE NOT EXISTS (SELECT 1 FROM " + joinTable.table() + " WHERE "
+        + joinTable.joinColumn() + " = ? AND " + joinTable.inverseJoinColumn() + " = ?)";
 
-        String joinTable = relation.joinTable().isEmpty()
-            ? metadata.tableName() + "_" + targetMetadata.tableName()
-            : relation.joinTable();
+    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+      stmt.setObject(1, entityId);
+      stmt.setObject(2, relatedId);
+      stmt.setObject(3, entityId);
+      stmt.setObject(4, relatedId);
+      stmt.executeUpdate();
+    } catch (SQLException e) {
+      throw new RuntimeException("Error inserting into join table", e);
+    }
+  }
 
-        String joinColumn = relation.joinColumn().isEmpty()
-            ? metadata.tableName() + "_id"
-            : relation.joinColumn();
+  public void unlink(TableMetadata metadata, RelationInfo relation, Object entityId,
+      Object relatedId, Connection connection) {
+    JoinTable joinTable = new JoinTable(metadata, relation,
+        getOrCreateMetadata(relation.targetEntity()));
+    deleteFromJoinTable(joinTable, entityId, List.of(relatedId), connection);
+  }
 
-        String inverseJoinColumn = relation.inverseJoinColumn().isEmpty()
-            ? targetMetadata.tableName() + "_id"
-            : relation.inverseJoinColumn();
+  private void syncJoinTable(JoinTable joinTable, Object entityId, Map<Object, Object> desired,
+      Connection connection) {
+    Set<Object> current = new HashSet<>();
+    String sql = "SELECT " + joinTable.inverseJoinColumn() + " FROM " + joinTable.table()
+        + " WHERE " + joinTable.joinColumn() + " = ?";
+    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+      stmt.setObject(1, entityId);
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        while (resultSet.next()) {
+          current.add(Ids.normalize(resultSet.getObject(1)));
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error reading join table", e);
+    }
 
-        deleteFromJoinTable(joinTable, joinColumn, entityId, connection);
+    List<Object> removals = new ArrayList<>();
+    for (Object id : current) {
+      if (!desired.containsKey(id)) {
+        removals.add(id);
+      }
+    }
 
-        for (Object related : collection) {
-          Object relatedId = targetMetadata.idField().get(related);
-          if (relatedId != null) {
-            insertIntoJoinTable(joinTable, joinColumn, inverseJoinColumn, entityId, relatedId,
-                connection);
+    List<Object> additions = new ArrayList<>();
+    for (var entry : desired.entrySet()) {
+      if (!current.contains(entry.getKey())) {
+        additions.add(entry.getValue());
+      }
+    }
+
+    deleteFromJoinTable(joinTable, entityId, removals, connection);
+    insertIntoJoinTable(joinTable, entityId, additions, connection);
+  }
+
+  private void deleteFromJoinTable(JoinTable joinTable, Object entityId, List<Object> relatedIds,
+      Connection connection) {
+    try {
+      for (int start = 0; start < relatedIds.size(); start += MAX_IN_CLAUSE) {
+        List<Object> chunk = relatedIds.subList(start,
+            Math.min(start + MAX_IN_CLAUSE, relatedIds.size()));
+        String sql = "DELETE FROM " + joinTable.table() + " WHERE " + joinTable.joinColumn()
+            + " = ? AND " + joinTable.inverseJoinColumn() + " IN ("
+            + "?, ".repeat(chunk.size() - 1) + "?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+          stmt.setObject(1, entityId);
+          for (int i = 0; i < chunk.size(); i++) {
+            stmt.setObject(i + 2, chunk.get(i));
           }
+          stmt.executeUpdate();
         }
-      } catch (IllegalAccessException e) {
-        throw new RuntimeException("Error saving ManyToMany relations", e);
       }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error deleting from join table", e);
     }
   }
 
-  private void insertIntoJoinTable(String joinTable, String joinColumn, String inverseJoinColumn,
-      Object entityId, Object relatedId, Connection connection) {
-    try {
-      String sanitizedJoinTable = SqlSanitizer.sanitizeTableName(joinTable);
-      String sanitizedJoinColumn = SqlSanitizer.sanitizeColumnName(joinColumn);
-      String sanitizedInverseJoinColumn = SqlSanitizer.sanitizeColumnName(inverseJoinColumn);
+  private void insertIntoJoinTable(JoinTable joinTable, Object entityId, List<Object> relatedIds,
+      Connection connection) {
+    if (relatedIds.isEmpty()) {
+      return;
+    }
 
-      String sql = "INSERT INTO " + sanitizedJoinTable + " (" + sanitizedJoinColumn + ", " + sanitizedInverseJoinColumn
-          + ") VALUES (?, ?)";
-      try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+    String sql = insertIgnore() + joinTable.table() + " (" + joinTable.joinColumn() + ", "
+        + joinTable.inverseJoinColumn() + ") VALUES (?, ?)";
+    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+      for (Object relatedId : relatedIds) {
         stmt.setObject(1, entityId);
         stmt.setObject(2, relatedId);
-        stmt.executeUpdate();
+        stmt.addBatch();
       }
+      stmt.executeBatch();
     } catch (SQLException e) {
       throw new RuntimeException("Error inserting into join table", e);
     }
   }
 
+  private String insertIgnore() {
+    return orm.getDatabaseType() == DatabaseType.MYSQL
+        ? "INSERT IGNORE INTO "
+        : "INSERT OR IGNORE INTO ";
+  }
+
   private TableMetadata getOrCreateMetadata(Class<?> entityClass) {
     return metadataCache.computeIfAbsent(entityClass, metadataExtractor);
   }
+
+  private record JoinTable(String table, String joinColumn, String inverseJoinColumn) {
+
+    private JoinTable(TableMetadata metadata, RelationInfo relation, TableMetadata targetMetadata) {
+      this(
+          SqlSanitizer.sanitizeTableName(relation.joinTable().isEmpty()
+              ? metadata.tableName() + "_" + targetMetadata.tableName()
+              : relation.joinTable()),
+          SqlSanitizer.sanitizeColumnName(relation.joinColumn().isEmpty()
+              ? metadata.tableName() + "_id"
+              : relation.joinColumn()),
+          SqlSanitizer.sanitizeColumnName(relation.inverseJoinColumn().isEmpty()
+              ? targetMetadata.tableName() + "_id"
+              : relation.inverseJoinColumn())
+      );
+    }
+  }
 }
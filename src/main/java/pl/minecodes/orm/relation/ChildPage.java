@@ -0,0 +1,10 @@
+package pl.minecodes.orm.relation;
+
+import java.util.List;
+
+public record ChildPage<C>(List<C> items, PageCursor next) {
+
+  public boolean hasNext() {
+    return next != null;
+  }
+}
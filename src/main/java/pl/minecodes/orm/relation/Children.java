@@ -0,0 +1,40 @@
+package pl.minecodes.orm.relation;
+
+import java.sql.Connection;
+import java.util.function.Supplier;
+import pl.minecodes.orm.table.TableMetadata;
+
+public final class Children<C> {
+
+  private final RelationLoader loader;
+  private final RelationInfo relation;
+  private final TableMetadata metadata;
+  private final Object ownerId;
+  private final Supplier<Connection> activeConnection;
+
+  Children(RelationLoader loader, RelationInfo relation, TableMetadata metadata, Object ownerId,
+      Supplier<Connection> activeConnection) {
+    this.loader = loader;
+    this.relation = relation;
+    this.metadata = metadata;
+    this.ownerId = ownerId;
+    this.activeConnection = activeConnection;
+  }
+
+  public ChildPage<C> page(int size) {
+    return page(size, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  public ChildPage<C> page(int size, PageCursor after) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Page size must be positive");
+    }
+    return (ChildPage<C>) loader.fetchChildPage(relation, metadata, ownerId, size, after,
+        activeConnection.get());
+  }
+
+  public long count() {
+    return loader.countChildren(relation, metadata, ownerId, activeConnection.get());
+  }
+}
@@ -0,0 +1,80 @@
+package pl.minecodes.orm.relation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+public final class FetchPlan {
+
+  private static final FetchPlan EMPTY = new FetchPlan(Map.of(), Set.of());
+
+  private final Map<String, FetchPlan> relations;
+  private final Set<String> joins;
+
+  private FetchPlan(Map<String, FetchPlan> relations, Set<String> joins) {
+    this.relations = relations;
+    this.joins = joins;
+  }
+
+  public static FetchPlan none() {
+    return EMPTY;
+  }
+
+  public static FetchPlan of(String... paths) {
+    return EMPTY.fetch(paths);
+  }
+
+  public FetchPlan fetch(String... paths) {
+    Map<String, FetchPlan> merged = new LinkedHashMap<>(relations);
+    for (String path : paths) {
+      if (path == null || path.isBlank()) {
+        throw new IllegalArgumentException("Fetch path must not be empty");
+      }
+
+      int dot = path.indexOf('.');
+      String relation = dot < 0 ? path : path.substring(0, dot);
+      FetchPlan child = merged.getOrDefault(relation, EMPTY);
+      merged.put(relation, dot < 0 ? child : child.fetch(path.substring(dot + 1)));
+    }
+    return new FetchPlan(Collections.unmodifiableMap(merged), joins);
+  }
+
+  public FetchPlan join(String... relations) {
+    Set<String> merged = new LinkedHashSet<>(joins);
+    for (String relation : relations) {
+      if (relation.indexOf('.') >= 0) {
+        throw new IllegalArgumentException("Only direct relations can be joined: " + relation);
+      }
+      merged.add(relation);
+    }
+    FetchPlan plan = fetch(relations);
+    return new FetchPlan(plan.relations, Collections.unmodifiableSet(merged));
+  }
+
+  public Set<String> relations() {
+    return relations.keySet();
+  }
+
+  public Set<String> joins() {
+    return joins;
+  }
+
+  public boolean includes(String relation) {
+    return relations.containsKey(relation);
+  }
+
+  public FetchPlan child(String relation) {
+    return relations.getOrDefault(relation, EMPTY);
+  }
+
+  public boolean isEmpty() {
+    return relations.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "FetchPlan" + relations + (joins.isEmpty() ? "" : " joins " + joins);
+  }
+}
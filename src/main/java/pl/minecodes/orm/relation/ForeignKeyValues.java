@@ -0,0 +1,110 @@
+package pl.minecodes.orm.relation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.Ids;
+
+public final class ForeignKeyValues {
+
+  private final List<String> columns;
+  private final Map<String, Map<Object, Object>> values = new ConcurrentHashMap<>();
+  private final Set<String> missing = ConcurrentHashMap.newKeySet();
+  private final Set<Object> owners = ConcurrentHashMap.newKeySet();
+  private final Map<Class<?>, ForeignKeyValues> related = new ConcurrentHashMap<>();
+
+  private ForeignKeyValues(List<String> columns) {
+    this.columns = columns;
+  }
+
+  public static ForeignKeyValues of(TableMetadata metadata) {
+    List<String> columns = new ArrayList<>();
+    for (RelationInfo relation : metadata.relations()) {
+      if (relation.type() == RelationType.MANY_TO_ONE
+          || (relation.type() == RelationType.ONE_TO_ONE && relation.isOwning())) {
+        columns.add(metadata.fieldColumnNames().get(relation.field().getName()));
+      }
+    }
+    return new ForeignKeyValues(columns);
+  }
+
+  public List<String> columns() {
+    return columns;
+  }
+
+  public void capture(ResultSet resultSet, Object ownerId) {
+    capture(resultSet, ownerId, columns);
+  }
+
+  public void capture(ResultSet resultSet, Object ownerId, List<String> labels) {
+    if (ownerId == null) {
+      return;
+    }
+    owners.add(Ids.normalize(ownerId));
+
+    for (int i = 0; i < columns.size(); i++) {
+      String column = columns.get(i);
+      if (missing.contains(column)) {
+        continue;
+      }
+
+      try {
+        Object value = resultSet.getObject(labels.get(i));
+        Map<Object, Object> byOwner = values.computeIfAbsent(column,
+            key -> new ConcurrentHashMap<>());
+        if (value != null) {
+          byOwner.putIfAbsent(Ids.normalize(ownerId), Ids.normalize(value));
+        }
+      } catch (SQLException e) {
+        missing.add(column);
+        values.remove(column);
+      }
+    }
+  }
+
+  public void capture(Map<String, Object> row, Object ownerId) {
+    if (ownerId == null) {
+      return;
+    }
+    owners.add(Ids.normalize(ownerId));
+
+    for (String column : columns) {
+      if (missing.contains(column)) {
+        continue;
+      }
+      if (!row.containsKey(column)) {
+        missing.add(column);
+        values.remove(column);
+        continue;
+      }
+
+      Map<Object, Object> byOwner = values.computeIfAbsent(column,
+          key -> new ConcurrentHashMap<>());
+      Object value = row.get(column);
+      if (value != null) {
+        byOwner.putIfAbsent(Ids.normalize(ownerId), Ids.normalize(value));
+      }
+    }
+  }
+
+  public ForeignKeyValues related(Class<?> type, TableMetadata metadata) {
+    return related.computeIfAbsent(type, key -> of(metadata));
+  }
+
+  Map<Class<?>, ForeignKeyValues> related() {
+    return related;
+  }
+
+  boolean covers(String column, Object ownerId) {
+    return values.containsKey(column) && owners.contains(ownerId);
+  }
+
+  Map<Object, Object> get(String column) {
+    return values.getOrDefault(column, Map.of());
+  }
+}
@@ -0,0 +1,56 @@
+package pl.minecodes.orm.relation;
+
+public final class Lazy<T> {
+
+  private final LazyBatch batch;
+  private final Object ownerId;
+  private T value;
+  private boolean loaded;
+
+  Lazy(LazyBatch batch, Object ownerId) {
+    this.batch = batch;
+    this.ownerId = ownerId;
+  }
+
+  private Lazy(T value) {
+    this.batch = null;
+    this.ownerId = null;
+    this.value = value;
+    this.loaded = true;
+  }
+
+  public static <T> Lazy<T> of(T value) {
+    return new Lazy<>(value);
+  }
+
+  public static boolean isInitialized(Object value) {
+    if (value instanceof Lazy<?> lazy) {
+      return lazy.isLoaded();
+    } else if (value instanceof LazyCollection collection) {
+      return collection.isLoaded();
+    }
+    return true;
+  }
+
+  public static Object unwrap(Object value) {
+    return value instanceof Lazy<?> lazy ? lazy.get() : value;
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized T get() {
+    if (!loaded) {
+      value = (T) batch.get(ownerId);
+      loaded = true;
+    }
+    return value;
+  }
+
+  public synchronized boolean isLoaded() {
+    return loaded;
+  }
+
+  @Override
+  public String toString() {
+    return loaded ? "Lazy[" + value + "]" : "Lazy[not loaded]";
+  }
+}
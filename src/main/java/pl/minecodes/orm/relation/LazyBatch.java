@@ -0,0 +1,38 @@
+package pl.minecodes.orm.relation;
+
+import java.util.List;
+import java.util.Map;
+import pl.minecodes.orm.table.TableMetadata;
+
+final class LazyBatch {
+
+  private final RelationLoader loader;
+  private final RelationInfo relation;
+  private final TableMetadata metadata;
+  private List<?> owners;
+  private LoadContext context;
+  private Map<Object, ?> values;
+
+  LazyBatch(RelationLoader loader, RelationInfo relation, TableMetadata metadata,
+      List<?> owners, LoadContext context) {
+    this.loader = loader;
+    this.relation = relation;
+    this.metadata = metadata;
+    this.owners = owners;
+    this.context = context;
+  }
+
+  synchronized Object get(Object ownerId) {
+    if (values == null) {
+      values = loader.fetchDetached(owners, relation, metadata, context);
+      owners = null;
+      context = null;
+    }
+    return values.get(ownerId);
+  }
+
+  List<?> getAll(Object ownerId) {
+    Object value = get(ownerId);
+    return value == null ? List.of() : (List<?>) value;
+  }
+}
@@ -0,0 +1,6 @@
+package pl.minecodes.orm.relation;
+
+public interface LazyCollection {
+
+  boolean isLoaded();
+}
@@ -0,0 +1,63 @@
+package pl.minecodes.orm.relation;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LazyList<E> extends AbstractList<E> implements LazyCollection {
+
+  private final LazyBatch batch;
+  private final Object ownerId;
+  private List<E> delegate;
+
+  LazyList(LazyBatch batch, Object ownerId) {
+    this.batch = batch;
+    this.ownerId = ownerId;
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized List<E> delegate() {
+    if (delegate == null) {
+      delegate = new ArrayList<>((List<E>) batch.getAll(ownerId));
+    }
+    return delegate;
+  }
+
+  @Override
+  public synchronized boolean isLoaded() {
+    return delegate != null;
+  }
+
+  @Override
+  public E get(int index) {
+    return delegate().get(index);
+  }
+
+  @Override
+  public int size() {
+    return delegate().size();
+  }
+
+  @Override
+  public E set(int index, E element) {
+    return delegate().set(index, element);
+  }
+
+  @Override
+  public void add(int index, E element) {
+    delegate().add(index, element);
+    modCount++;
+  }
+
+  @Override
+  public E remove(int index) {
+    E removed = delegate().remove(index);
+    modCount++;
+    return removed;
+  }
+
+  @Override
+  public String toString() {
+    return isLoaded() ? delegate().toString() : "[not loaded]";
+  }
+}
@@ -0,0 +1,62 @@
+package pl.minecodes.orm.relation;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class LazySet<E> extends AbstractSet<E> implements LazyCollection {
+
+  private final LazyBatch batch;
+  private final Object ownerId;
+  private Set<E> delegate;
+
+  LazySet(LazyBatch batch, Object ownerId) {
+    this.batch = batch;
+    this.ownerId = ownerId;
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized Set<E> delegate() {
+    if (delegate == null) {
+      delegate = new LinkedHashSet<>((List<E>) batch.getAll(ownerId));
+    }
+    return delegate;
+  }
+
+  @Override
+  public synchronized boolean isLoaded() {
+    return delegate != null;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return delegate().iterator();
+  }
+
+  @Override
+  public int size() {
+    return delegate().size();
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return delegate().contains(o);
+  }
+
+  @Override
+  public boolean add(E element) {
+    return delegate().add(element);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return delegate().remove(o);
+  }
+
+  @Override
+  public String toString() {
+    return isLoaded() ? delegate().toString() : "[not loaded]";
+  }
+}
@@ -0,0 +1,74 @@
+package pl.minecodes.orm.relation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import pl.minecodes.orm.table.TableMetadata;
+
+final class LoadContext {
+
+  private final int maxDepth;
+  private final Map<Class<?>, Map<Object, Object>> instances;
+  private final Map<Class<?>, ForeignKeyValues> foreignKeys;
+  private List<Object> fresh = new ArrayList<>();
+
+  LoadContext(int maxDepth) {
+    this(maxDepth, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+  }
+
+  private LoadContext(int maxDepth, Map<Class<?>, Map<Object, Object>> instances,
+      Map<Class<?>, ForeignKeyValues> foreignKeys) {
+    this.maxDepth = maxDepth;
+    this.instances = instances;
+    this.foreignKeys = foreignKeys;
+  }
+
+  LoadContext fork() {
+    return new LoadContext(maxDepth, instances, foreignKeys);
+  }
+
+  int maxDepth() {
+    return maxDepth;
+  }
+
+  Object get(Class<?> type, Object id) {
+    Map<Object, Object> byId = instances.get(type);
+    return byId == null ? null : byId.get(id);
+  }
+
+  Object register(Class<?> type, Object id, Object instance) {
+    Object known = instances.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+        .putIfAbsent(id, instance);
+    return known != null ? known : instance;
+  }
+
+  Object materialize(Class<?> type, Object id, Object instance) {
+    Object known = register(type, id, instance);
+    if (known == instance) {
+      fresh.add(instance);
+    }
+    return known;
+  }
+
+  List<Object> drainFresh() {
+    List<Object> drained = fresh;
+    fresh = new ArrayList<>();
+    return drained;
+  }
+
+  ForeignKeyValues foreignKeys(Class<?> type) {
+    return foreignKeys.get(type);
+  }
+
+  ForeignKeyValues foreignKeys(Class<?> type, TableMetadata metadata) {
+    return foreignKeys.computeIfAbsent(type, key -> ForeignKeyValues.of(metadata));
+  }
+
+  void useForeignKeys(Class<?> type, ForeignKeyValues values) {
+    if (values != null) {
+      foreignKeys.put(type, values);
+      values.related().forEach(foreignKeys::putIfAbsent);
+    }
+  }
+}
@@ -0,0 +1,5 @@
+package pl.minecodes.orm.relation;
+
+public record PageCursor(Object sortValue, Object id) {
+
+}
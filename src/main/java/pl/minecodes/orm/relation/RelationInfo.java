@@ -12,9 +12,28 @@ public record RelationInfo(
     String joinTable,
     String inverseJoinColumn,
     FetchType fetchType,
-    boolean cascade
+    boolean cascade,
+    int batchSize,
+    String orderBy,
+    int maxLoaded
 ) {
 
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  public RelationInfo(Field field, RelationType type, Class<?> targetEntity, String joinColumn,
+      String mappedBy, String joinTable, String inverseJoinColumn, FetchType fetchType,
+      boolean cascade, int batchSize) {
+    this(field, type, targetEntity, joinColumn, mappedBy, joinTable, inverseJoinColumn, fetchType,
+        cascade, batchSize, "", 0);
+  }
+
+  public RelationInfo(Field field, RelationType type, Class<?> targetEntity, String joinColumn,
+      String mappedBy, String joinTable, String inverseJoinColumn, FetchType fetchType,
+      boolean cascade) {
+    this(field, type, targetEntity, joinColumn, mappedBy, joinTable, inverseJoinColumn, fetchType,
+        cascade, DEFAULT_BATCH_SIZE);
+  }
+
   public boolean isOwning() {
     return joinColumn != null && !joinColumn.isEmpty();
   }
@@ -22,4 +41,12 @@ public record RelationInfo(
   public boolean isInverse() {
     return mappedBy != null && !mappedBy.isEmpty();
   }
+
+  public boolean isOrdered() {
+    return orderBy != null && !orderBy.isEmpty();
+  }
+
+  public boolean isBounded() {
+    return maxLoaded > 0;
+  }
 }
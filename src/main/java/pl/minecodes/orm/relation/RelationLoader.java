@@ -1,5 +1,7 @@
 package pl.minecodes.orm.relation;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.sql.Connection;
@@ -8,20 +10,42 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import pl.minecodes.orm.FlexOrm;
 import pl.minecodes.orm.annotation.FetchType;
 import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.Ids;
 import pl.minecodes.orm.util.SqlSanitizer;
 
 public class RelationLoader {
 
   private static final Map<Class<?>, Constructor<?>> constructorCache = new ConcurrentHashMap<>();
+  private static final String OWNER_COLUMN = "flexorm_owner";
+  private static final String RANK_COLUMN = "flexorm_rank";
+  private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+  private static final ExecutorService RELATION_EXECUTOR = Executors.newCachedThreadPool(
+      runnable -> {
+        Thread thread = new Thread(runnable,
+            "flexorm-relation-loader-" + THREAD_INDEX.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
 
   private final FlexOrm orm;
   private final Map<Class<?>, TableMetadata> metadataCache;
@@ -35,55 +59,347 @@ public class RelationLoader {
   }
 
   public <T> void loadRelations(T entity, TableMetadata metadata, Connection connection) {
+    loadRelations(List.of(entity), metadata, connection);
+  }
+
+  public <T> void loadRelations(List<T> entities, TableMetadata metadata, Connection connection) {
+    loadRelations(entities, metadata, connection, List.of());
+  }
+
+  public <T> void loadRelations(List<T> entities, TableMetadata metadata, Connection connection,
+      Collection<RelationInfo> alreadyLoaded) {
+    loadRelations(entities, metadata, connection, alreadyLoaded, null);
+  }
+
+  public <T> void loadRelations(List<T> entities, TableMetadata metadata, Connection connection,
+      Collection<RelationInfo> alreadyLoaded, ForeignKeyValues foreignKeys) {
+    loadRelations(entities, metadata, connection, alreadyLoaded, foreignKeys, null);
+  }
+
+  public <T> void loadRelations(List<T> entities, TableMetadata metadata, Connection connection,
+      Collection<RelationInfo> alreadyLoaded, ForeignKeyValues foreignKeys, FetchPlan plan) {
+    loadRelations(entities, metadata, connection, alreadyLoaded, foreignKeys, plan, Map.of());
+  }
+
+  public <T> void loadRelations(List<T> entities, TableMetadata metadata, Connection connection,
+      Collection<RelationInfo> alreadyLoaded, ForeignKeyValues foreignKeys, FetchPlan plan,
+      Map<RelationInfo, Subselect> subselects) {
+    if (plan != null) {
+      validatePlan(plan, metadata);
+    }
+    if (entities.isEmpty()) {
+      return;
+    }
+
+    LoadContext context = new LoadContext(orm.getMaxFetchDepth());
+    Class<?> entityClass = entityClass(metadata);
+    context.useForeignKeys(entityClass, foreignKeys);
+    try {
+      for (T entity : entities) {
+        Object id = metadata.idField().get(entity);
+        if (id != null) {
+          context.register(entityClass, Ids.normalize(id), entity);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error loading relations of " + metadata.tableName(), e);
+    }
+
+    load(entities, metadata, connection, alreadyLoaded, plan, subselects, context, 1);
+  }
+
+  private void load(List<?> entities, TableMetadata metadata, Connection connection,
+      Collection<RelationInfo> alreadyLoaded, FetchPlan plan, Map<RelationInfo, Subselect> subselects,
+      LoadContext context, int depth) {
+    List<RelationInfo> pending = new ArrayList<>();
+    Map<RelationInfo, List<Object>> fresh = new HashMap<>();
+    for (RelationInfo relation : metadata.relations()) {
+      if (alreadyLoaded.contains(relation)) {
+        registerLoaded(entities, relation, context);
+        fresh.put(relation, context.drainFresh());
+      } else if (subselects.containsKey(relation) || (plan == null
+          ? relation.fetchType() == FetchType.EAGER
+          : plan.includes(relation.field().getName()))) {
+        pending.add(relation);
+      } else {
+        installLazy(entities, relation, metadata, context);
+      }
+    }
+
+    int workers = concurrentWorkers(pending.size(), connection);
+    if (workers == 0) {
+      for (RelationInfo relation : pending) {
+        loadRelation(entities, relation, metadata, connection, context, subselects.get(relation));
+        fresh.put(relation, context.drainFresh());
+      }
+    } else {
+      fresh.putAll(loadConcurrently(entities, pending, metadata, connection, subselects, context,
+          workers));
+    }
+
     for (RelationInfo relation : metadata.relations()) {
-      if (relation.fetchType() == FetchType.EAGER) {
-        loadRelation(entity, relation, metadata, connection);
+      TableMetadata targetMetadata = getOrCreateMetadata(relation.targetEntity());
+      if (plan != null) {
+        FetchPlan child = plan.child(relation.field().getName());
+        if (!child.isEmpty()) {
+          validatePlan(child, targetMetadata);
+          load(related(entities, relation), targetMetadata, connection, List.of(), child, Map.of(),
+              context, depth + 1);
+        }
+      } else if (depth < context.maxDepth() && fresh.containsKey(relation)
+          && !fresh.get(relation).isEmpty()) {
+        load(fresh.get(relation), targetMetadata, connection, List.of(), null, Map.of(), context,
+            depth + 1);
       }
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private <T> void loadRelation(T entity, RelationInfo relation, TableMetadata metadata,
-      Connection connection) {
+  private int concurrentWorkers(int relations, Connection connection) {
+    int parallelism = Math.min(orm.getRelationLoadParallelism(), relations);
+    if (parallelism < 2) {
+      return 0;
+    }
+
+    try {
+      if (!connection.getAutoCommit()) {
+        return 0;
+      }
+    } catch (SQLException e) {
+      return 0;
+    }
+
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+    HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+    int idle = pool == null ? 0 : pool.getIdleConnections();
+    return Math.min(parallelism - 1, idle);
+  }
+
+  private Map<RelationInfo, List<Object>> loadConcurrently(List<?> entities,
+      List<RelationInfo> relations, TableMetadata metadata, Connection connection,
+      Map<RelationInfo, Subselect> subselects, LoadContext context, int workers) {
+    Queue<RelationInfo> queue = new ConcurrentLinkedQueue<>(relations);
+    Map<RelationInfo, List<Object>> fresh = new ConcurrentHashMap<>();
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < workers; i++) {
+      futures.add(RELATION_EXECUTOR.submit(() -> {
+        Connection own;
+        try {
+          own = dataSource.getConnection();
+        } catch (SQLException e) {
+          return;
+        }
+        try (own) {
+          drainRelations(entities, queue, metadata, own, subselects, context, fresh);
+        } catch (SQLException e) {
+          throw new RuntimeException("Error releasing relation loader connection", e);
+        }
+      }));
+    }
+
+    RuntimeException failure = null;
     try {
-      switch (relation.type()) {
-        case ONE_TO_ONE -> loadOneToOne(entity, relation, metadata, connection);
-        case MANY_TO_ONE -> loadManyToOne(entity, relation, metadata, connection);
-        case ONE_TO_MANY -> loadOneToMany(entity, relation, metadata, connection);
-        case MANY_TO_MANY -> loadManyToMany(entity, relation, metadata, connection);
+      drainRelations(entities, queue, metadata, connection, subselects, context, fresh);
+    } catch (RuntimeException e) {
+      failure = e;
+      queue.clear();
+    }
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause() instanceof RuntimeException runtime
+              ? runtime
+              : new RuntimeException("Error loading relations", e.getCause());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        if (failure == null) {
+          failure = new RuntimeException("Interrupted while loading relations", e);
+        }
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+    return fresh;
+  }
+
+  private void drainRelations(List<?> entities, Queue<RelationInfo> queue, TableMetadata metadata,
+      Connection connection, Map<RelationInfo, Subselect> subselects, LoadContext context,
+      Map<RelationInfo, List<Object>> fresh) {
+    RelationInfo relation;
+    while ((relation = queue.poll()) != null) {
+      LoadContext forked = context.fork();
+      loadRelation(entities, relation, metadata, connection, forked, subselects.get(relation));
+      fresh.put(relation, forked.drainFresh());
+    }
+  }
+
+  private void validatePlan(FetchPlan plan, TableMetadata metadata) {
+    for (String name : plan.relations()) {
+      boolean known = metadata.relations().stream()
+          .anyMatch(relation -> relation.field().getName().equals(name));
+      if (!known) {
+        throw new IllegalArgumentException(
+            "Unknown relation " + name + " on " + metadata.tableName());
+      }
+    }
+  }
+
+  private List<Object> related(List<?> entities, RelationInfo relation) {
+    Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<Object> related = new ArrayList<>();
+    try {
+      for (Object entity : entities) {
+        Object value = Lazy.unwrap(relation.field().get(entity));
+        if (value instanceof Collection<?> collection) {
+          for (Object item : collection) {
+            if (seen.add(item)) {
+              related.add(item);
+            }
+          }
+        } else if (value != null && seen.add(value)) {
+          related.add(value);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error loading relation " + relation.field().getName(), e);
+    }
+    return related;
+  }
+
+  private void registerLoaded(List<?> entities, RelationInfo relation, LoadContext context) {
+    TableMetadata targetMetadata = getOrCreateMetadata(relation.targetEntity());
+    try {
+      for (Object related : related(entities, relation)) {
+        Object id = targetMetadata.idField().get(related);
+        if (id != null) {
+          context.materialize(relation.targetEntity(), Ids.normalize(id), related);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error loading relation " + relation.field().getName(), e);
+    }
+  }
+
+  private <T> void loadRelation(List<T> entities, RelationInfo relation, TableMetadata metadata,
+      Connection connection, LoadContext context, Subselect subselect) {
+    try {
+      Map<Object, ?> related = subselect == null
+          ? fetchRelation(entities, relation, metadata, connection, context)
+          : fetchCollection(relation, metadata, context, (sqlPrefix, sqlSuffix, consumer) ->
+              fetchBySubselect(sqlPrefix, sqlSuffix, subselect, connection, consumer));
+      Field field = relation.field();
+      for (T entity : entities) {
+        Object id = metadata.idField().get(entity);
+        if (id == null) {
+          continue;
+        }
+
+        Object value = related.get(Ids.normalize(id));
+        if (isCollection(relation)) {
+          Collection<Object> collection = newCollection(field.getType());
+          if (collection != null) {
+            if (value != null) {
+              collection.addAll((List<?>) value);
+            }
+            field.set(entity, collection);
+          }
+        } else if (field.getType() == Lazy.class) {
+          field.set(entity, Lazy.of(value));
+        } else {
+          field.set(entity, value);
+        }
       }
     } catch (Exception e) {
       throw new RuntimeException("Error loading relation " + relation.field().getName(), e);
     }
   }
 
-  private <T> void loadOneToOne(T entity, RelationInfo relation, TableMetadata metadata,
-      Connection connection)
-      throws Exception {
-    Class<?> targetClass = relation.targetEntity();
-    TableMetadata targetMetadata = getOrCreateMetadata(targetClass);
+  private <T> void installLazy(List<T> entities, RelationInfo relation, TableMetadata metadata,
+      LoadContext context) {
+    Class<?> fieldType = relation.field().getType();
+    boolean supported = isCollection(relation)
+        ? newCollection(fieldType) != null
+        : fieldType == Lazy.class && (relation.type() == RelationType.MANY_TO_ONE
+            || relation.isOwning() || relation.isInverse());
+    if (!supported) {
+      return;
+    }
 
-    if (relation.isOwning()) {
-      String fkColumn = relation.joinColumn().isEmpty()
-          ? relation.field().getName() + "_id"
-          : relation.joinColumn();
+    LazyBatch batch = new LazyBatch(this, relation, metadata, new ArrayList<>(entities), context);
+    try {
+      for (T entity : entities) {
+        Object id = metadata.idField().get(entity);
+        if (id == null) {
+          continue;
+        }
 
-      Object fkValue = getFkValueFromEntity(entity, metadata, fkColumn, connection);
-      if (fkValue != null) {
-        Object related = findById(targetClass, targetMetadata, fkValue, connection);
-        relation.field().set(entity, related);
+        Object ownerId = Ids.normalize(id);
+        Object value;
+        if (fieldType == Lazy.class) {
+          value = new Lazy<>(batch, ownerId);
+        } else if (fieldType == Set.class) {
+          value = new LazySet<>(batch, ownerId);
+        } else {
+          value = new LazyList<>(batch, ownerId);
+        }
+        relation.field().set(entity, value);
       }
-    } else if (relation.isInverse()) {
-      Object entityId = metadata.idField().get(entity);
-      String mappedByColumn = relation.mappedBy() + "_id";
-      Object related = findByFk(targetClass, targetMetadata, mappedByColumn, entityId, connection);
-      relation.field().set(entity, related);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException("Error preparing lazy relation " + relation.field().getName(), e);
     }
   }
 
-  private <T> void loadManyToOne(T entity, RelationInfo relation, TableMetadata metadata,
-      Connection connection)
-      throws Exception {
+  Map<Object, ?> fetchDetached(List<?> entities, RelationInfo relation, TableMetadata metadata,
+      LoadContext parent) {
+    LoadContext context = parent.fork();
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection()) {
+      Map<Object, ?> related = fetchRelation(entities, relation, metadata, connection, context);
+      List<Object> fresh = context.drainFresh();
+      if (!fresh.isEmpty()) {
+        load(fresh, getOrCreateMetadata(relation.targetEntity()), connection, List.of(), null,
+            Map.of(), context, 1);
+      }
+      return related;
+    } catch (Exception e) {
+      throw new RuntimeException("Error lazily loading relation " + relation.field().getName(), e);
+    }
+  }
+
+  private Map<Object, ?> fetchRelation(List<?> entities, RelationInfo relation,
+      TableMetadata metadata, Connection connection, LoadContext context) throws Exception {
+    return switch (relation.type()) {
+      case ONE_TO_ONE -> {
+        if (relation.isOwning()) {
+          yield fetchToOne(entities, relation, metadata, connection, context);
+        } else if (relation.isInverse()) {
+          yield fetchInverseOneToOne(entities, relation, metadata, connection, context);
+        }
+        yield Map.of();
+      }
+      case MANY_TO_ONE -> fetchToOne(entities, relation, metadata, connection, context);
+      case ONE_TO_MANY, MANY_TO_MANY -> fetchCollection(relation, metadata, context,
+          (sqlPrefix, sqlSuffix, consumer) -> fetchInBatches(sqlPrefix, sqlSuffix,
+              ownerIds(entities, metadata), relation, connection, consumer));
+    };
+  }
+
+  private Map<Object, List<Object>> fetchCollection(RelationInfo relation, TableMetadata metadata,
+      LoadContext context, KeyedQuery keyedQuery) throws Exception {
+    return relation.type() == RelationType.ONE_TO_MANY
+        ? fetchOneToMany(relation, metadata, keyedQuery, context)
+        : fetchManyToMany(relation, metadata, keyedQuery, context);
+  }
+
+  private Map<Object, Object> fetchToOne(List<?> entities, RelationInfo relation,
+      TableMetadata metadata, Connection connection, LoadContext context) throws Exception {
     Class<?> targetClass = relation.targetEntity();
     TableMetadata targetMetadata = getOrCreateMetadata(targetClass);
 
@@ -91,44 +407,259 @@ public class RelationLoader {
         ? relation.field().getName() + "_id"
         : relation.joinColumn();
 
-    Object fkValue = getFkValueFromEntity(entity, metadata, fkColumn, connection);
-    if (fkValue != null) {
-      Object related = findById(targetClass, targetMetadata, fkValue, connection);
-      relation.field().set(entity, related);
+    ForeignKeyValues foreignKeys = context.foreignKeys(entityClass(metadata));
+    Map<Object, Object> fkValues = new HashMap<>();
+    List<Object> uncaptured = new ArrayList<>();
+    for (Object ownerId : ownerIds(entities, metadata)) {
+      if (foreignKeys != null && foreignKeys.covers(fkColumn, ownerId)) {
+        Object fkValue = foreignKeys.get(fkColumn).get(ownerId);
+        if (fkValue != null) {
+          fkValues.put(ownerId, fkValue);
+        }
+      } else {
+        uncaptured.add(ownerId);
+      }
+    }
+
+    String fkSql = "SELECT " + SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata)) + ", "
+        + SqlSanitizer.sanitizeColumnName(fkColumn) + " FROM "
+        + SqlSanitizer.sanitizeTableName(metadata.tableName()) + " WHERE "
+        + SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata));
+    fetchInBatches(fkSql, uncaptured, relation, connection, rs -> {
+      Object fkValue = rs.getObject(2);
+      if (fkValue != null) {
+        fkValues.put(Ids.normalize(rs.getObject(1)), Ids.normalize(fkValue));
+      }
+    });
+
+    Map<Object, Object> targets = new HashMap<>();
+    List<Object> missing = new ArrayList<>();
+    for (Object targetId : new LinkedHashSet<>(fkValues.values())) {
+      Object known = context.get(targetClass, targetId);
+      if (known != null) {
+        targets.put(targetId, known);
+      } else {
+        missing.add(targetId);
+      }
+    }
+
+    String targetSql = "SELECT * FROM " + SqlSanitizer.sanitizeTableName(targetMetadata.tableName())
+        + " WHERE " + SqlSanitizer.sanitizeColumnName(getIdColumnName(targetMetadata));
+    fetchInBatches(targetSql, missing, relation, connection, rs -> {
+      Object related = materialize(rs, targetClass, targetMetadata, context);
+      targets.put(Ids.normalize(targetMetadata.idField().get(related)), related);
+    });
+
+    Map<Object, Object> result = new HashMap<>();
+    for (var entry : fkValues.entrySet()) {
+      Object related = targets.get(entry.getValue());
+      if (related != null) {
+        result.put(entry.getKey(), related);
+      }
     }
+    return result;
   }
 
-  private <T> void loadOneToMany(T entity, RelationInfo relation, TableMetadata metadata,
-      Connection connection)
-      throws Exception {
+  private Map<Object, Object> fetchInverseOneToOne(List<?> entities, RelationInfo relation,
+      TableMetadata metadata, Connection connection, LoadContext context) throws Exception {
+    Class<?> targetClass = relation.targetEntity();
+    TableMetadata targetMetadata = getOrCreateMetadata(targetClass);
+    String mappedByColumn = relation.mappedBy() + "_id";
+
+    Map<Object, Object> related = new HashMap<>();
+    String sql = "SELECT * FROM " + SqlSanitizer.sanitizeTableName(targetMetadata.tableName())
+        + " WHERE " + SqlSanitizer.sanitizeColumnName(mappedByColumn);
+    fetchInBatches(sql, ownerIds(entities, metadata), relation, connection, rs ->
+        related.putIfAbsent(Ids.normalize(rs.getObject(mappedByColumn)),
+            materialize(rs, targetClass, targetMetadata, context)));
+    return related;
+  }
+
+  private Map<Object, List<Object>> fetchOneToMany(RelationInfo relation, TableMetadata metadata,
+      KeyedQuery keyedQuery, LoadContext context) throws Exception {
     Class<?> targetClass = relation.targetEntity();
     TableMetadata targetMetadata = getOrCreateMetadata(targetClass);
 
-    Object entityId = metadata.idField().get(entity);
-    String fkColumn = relation.mappedBy().isEmpty()
+    String fkColumn = childFkColumn(relation, metadata);
+    String tableName = SqlSanitizer.sanitizeTableName(targetMetadata.tableName());
+    String sanitizedFkColumn = SqlSanitizer.sanitizeColumnName(fkColumn);
+    String sql;
+    String suffix;
+    if (relation.isBounded()) {
+      String order = orderClause(relation, targetMetadata);
+      sql = "SELECT * FROM (SELECT " + tableName + ".*, ROW_NUMBER() OVER (PARTITION BY "
+          + sanitizedFkColumn + " ORDER BY " + order + ") AS " + RANK_COLUMN + " FROM "
+          + tableName + " WHERE " + sanitizedFkColumn;
+      suffix = ") flexorm_ranked WHERE " + RANK_COLUMN + " <= " + relation.maxLoaded()
+          + " ORDER BY " + order;
+    } else {
+      sql = "SELECT * FROM " + tableName + " WHERE " + sanitizedFkColumn;
+      suffix = relation.isOrdered() ? " ORDER BY " + orderClause(relation, targetMetadata) : "";
+    }
+
+    Map<Object, List<Object>> children = new HashMap<>();
+    keyedQuery.run(sql, suffix, rs ->
+        children.computeIfAbsent(Ids.normalize(rs.getObject(fkColumn)), key -> new ArrayList<>())
+            .add(materialize(rs, targetClass, targetMetadata, context)));
+    return children;
+  }
+
+  public <C> Children<C> children(TableMetadata metadata, String relationField, Object ownerId,
+      Supplier<Connection> activeConnection) {
+    RelationInfo relation = null;
+    for (RelationInfo candidate : metadata.relations()) {
+      if (candidate.field().getName().equals(relationField)) {
+        relation = candidate;
+      }
+    }
+    if (relation == null || relation.type() != RelationType.ONE_TO_MANY) {
+      throw new IllegalArgumentException("Field " + relationField + " is not a OneToMany relation");
+    }
+    if (ownerId == null) {
+      throw new IllegalArgumentException("ID cannot be null");
+    }
+    return new Children<>(this, relation, metadata, Ids.normalize(ownerId), activeConnection);
+  }
+
+  ChildPage<Object> fetchChildPage(RelationInfo relation, TableMetadata metadata, Object ownerId,
+      int size, PageCursor after, Connection activeConnection) {
+    Class<?> targetClass = relation.targetEntity();
+    TableMetadata targetMetadata = getOrCreateMetadata(targetClass);
+    SortColumn sort = sortColumn(relation, targetMetadata);
+    String idColumn = getIdColumnName(targetMetadata);
+    String sanitizedIdColumn = SqlSanitizer.sanitizeColumnName(idColumn);
+    String sanitizedSortColumn = SqlSanitizer.sanitizeColumnName(sort.column());
+    String comparison = sort.descending() ? " < ?" : " > ?";
+
+    StringBuilder sql = new StringBuilder("SELECT * FROM ")
+        .append(SqlSanitizer.sanitizeTableName(targetMetadata.tableName()))
+        .append(" WHERE ").append(SqlSanitizer.sanitizeColumnName(childFkColumn(relation, metadata)))
+        .append(" = ?");
+    List<Object> parameters = new ArrayList<>(List.of(ownerId));
+    if (after != null) {
+      if (sort.column().equals(idColumn)) {
+        sql.append(" AND ").append(sanitizedIdColumn).append(comparison);
+        parameters.add(after.id());
+      } else if (after.sortValue() == null) {
+        sql.append(" AND ").append(sanitizedSortColumn).append(" IS NULL AND ")
+            .append(sanitizedIdColumn).append(comparison);
+        parameters.add(after.id());
+      } else {
+        sql.append(" AND (").append(sanitizedSortColumn).append(" IS NULL OR ")
+            .append(sanitizedSortColumn).append(comparison).append(" OR (")
+            .append(sanitizedSortColumn).append(" = ? AND ").append(sanitizedIdColumn)
+            .append(comparison).append("))");
+        parameters.addAll(List.of(after.sortValue(), after.sortValue(), after.id()));
+      }
+    }
+    sql.append(" ORDER BY ").append(orderClause(relation, targetMetadata))
+        .append(" LIMIT ").append(size + 1);
+
+    try {
+      return withConnection(activeConnection, connection -> {
+        List<Object> items = new ArrayList<>();
+        PageCursor next = null;
+        try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+          for (int i = 0; i < parameters.size(); i++) {
+            stmt.setObject(i + 1, parameters.get(i));
+          }
+          ForeignKeyValues foreignKeys = ForeignKeyValues.of(targetMetadata);
+          try (ResultSet rs = stmt.executeQuery()) {
+            Object lastSortValue = null;
+            Object lastId = null;
+            while (rs.next()) {
+              if (items.size() == size) {
+                next = new PageCursor(lastSortValue, lastId);
+                break;
+              }
+              lastSortValue = rs.getObject(sort.column());
+              lastId = rs.getObject(idColumn);
+              items.add(mapResultSetToEntity(rs, targetClass, targetMetadata));
+              foreignKeys.capture(rs, lastId);
+            }
+          }
+          loadRelations(items, targetMetadata, connection, List.of(), foreignKeys);
+        }
+        return new ChildPage<>(items, next);
+      });
+    } catch (Exception e) {
+      throw new RuntimeException("Error loading page of relation " + relation.field().getName(), e);
+    }
+  }
+
+  long countChildren(RelationInfo relation, TableMetadata metadata, Object ownerId,
+      Connection activeConnection) {
+    TableMetadata targetMetadata = getOrCreateMetadata(relation.targetEntity());
+    String sql = "SELECT COUNT(*) FROM "
+        + SqlSanitizer.sanitizeTableName(targetMetadata.tableName()) + " WHERE "
+        + SqlSanitizer.sanitizeColumnName(childFkColumn(relation, metadata)) + " = ?";
+    try {
+      return withConnection(activeConnection, connection -> {
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+          stmt.setObject(1, ownerId);
+          try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+          }
+        }
+      });
+    } catch (Exception e) {
+      throw new RuntimeException("Error counting relation " + relation.field().getName(), e);
+    }
+  }
+
+  private <R> R withConnection(Connection activeConnection, ConnectionWork<R> work)
+      throws Exception {
+    if (activeConnection != null) {
+      return work.apply(activeConnection);
+    }
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection()) {
+      return work.apply(connection);
+    }
+  }
+
+  private String childFkColumn(RelationInfo relation, TableMetadata metadata) {
+    return relation.mappedBy().isEmpty()
         ? metadata.tableName() + "_id"
         : relation.mappedBy() + "_id";
+  }
 
-    List<?> relatedList = findAllByFk(targetClass, targetMetadata, fkColumn, entityId, connection);
+  private String orderClause(RelationInfo relation, TableMetadata targetMetadata) {
+    SortColumn sort = sortColumn(relation, targetMetadata);
+    String direction = sort.descending() ? " DESC" : " ASC";
+    String idColumn = getIdColumnName(targetMetadata);
+    String sortColumn = SqlSanitizer.sanitizeColumnName(sort.column());
+    if (sort.column().equals(idColumn)) {
+      return sortColumn + direction;
+    }
+    return sortColumn + " IS NULL, " + sortColumn + direction + ", "
+        + SqlSanitizer.sanitizeColumnName(idColumn) + direction;
+  }
 
-    Field field = relation.field();
-    if (field.getType() == List.class) {
-      field.set(entity, relatedList);
-    } else if (field.getType() == Set.class) {
-      field.set(entity, new HashSet<>(relatedList));
-    } else if (Collection.class.isAssignableFrom(field.getType())) {
-      field.set(entity, relatedList);
+  private SortColumn sortColumn(RelationInfo relation, TableMetadata targetMetadata) {
+    if (!relation.isOrdered()) {
+      return new SortColumn(getIdColumnName(targetMetadata), false);
+    }
+
+    String[] parts = relation.orderBy().trim().split("\\s+");
+    boolean descending = parts.length == 2 && parts[1].equalsIgnoreCase("DESC");
+    if (parts.length > 2 || (parts.length == 2 && !descending
+        && !parts[1].equalsIgnoreCase("ASC"))) {
+      throw new IllegalArgumentException("Invalid orderBy: " + relation.orderBy());
+    }
+    String column = targetMetadata.fieldColumnNames().get(parts[0]);
+    if (column == null) {
+      throw new IllegalArgumentException("Field " + parts[0] + " is not a column of "
+          + relation.targetEntity().getSimpleName());
     }
+    return new SortColumn(column, descending);
   }
 
-  private <T> void loadManyToMany(T entity, RelationInfo relation, TableMetadata metadata,
-      Connection connection)
-      throws Exception {
+  private Map<Object, List<Object>> fetchManyToMany(RelationInfo relation, TableMetadata metadata,
+      KeyedQuery keyedQuery, LoadContext context) throws Exception {
     Class<?> targetClass = relation.targetEntity();
     TableMetadata targetMetadata = getOrCreateMetadata(targetClass);
 
-    Object entityId = metadata.idField().get(entity);
-
     String joinTable = relation.joinTable().isEmpty()
         ? metadata.tableName() + "_" + targetMetadata.tableName()
         : relation.joinTable();
@@ -141,125 +672,105 @@ public class RelationLoader {
         ? targetMetadata.tableName() + "_id"
         : relation.inverseJoinColumn();
 
-    List<?> relatedList = findManyToMany(
-        targetClass, targetMetadata, joinTable, joinColumn, inverseJoinColumn, entityId,
-        connection);
-
-    Field field = relation.field();
-    if (field.getType() == List.class) {
-      field.set(entity, relatedList);
-    } else if (field.getType() == Set.class) {
-      field.set(entity, new HashSet<>(relatedList));
-    } else if (Collection.class.isAssignableFrom(field.getType())) {
-      field.set(entity, relatedList);
-    }
+    String sanitizedJoinColumn = SqlSanitizer.sanitizeColumnName(joinColumn);
+    String sql = "SELECT j." + sanitizedJoinColumn + " AS " + OWNER_COLUMN + ", t.* FROM "
+        + SqlSanitizer.sanitizeTableName(targetMetadata.tableName()) + " t INNER JOIN "
+        + SqlSanitizer.sanitizeTableName(joinTable) + " j ON t."
+        + SqlSanitizer.sanitizeColumnName(getIdColumnName(targetMetadata)) + " = j."
+        + SqlSanitizer.sanitizeColumnName(inverseJoinColumn) + " WHERE j." + sanitizedJoinColumn;
+
+    Map<Object, List<Object>> related = new HashMap<>();
+    keyedQuery.run(sql, "", rs ->
+        related.computeIfAbsent(Ids.normalize(rs.getObject(OWNER_COLUMN)), key -> new ArrayList<>())
+            .add(materialize(rs, targetClass, targetMetadata, context)));
+    return related;
   }
 
-  private Object getFkValueFromEntity(Object entity, TableMetadata metadata, String fkColumn,
-      Connection connection)
-      throws Exception {
-    String sanitizedFkColumn = SqlSanitizer.sanitizeColumnName(fkColumn);
-    String sanitizedTableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
-    String sanitizedIdColumn = SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata));
-
-    String sql = "SELECT " + sanitizedFkColumn + " FROM " + sanitizedTableName + " WHERE "
-        + sanitizedIdColumn + " = ?";
+  private boolean isCollection(RelationInfo relation) {
+    return relation.type() == RelationType.ONE_TO_MANY
+        || relation.type() == RelationType.MANY_TO_MANY;
+  }
 
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-      stmt.setObject(1, metadata.idField().get(entity));
-      try (ResultSet rs = stmt.executeQuery()) {
-        if (rs.next()) {
-          return rs.getObject(1);
-        }
-      }
+  private Collection<Object> newCollection(Class<?> fieldType) {
+    if (fieldType == List.class || fieldType == Collection.class) {
+      return new ArrayList<>();
+    } else if (fieldType == Set.class) {
+      return new LinkedHashSet<>();
+    } else if (fieldType.isAssignableFrom(ArrayList.class)) {
+      return new ArrayList<>();
+    } else if (fieldType.isAssignableFrom(LinkedHashSet.class)) {
+      return new LinkedHashSet<>();
     }
     return null;
   }
 
-  private Object findById(Class<?> entityClass, TableMetadata metadata, Object id,
-      Connection connection)
-      throws Exception {
-    String sanitizedTableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
-    String sanitizedIdColumn = SqlSanitizer.sanitizeColumnName(getIdColumnName(metadata));
-
-    String sql = "SELECT * FROM " + sanitizedTableName + " WHERE " + sanitizedIdColumn + " = ?";
-
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-      stmt.setObject(1, id);
-      try (ResultSet rs = stmt.executeQuery()) {
-        if (rs.next()) {
-          return mapResultSetToEntity(rs, entityClass, metadata);
-        }
+  private List<Object> ownerIds(List<?> entities, TableMetadata metadata)
+      throws IllegalAccessException {
+    Set<Object> ids = new LinkedHashSet<>();
+    for (Object entity : entities) {
+      Object id = metadata.idField().get(entity);
+      if (id != null) {
+        ids.add(Ids.normalize(id));
       }
     }
-    return null;
+    return new ArrayList<>(ids);
   }
 
-  private Object findByFk(Class<?> entityClass, TableMetadata metadata, String fkColumn,
-      Object fkValue,
-      Connection connection) throws Exception {
-    String sanitizedTableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
-    String sanitizedFkColumn = SqlSanitizer.sanitizeColumnName(fkColumn);
-
-    String sql = "SELECT * FROM " + sanitizedTableName + " WHERE " + sanitizedFkColumn + " = ?";
+  private void fetchInBatches(String sqlPrefix, List<Object> keys, RelationInfo relation,
+      Connection connection, RowConsumer consumer) throws Exception {
+    fetchInBatches(sqlPrefix, "", keys, relation, connection, consumer);
+  }
 
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-      stmt.setObject(1, fkValue);
-      try (ResultSet rs = stmt.executeQuery()) {
-        if (rs.next()) {
-          return mapResultSetToEntity(rs, entityClass, metadata);
+  private void fetchInBatches(String sqlPrefix, String sqlSuffix, List<Object> keys,
+      RelationInfo relation, Connection connection, RowConsumer consumer) throws Exception {
+    int batchSize = relation.batchSize() > 0 ? relation.batchSize() : RelationInfo.DEFAULT_BATCH_SIZE;
+    for (int start = 0; start < keys.size(); start += batchSize) {
+      List<Object> chunk = keys.subList(start, Math.min(start + batchSize, keys.size()));
+      String sql = sqlPrefix + (chunk.size() == 1
+          ? " = ?"
+          : " IN (" + "?, ".repeat(chunk.size() - 1) + "?)") + sqlSuffix;
+
+      try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        for (int i = 0; i < chunk.size(); i++) {
+          stmt.setObject(i + 1, chunk.get(i));
+        }
+        try (ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            consumer.accept(rs);
+          }
         }
       }
     }
-    return null;
   }
 
-  private List<Object> findAllByFk(Class<?> entityClass, TableMetadata metadata, String fkColumn,
-      Object fkValue,
-      Connection connection) throws Exception {
-    List<Object> results = new ArrayList<>();
-    String sanitizedTableName = SqlSanitizer.sanitizeTableName(metadata.tableName());
-    String sanitizedFkColumn = SqlSanitizer.sanitizeColumnName(fkColumn);
-
-    String sql = "SELECT * FROM " + sanitizedTableName + " WHERE " + sanitizedFkColumn + " = ?";
-
+  private void fetchBySubselect(String sqlPrefix, String sqlSuffix, Subselect subselect,
+      Connection connection, RowConsumer consumer) throws Exception {
+    String sql = sqlPrefix + " IN (SELECT * FROM (" + subselect.ownerIdSql() + ") flexorm_owners)"
+        + sqlSuffix;
     try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-      stmt.setObject(1, fkValue);
+      subselect.binder().bind(stmt);
       try (ResultSet rs = stmt.executeQuery()) {
         while (rs.next()) {
-          results.add(mapResultSetToEntity(rs, entityClass, metadata));
+          consumer.accept(rs);
         }
       }
     }
-    return results;
   }
 
-  private List<Object> findManyToMany(Class<?> entityClass, TableMetadata targetMetadata,
-      String joinTable,
-      String joinColumn, String inverseJoinColumn, Object entityId, Connection connection)
-      throws Exception {
-    List<Object> results = new ArrayList<>();
-
-    String sanitizedTargetTable = SqlSanitizer.sanitizeTableName(targetMetadata.tableName());
-    String sanitizedJoinTable = SqlSanitizer.sanitizeTableName(joinTable);
-    String sanitizedIdColumn = SqlSanitizer.sanitizeColumnName(getIdColumnName(targetMetadata));
-    String sanitizedInverseJoinColumn = SqlSanitizer.sanitizeColumnName(inverseJoinColumn);
-    String sanitizedJoinColumn = SqlSanitizer.sanitizeColumnName(joinColumn);
-
-    String sql = "SELECT t.* FROM " + sanitizedTargetTable + " t " +
-        "INNER JOIN " + sanitizedJoinTable + " j ON t." + sanitizedIdColumn + " = j."
-        + sanitizedInverseJoinColumn +
-        " WHERE j." + sanitizedJoinColumn + " = ?";
+  private Object materialize(ResultSet rs, Class<?> entityClass, TableMetadata metadata,
+      LoadContext context) throws Exception {
+    Object id = Ids.normalize(rs.getObject(getIdColumnName(metadata)));
+    if (id == null) {
+      return mapResultSetToEntity(rs, entityClass, metadata);
+    }
 
-    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-      stmt.setObject(1, entityId);
-      try (ResultSet rs = stmt.executeQuery()) {
-        while (rs.next()) {
-          results.add(mapResultSetToEntity(rs, entityClass, targetMetadata));
-        }
-      }
+    Object known = context.get(entityClass, id);
+    if (known != null) {
+      return known;
     }
-    return results;
+    Object instance = mapResultSetToEntity(rs, entityClass, metadata);
+    context.foreignKeys(entityClass, metadata).capture(rs, id);
+    return context.materialize(entityClass, id, instance);
   }
 
   private Object mapResultSetToEntity(ResultSet rs, Class<?> entityClass, TableMetadata metadata)
@@ -273,14 +784,7 @@ public class RelationLoader {
       try {
         Object value = rs.getObject(columnName);
         if (value != null) {
-          if (field.getType() == boolean.class || field.getType() == Boolean.class) {
-            if (value instanceof Integer) {
-              value = ((Integer) value) != 0;
-            } else if (value instanceof Long) {
-              value = ((Long) value) != 0L;
-            }
-          }
-          field.set(instance, value);
+          field.set(instance, convertValue(value, field.getType()));
         }
       } catch (SQLException ignored) {
       }
@@ -289,6 +793,45 @@ public class RelationLoader {
     return instance;
   }
 
+  private Object convertValue(Object value, Class<?> targetType) {
+    if (value instanceof Number number) {
+      if (targetType == Long.class || targetType == long.class) {
+        return number.longValue();
+      } else if (targetType == Integer.class || targetType == int.class) {
+        return number.intValue();
+      } else if (targetType == Double.class || targetType == double.class) {
+        return number.doubleValue();
+      } else if (targetType == Float.class || targetType == float.class) {
+        return number.floatValue();
+      } else if (targetType == Boolean.class || targetType == boolean.class) {
+        return number.longValue() != 0L;
+      }
+    }
+    return value;
+  }
+
+  @FunctionalInterface
+  private interface RowConsumer {
+
+    void accept(ResultSet rs) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface KeyedQuery {
+
+    void run(String sqlPrefix, String sqlSuffix, RowConsumer consumer) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface ConnectionWork<R> {
+
+    R apply(Connection connection) throws Exception;
+  }
+
+  private record SortColumn(String column, boolean descending) {
+
+  }
+
   @SuppressWarnings("unchecked")
   private <E> Constructor<E> getCachedConstructor(Class<E> clazz) {
     return (Constructor<E>) constructorCache.computeIfAbsent(clazz, cls -> {
@@ -309,6 +852,14 @@ public class RelationLoader {
     );
   }
 
+  private Class<?> entityClass(TableMetadata metadata) {
+    return metadata.idField().getDeclaringClass();
+  }
+
+  public TableMetadata getMetadata(Class<?> entityClass) {
+    return getOrCreateMetadata(entityClass);
+  }
+
   private TableMetadata getOrCreateMetadata(Class<?> entityClass) {
     return metadataCache.computeIfAbsent(entityClass, metadataExtractor);
   }
@@ -0,0 +1,13 @@
+package pl.minecodes.orm.relation;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public record Subselect(String ownerIdSql, ParameterBinder binder) {
+
+  @FunctionalInterface
+  public interface ParameterBinder {
+
+    void bind(PreparedStatement statement) throws SQLException;
+  }
+}
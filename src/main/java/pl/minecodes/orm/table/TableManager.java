@@ -16,21 +16,32 @@ import java.util.Map;
 import java.util.Set;
 import pl.minecodes.orm.DatabaseType;
 import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmCounter;
 import pl.minecodes.orm.annotation.OrmEntity;
 import pl.minecodes.orm.annotation.OrmEntityId;
 import pl.minecodes.orm.annotation.OrmField;
 import pl.minecodes.orm.annotation.OrmIndex;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.annotation.OrmOneToOne;
 import pl.minecodes.orm.exception.ObjectRequiredAnnotationsException;
 import pl.minecodes.orm.util.SqlSanitizer;
 
 public class TableManager {
 
   private final FlexOrm orm;
+  private boolean foreignKeys;
 
   public TableManager(FlexOrm orm) {
     this.orm = orm;
   }
 
+  public TableManager foreignKeys(boolean foreignKeys) {
+    this.foreignKeys = foreignKeys;
+    return this;
+  }
+
   public <T> void createTable(Class<T> entityClass) {
     if (!entityClass.isAnnotationPresent(OrmEntity.class)) {
       throw new ObjectRequiredAnnotationsException(
@@ -45,10 +56,12 @@ public class TableManager {
       case MYSQL -> {
         createMySQLTable(entityClass, tableName);
         createIndexes(entityClass, tableName);
+        createRelationStructures(entityClass, tableName);
       }
       case SQLLITE -> {
         createSQLiteTable(entityClass, tableName);
         createIndexes(entityClass, tableName);
+        createRelationStructures(entityClass, tableName);
       }
       case MONGODB -> createMongoCollection(tableName);
     }
@@ -65,8 +78,14 @@ public class TableManager {
         ormEntity.table().isEmpty() ? entityClass.getSimpleName().toLowerCase() : ormEntity.table();
 
     switch (orm.getDatabaseType()) {
-      case MYSQL -> updateMySQLTable(entityClass, tableName);
-      case SQLLITE -> updateSQLiteTable(entityClass, tableName);
+      case MYSQL -> {
+        updateMySQLTable(entityClass, tableName);
+        createRelationStructures(entityClass, tableName);
+      }
+      case SQLLITE -> {
+        updateSQLiteTable(entityClass, tableName);
+        createRelationStructures(entityClass, tableName);
+      }
       case MONGODB -> {
       }
     }
@@ -128,6 +147,7 @@ public class TableManager {
       sql.append("CREATE TABLE IF NOT EXISTS ").append(sanitizedTableName).append(" (\n");
 
       List<String> columns = new ArrayList<>();
+      List<String> constraints = new ArrayList<>();
       Field idField = null;
 
       for (Field field : entityClass.getDeclaredFields()) {
@@ -135,6 +155,17 @@ public class TableManager {
           continue;
         }
 
+        if (isRelationField(field)) {
+          ForeignKey foreignKey = getForeignKey(entityClass, tableName, field, DatabaseType.MYSQL);
+          if (foreignKey != null) {
+            columns.add(foreignKey.columnDefinition());
+            if (foreignKeys) {
+              constraints.add(foreignKey.constraint());
+            }
+          }
+          continue;
+        }
+
         String columnDefinition = createColumnDefinition(field, DatabaseType.MYSQL);
         if (columnDefinition != null) {
           columns.add(columnDefinition);
@@ -150,6 +181,7 @@ public class TableManager {
             + " does not have a field annotated with @OrmEntityId");
       }
 
+      columns.addAll(constraints);
       sql.append(String.join(",\n", columns));
       sql.append("\n)");
 
@@ -219,6 +251,7 @@ public class TableManager {
       sql.append("CREATE TABLE IF NOT EXISTS ").append(sanitizedTableName).append(" (\n");
 
       List<String> columns = new ArrayList<>();
+      List<String> constraints = new ArrayList<>();
       Field idField = null;
 
       for (Field field : entityClass.getDeclaredFields()) {
@@ -226,6 +259,17 @@ public class TableManager {
           continue;
         }
 
+        if (isRelationField(field)) {
+          ForeignKey foreignKey = getForeignKey(entityClass, tableName, field, DatabaseType.SQLLITE);
+          if (foreignKey != null) {
+            columns.add(foreignKey.columnDefinition());
+            if (foreignKeys) {
+              constraints.add(foreignKey.constraint());
+            }
+          }
+          continue;
+        }
+
         String columnDefinition = createColumnDefinition(field, DatabaseType.SQLLITE);
         if (columnDefinition != null) {
           columns.add(columnDefinition);
@@ -241,6 +285,7 @@ public class TableManager {
             + " does not have a field annotated with @OrmEntityId");
       }
 
+      columns.addAll(constraints);
       sql.append(String.join(",\n", columns));
       sql.append("\n)");
 
@@ -398,6 +443,189 @@ public class TableManager {
     }
   }
 
+  private void createRelationStructures(Class<?> entityClass, String tableName) {
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+    DatabaseType databaseType = orm.getDatabaseType();
+
+    try (Connection connection = dataSource.getConnection()) {
+      for (Field field : entityClass.getDeclaredFields()) {
+        ForeignKey foreignKey = getForeignKey(entityClass, tableName, field, databaseType);
+        if (foreignKey != null) {
+          createIndexIfMissing(connection, tableName, foreignKey.column());
+        } else if (field.isAnnotationPresent(OrmManyToMany.class)) {
+          createJoinTable(connection, entityClass, tableName, field, databaseType);
+        } else if (field.isAnnotationPresent(OrmOneToMany.class)) {
+          createChildForeignKey(connection, entityClass, tableName, field, databaseType);
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error creating relation structures: " + e.getMessage(), e);
+    }
+  }
+
+  private void createJoinTable(Connection connection, Class<?> entityClass, String tableName,
+      Field field, DatabaseType databaseType) throws SQLException {
+    OrmManyToMany relation = field.getAnnotation(OrmManyToMany.class);
+    Class<?> targetClass = relation.targetEntity();
+    String targetTable = getTableName(targetClass);
+    String joinTable = relation.joinTable().isEmpty()
+        ? tableName + "_" + targetTable
+        : relation.joinTable();
+    String joinColumn = SqlSanitizer.sanitizeColumnName(relation.joinColumn().isEmpty()
+        ? tableName + "_id"
+        : relation.joinColumn());
+    String inverseJoinColumn = relation.inverseJoinColumn().isEmpty()
+        ? targetTable + "_id"
+        : relation.inverseJoinColumn();
+    String sanitizedInverseColumn = SqlSanitizer.sanitizeColumnName(inverseJoinColumn);
+
+    String sql = "CREATE TABLE IF NOT EXISTS " + SqlSanitizer.sanitizeTableName(joinTable) + " (\n"
+        + joinColumn + " " + mapJavaTypeToSQLType(getIdField(entityClass).getType(), databaseType)
+        + " NOT NULL,\n"
+        + sanitizedInverseColumn + " "
+        + mapJavaTypeToSQLType(getIdField(targetClass).getType(), databaseType) + " NOT NULL,\n"
+        + "PRIMARY KEY (" + joinColumn + ", " + sanitizedInverseColumn + ")\n)";
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+    createIndexIfMissing(connection, joinTable, inverseJoinColumn);
+  }
+
+  private void createChildForeignKey(Connection connection, Class<?> entityClass,
+      String tableName, Field field, DatabaseType databaseType) throws SQLException {
+    OrmOneToMany relation = field.getAnnotation(OrmOneToMany.class);
+    if (!relation.mappedBy().isEmpty()) {
+      return;
+    }
+    String childTable = getTableName(relation.targetEntity());
+    String column = tableName + "_id";
+
+    Map<String, String> childColumns = getExistingColumns(connection, childTable);
+    if (childColumns.isEmpty()) {
+      throw new IllegalStateException("Table " + childTable + " must be created before "
+          + tableName + ", which references it through " + field.getName());
+    }
+
+    if (!childColumns.containsKey(column)) {
+      String sql = "ALTER TABLE " + SqlSanitizer.sanitizeTableName(childTable) + " ADD COLUMN "
+          + SqlSanitizer.sanitizeColumnName(column) + " "
+          + mapJavaTypeToSQLType(getIdField(entityClass).getType(), databaseType) + " NULL";
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(sql);
+      }
+    }
+    createIndexIfMissing(connection, childTable, column);
+  }
+
+  private void createIndexIfMissing(Connection connection, String tableName, String column)
+      throws SQLException {
+    String indexName = "idx_" + tableName + "_" + column;
+    DatabaseMetaData metaData = connection.getMetaData();
+    try (ResultSet resultSet = metaData.getIndexInfo(null, null, tableName, false, false)) {
+      while (resultSet.next()) {
+        if (indexName.equalsIgnoreCase(resultSet.getString("INDEX_NAME"))
+            || resultSet.getShort("ORDINAL_POSITION") == 1
+            && column.equalsIgnoreCase(resultSet.getString("COLUMN_NAME"))) {
+          return;
+        }
+      }
+    }
+
+    String sql = "CREATE INDEX " + SqlSanitizer.sanitizeIdentifier(indexName) + " ON "
+        + SqlSanitizer.sanitizeTableName(tableName) + " ("
+        + SqlSanitizer.sanitizeColumnName(column) + ")";
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private boolean isRelationField(Field field) {
+    return field.isAnnotationPresent(OrmOneToOne.class)
+        || field.isAnnotationPresent(OrmOneToMany.class)
+        || field.isAnnotationPresent(OrmManyToOne.class)
+        || field.isAnnotationPresent(OrmManyToMany.class);
+  }
+
+  private ForeignKey getForeignKey(Class<?> entityClass, String tableName, Field field,
+      DatabaseType databaseType) {
+    Class<?> targetClass;
+    String column;
+    if (field.isAnnotationPresent(OrmManyToOne.class)) {
+      OrmManyToOne relation = field.getAnnotation(OrmManyToOne.class);
+      targetClass = relation.targetEntity();
+      column = relation.joinColumn().isEmpty() ? field.getName() + "_id" : relation.joinColumn();
+    } else if (field.isAnnotationPresent(OrmOneToOne.class)
+        && !field.getAnnotation(OrmOneToOne.class).joinColumn().isEmpty()) {
+      OrmOneToOne relation = field.getAnnotation(OrmOneToOne.class);
+      targetClass = relation.targetEntity();
+      column = relation.joinColumn();
+    } else {
+      return null;
+    }
+
+    Field targetIdField = getIdField(targetClass);
+    String targetTable = getTableName(targetClass);
+    String sanitizedColumn = SqlSanitizer.sanitizeColumnName(column);
+    String constraint = "FOREIGN KEY (" + sanitizedColumn + ") REFERENCES "
+        + SqlSanitizer.sanitizeTableName(targetTable) + " ("
+        + SqlSanitizer.sanitizeColumnName(getColumnName(targetIdField)) + ")";
+    if (isCascadedFrom(targetClass, targetTable, entityClass, column)) {
+      constraint += " ON DELETE CASCADE";
+    }
+
+    String columnDefinition = sanitizedColumn + " "
+        + mapJavaTypeToSQLType(targetIdField.getType(), databaseType) + " NULL";
+    return new ForeignKey(targetClass, column, columnDefinition, constraint);
+  }
+
+  private boolean isCascadedFrom(Class<?> parentClass, String parentTable, Class<?> childClass,
+      String column) {
+    for (Field field : parentClass.getDeclaredFields()) {
+      if (field.isAnnotationPresent(OrmOneToMany.class)) {
+        OrmOneToMany relation = field.getAnnotation(OrmOneToMany.class);
+        String fkColumn = relation.mappedBy().isEmpty()
+            ? parentTable + "_id"
+            : relation.mappedBy() + "_id";
+        if (relation.cascade() && relation.targetEntity() == childClass
+            && fkColumn.equals(column)) {
+          return true;
+        }
+      } else if (field.isAnnotationPresent(OrmOneToOne.class)) {
+        OrmOneToOne relation = field.getAnnotation(OrmOneToOne.class);
+        if (relation.cascade() && relation.targetEntity() == childClass
+            && !relation.mappedBy().isEmpty() && (relation.mappedBy() + "_id").equals(column)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private Field getIdField(Class<?> entityClass) {
+    for (Field field : entityClass.getDeclaredFields()) {
+      if (field.isAnnotationPresent(OrmEntityId.class)) {
+        return field;
+      }
+    }
+    throw new ObjectRequiredAnnotationsException("Class " + entityClass.getName()
+        + " does not have a field annotated with @OrmEntityId");
+  }
+
+  private String getTableName(Class<?> entityClass) {
+    OrmEntity ormEntity = entityClass.getAnnotation(OrmEntity.class);
+    if (ormEntity == null) {
+      throw new ObjectRequiredAnnotationsException(
+          "Class " + entityClass.getName() + " is not annotated with @OrmEntity");
+    }
+    return ormEntity.table().isEmpty() ? entityClass.getSimpleName().toLowerCase()
+        : ormEntity.table();
+  }
+
+  private record ForeignKey(Class<?> targetClass, String column, String columnDefinition,
+      String constraint) {
+
+  }
+
   private String createColumnDefinition(Field field, DatabaseType databaseType) {
     if (shouldSkipField(field)) {
       return null;
@@ -502,7 +730,7 @@ public class TableManager {
   }
 
   private boolean shouldSkipField(Field field) {
-    return false;
+    return field.isAnnotationPresent(OrmCounter.class);
   }
 
   private Map<String, String> getExistingColumns(Connection connection, String tableName)
@@ -530,6 +758,17 @@ public class TableManager {
         continue;
       }
 
+      if (isRelationField(field)) {
+        ForeignKey foreignKey = getForeignKey(entityClass, getTableName(entityClass), field,
+            databaseType);
+        if (foreignKey != null) {
+          String sqlType = mapJavaTypeToSQLType(getIdField(foreignKey.targetClass()).getType(),
+              databaseType);
+          columns.put(foreignKey.column(), new ColumnInfo(sqlType, sqlType, field));
+        }
+        continue;
+      }
+
       String columnName = getColumnName(field);
       String sqlType = mapJavaTypeToSQLType(field.getType(), databaseType);
       boolean isPrimaryKey = field.isAnnotationPresent(OrmEntityId.class);
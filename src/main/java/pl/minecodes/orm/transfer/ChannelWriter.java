@@ -0,0 +1,97 @@
+package pl.minecodes.orm.transfer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+class ChannelWriter extends Writer {
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+  private final OutputStream gzip;
+  private boolean closed;
+
+  ChannelWriter(FileChannel channel, int bufferSize, boolean compress) throws IOException {
+    this.channel = channel;
+    this.buffer = compress ? ByteBuffer.allocate(bufferSize) : ByteBuffer.allocateDirect(bufferSize);
+    this.gzip = compress ? new GZIPOutputStream(Channels.newOutputStream(channel), bufferSize) : null;
+  }
+
+  @Override
+  public void write(char[] chars, int offset, int length) throws IOException {
+    encode(CharBuffer.wrap(chars, offset, length), false);
+  }
+
+  @Override
+  public void write(String text) throws IOException {
+    encode(CharBuffer.wrap(text), false);
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    encode(CharBuffer.wrap(new char[] {(char) c}), false);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    drain();
+    if (gzip != null) {
+      gzip.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      encode(CharBuffer.allocate(0), true);
+      while (encoder.flush(buffer).isOverflow()) {
+        drain();
+      }
+      drain();
+      if (gzip != null) {
+        gzip.close();
+      }
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void encode(CharBuffer chars, boolean endOfInput) throws IOException {
+    while (true) {
+      CoderResult result = encoder.encode(chars, buffer, endOfInput);
+      if (result.isOverflow()) {
+        drain();
+      } else if (result.isError()) {
+        result.throwException();
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    if (gzip != null) {
+      gzip.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    } else {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,199 @@
+package pl.minecodes.orm.transfer;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import pl.minecodes.orm.table.TableMetadata;
+
+class ColumnPlan {
+
+  private final TableMetadata metadata;
+  private final List<String> columns;
+  private final List<Class<?>> types;
+
+  private ColumnPlan(TableMetadata metadata, List<String> columns, List<Class<?>> types) {
+    this.metadata = metadata;
+    this.columns = columns;
+    this.types = types;
+  }
+
+  static ColumnPlan of(TableMetadata metadata) {
+    List<String> columns = new ArrayList<>();
+    List<Class<?>> types = new ArrayList<>();
+
+    String idColumn = getIdColumn(metadata);
+    columns.add(idColumn);
+    types.add(metadata.idField().getType());
+
+    for (Field field : metadata.idField().getDeclaringClass().getDeclaredFields()) {
+      String column = metadata.fieldColumnNames().get(field.getName());
+      if (column == null || column.equals(idColumn)) {
+        continue;
+      }
+      columns.add(column);
+      types.add(metadata.columnFields().containsKey(column) ? field.getType() : null);
+    }
+
+    return new ColumnPlan(metadata, columns, types);
+  }
+
+  ColumnPlan select(List<String> names) {
+    List<String> selectedColumns = new ArrayList<>();
+    List<Class<?>> selectedTypes = new ArrayList<>();
+
+    for (String name : names) {
+      String column = resolve(name);
+      if (selectedColumns.contains(column)) {
+        throw new IllegalArgumentException("Duplicate column " + name);
+      }
+      selectedColumns.add(column);
+      selectedTypes.add(types.get(columns.indexOf(column)));
+    }
+
+    return new ColumnPlan(metadata, selectedColumns, selectedTypes);
+  }
+
+  ColumnPlan withColumn(String column) {
+    if (columns.contains(column)) {
+      return this;
+    }
+
+    ColumnPlan full = of(metadata);
+    List<String> extendedColumns = new ArrayList<>(columns);
+    List<Class<?>> extendedTypes = new ArrayList<>(types);
+    extendedColumns.add(column);
+    extendedTypes.add(full.types.get(full.columns.indexOf(column)));
+    return new ColumnPlan(metadata, extendedColumns, extendedTypes);
+  }
+
+  List<String> columns() {
+    return Collections.unmodifiableList(columns);
+  }
+
+  int size() {
+    return columns.size();
+  }
+
+  String idColumn() {
+    return getIdColumn(metadata);
+  }
+
+  String tableName() {
+    return metadata.tableName();
+  }
+
+  Object[] fromText(String[] values, long recordNumber) {
+    Object[] row = new Object[columns.size()];
+    for (int i = 0; i < columns.size(); i++) {
+      String text = i < values.length ? values[i] : null;
+      try {
+        row[i] = fromText(text, types.get(i));
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid value '" + text + "' for column "
+            + columns.get(i) + " in record " + recordNumber, e);
+      }
+    }
+    return row;
+  }
+
+  Object normalize(Object value, int index) {
+    Class<?> type = types.get(index);
+    if (value == null || type == null || type.isInstance(value)) {
+      return value;
+    }
+    if (value instanceof String text) {
+      return fromText(text, type);
+    }
+    if (value instanceof Number number) {
+      if (type == Long.class || type == long.class) {
+        return number.longValue();
+      } else if (type == Integer.class || type == int.class) {
+        return number.intValue();
+      } else if (type == Short.class || type == short.class) {
+        return number.shortValue();
+      } else if (type == Double.class || type == double.class) {
+        return number.doubleValue();
+      } else if (type == Float.class || type == float.class) {
+        return number.floatValue();
+      } else if (type == Boolean.class || type == boolean.class) {
+        return number.intValue() != 0;
+      } else if (type == BigDecimal.class) {
+        return new BigDecimal(number.toString());
+      } else if (type == BigInteger.class) {
+        return new BigDecimal(number.toString()).toBigInteger();
+      } else if (type == String.class) {
+        return number.toString();
+      }
+    }
+    return value;
+  }
+
+  private String resolve(String name) {
+    String trimmed = name.trim();
+    if (columns.contains(trimmed)) {
+      return trimmed;
+    }
+
+    String column = metadata.fieldColumnNames().get(trimmed);
+    if (column != null && columns.contains(column)) {
+      return column;
+    }
+
+    throw new IllegalArgumentException("Unknown column " + trimmed + " for table "
+        + metadata.tableName());
+  }
+
+  static Object fromText(String text, Class<?> type) {
+    if (text == null) {
+      return null;
+    }
+    if (type == String.class) {
+      return text;
+    }
+    if (text.isEmpty()) {
+      return null;
+    }
+
+    if (type == null) {
+      return isInteger(text) ? Long.parseLong(text) : text;
+    } else if (type == Long.class || type == long.class) {
+      return Long.parseLong(text);
+    } else if (type == Integer.class || type == int.class) {
+      return Integer.parseInt(text);
+    } else if (type == Short.class || type == short.class) {
+      return Short.parseShort(text);
+    } else if (type == Double.class || type == double.class) {
+      return Double.parseDouble(text);
+    } else if (type == Float.class || type == float.class) {
+      return Float.parseFloat(text);
+    } else if (type == Boolean.class || type == boolean.class) {
+      return "true".equalsIgnoreCase(text) || "1".equals(text);
+    } else if (type == BigDecimal.class) {
+      return new BigDecimal(text);
+    } else if (type == BigInteger.class) {
+      return new BigInteger(text);
+    }
+    return text;
+  }
+
+  private static boolean isInteger(String text) {
+    int start = text.charAt(0) == '-' ? 1 : 0;
+    if (start == text.length() || text.length() > 19) {
+      return false;
+    }
+    for (int i = start; i < text.length(); i++) {
+      if (!Character.isDigit(text.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getIdColumn(TableMetadata metadata) {
+    String fieldName = metadata.idField().getName();
+    return metadata.fieldColumnNames().getOrDefault(fieldName, fieldName);
+  }
+}
@@ -0,0 +1,23 @@
+package pl.minecodes.orm.transfer;
+
+import java.util.Locale;
+
+public enum DataFormat {
+  CSV,
+  JSONL;
+
+  public static DataFormat fromFileName(String fileName) {
+    String name = fileName.toLowerCase(Locale.ROOT);
+    if (name.endsWith(".gz")) {
+      name = name.substring(0, name.length() - 3);
+    }
+
+    if (name.endsWith(".csv")) {
+      return CSV;
+    }
+    if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+      return JSONL;
+    }
+    throw new IllegalArgumentException("Cannot detect data format of " + fileName);
+  }
+}
@@ -0,0 +1,333 @@
+package pl.minecodes.orm.transfer;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.id.IdFilterStats;
+import pl.minecodes.orm.query.Operator;
+import pl.minecodes.orm.query.Query;
+import pl.minecodes.orm.table.TableManager;
+import pl.minecodes.orm.table.TableMetadata;
+import pl.minecodes.orm.util.Upserts;
+
+public class DataTransfer {
+
+  private static final List<Object[]> END = Collections.emptyList();
+  private static final long POLL_MILLIS = 100;
+
+  private final FlexOrm source;
+  private final FlexOrm target;
+  private int chunkSize = 1_000;
+  private int queueCapacity = 4;
+  private Path checkpointFile;
+  private Consumer<TransferStats> progressListener;
+
+  public DataTransfer(FlexOrm source, FlexOrm target) {
+    this.source = source;
+    this.target = target;
+  }
+
+  public DataTransfer chunkSize(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  public DataTransfer queueCapacity(int queueCapacity) {
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    this.queueCapacity = queueCapacity;
+    return this;
+  }
+
+  public DataTransfer checkpointFile(Path checkpointFile) {
+    this.checkpointFile = checkpointFile;
+    return this;
+  }
+
+  public DataTransfer onProgress(Consumer<TransferStats> progressListener) {
+    this.progressListener = progressListener;
+    return this;
+  }
+
+  public <T> TransferStats transfer(Class<T> entityClass) {
+    EntityRepository<T, Object> sourceRepository = source.getEntityRepository(entityClass);
+    EntityRepository<T, Object> targetRepository = target.getEntityRepository(entityClass);
+    TableMetadata metadata = sourceRepository.getMetadata();
+    ColumnPlan plan = ColumnPlan.of(metadata);
+    String idField = metadata.idField().getName();
+    int idIndex = plan.columns().indexOf(plan.idColumn());
+
+    TableManager tableManager = new TableManager(target);
+    if (!tableManager.tableExists(metadata.tableName())) {
+      tableManager.createTable(entityClass);
+    }
+
+    Properties checkpoints = loadCheckpoints();
+    String checkpointKey = metadata.tableName() + ".lastId";
+    String storedId = checkpoints.getProperty(checkpointKey);
+    Object startId = storedId == null ? null
+        : ColumnPlan.fromText(storedId, metadata.idField().getType());
+
+    BlockingQueue<List<Object[]>> chunks = new ArrayBlockingQueue<>(queueCapacity);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    AtomicLong readNanos = new AtomicLong();
+    long start = System.nanoTime();
+
+    Thread reader = new Thread(() -> {
+      try {
+        Object lastId = startId;
+        while (failure.get() == null) {
+          long readStart = System.nanoTime();
+          Query<T> query = sourceRepository.query().orderBy(idField).limit(chunkSize);
+          if (lastId != null) {
+            query.where(idField, Operator.GREATER_THAN, lastId);
+          }
+
+          List<Object[]> chunk = new ArrayList<>(chunkSize);
+          query.scan(plan.columns(), chunkSize, row -> {
+            for (int i = 0; i < row.length; i++) {
+              row[i] = plan.normalize(row[i], i);
+            }
+            chunk.add(row);
+          });
+          readNanos.addAndGet(System.nanoTime() - readStart);
+
+          if (chunk.isEmpty()) {
+            break;
+          }
+          put(chunks, chunk, failure);
+          if (chunk.size() < chunkSize) {
+            break;
+          }
+          lastId = chunk.get(chunk.size() - 1)[idIndex];
+        }
+        put(chunks, END, failure);
+      } catch (RuntimeException e) {
+        failure.compareAndSet(null, e);
+      }
+    }, "flexorm-transfer-reader");
+    reader.setDaemon(true);
+    reader.start();
+
+    long rows = 0;
+    long chunkCount = 0;
+    long writeNanos = 0;
+    Object lastId = startId;
+    try {
+      while (true) {
+        List<Object[]> chunk = chunks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (chunk == null) {
+          if (failure.get() != null) {
+            break;
+          }
+          continue;
+        }
+        if (chunk == END) {
+          break;
+        }
+
+        long writeStart = System.nanoTime();
+        writeChunk(plan, chunk, idIndex);
+        writeNanos += System.nanoTime() - writeStart;
+
+        rows += chunk.size();
+        chunkCount++;
+        lastId = chunk.get(chunk.size() - 1)[idIndex];
+        if (checkpointFile != null) {
+          checkpoints.setProperty(checkpointKey, String.valueOf(lastId));
+          saveCheckpoints(checkpoints);
+        }
+
+        if (progressListener != null) {
+          progressListener.accept(new TransferStats(rows, chunkCount, startId != null, lastId,
+              readNanos.get(), writeNanos, System.nanoTime() - start));
+        }
+      }
+      reader.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, e);
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, e);
+    } finally {
+      reader.interrupt();
+      awaitReader(reader);
+    }
+
+    Throwable error = failure.get();
+    if (error != null) {
+      throw new RuntimeException("Error transferring " + metadata.tableName()
+          + " after " + rows + " rows", error);
+    }
+
+    if (target.getIdFilter(entityClass) != null && rows > 0) {
+      IdFilterStats stats = target.getIdFilter(entityClass).getStats();
+      targetRepository.enableIdFilter(Math.max(stats.expectedIds(), stats.ids() + rows),
+          stats.targetFalsePositiveRate());
+    }
+
+    return new TransferStats(rows, chunkCount, startId != null, lastId, readNanos.get(),
+        writeNanos, System.nanoTime() - start);
+  }
+
+  private void writeChunk(ColumnPlan plan, List<Object[]> chunk, int idIndex) {
+    switch (target.getDatabaseType()) {
+      case MYSQL, SQLLITE -> writeRelational(plan, chunk);
+      case MONGODB -> writeMongo(plan, chunk, idIndex);
+    }
+  }
+
+  private void writeRelational(ColumnPlan plan, List<Object[]> chunk) {
+    String sql = "INSERT INTO " + plan.tableName() + " (" + String.join(", ", plan.columns())
+        + ") VALUES (" + "?, ".repeat(plan.size() - 1) + "?)"
+        + Upserts.clause(target.getDatabaseType(), plan.idColumn(), plan.columns());
+
+    HikariDataSource dataSource = (HikariDataSource) target.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        for (Object[] row : chunk) {
+          for (int i = 0; i < row.length; i++) {
+            statement.setObject(i + 1, toRelational(row[i]));
+          }
+          statement.addBatch();
+        }
+        statement.executeBatch();
+        connection.commit();
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error writing chunk to " + plan.tableName(), e);
+    }
+  }
+
+  private void writeMongo(ColumnPlan plan, List<Object[]> chunk, int idIndex) {
+    MongoDatabase database = (MongoDatabase) target.getConnection().getConnection();
+    MongoCollection<Document> collection = database.getCollection(plan.tableName());
+    List<String> columns = plan.columns();
+    ReplaceOptions upsert = new ReplaceOptions().upsert(true);
+
+    List<WriteModel<Document>> writes = new ArrayList<>(chunk.size());
+    for (Object[] row : chunk) {
+      Document document = new Document();
+      for (int i = 0; i < row.length; i++) {
+        Object value = toMongo(row[i]);
+        if (value != null) {
+          document.append(columns.get(i), value);
+        }
+      }
+      writes.add(new ReplaceOneModel<>(Filters.eq(plan.idColumn(), document.get(plan.idColumn())),
+          document, upsert));
+    }
+    collection.bulkWrite(writes);
+  }
+
+  private Object toRelational(Object value) {
+    if (value instanceof ObjectId objectId) {
+      return objectId.toHexString();
+    } else if (value instanceof Decimal128 decimal) {
+      return decimal.bigDecimalValue();
+    } else if (value instanceof BigInteger bigInteger) {
+      return new BigDecimal(bigInteger);
+    }
+    return value;
+  }
+
+  private Object toMongo(Object value) {
+    if (value instanceof BigDecimal decimal) {
+      return new Decimal128(decimal);
+    } else if (value instanceof BigInteger bigInteger) {
+      return new Decimal128(new BigDecimal(bigInteger));
+    } else if (value instanceof Short shortValue) {
+      return shortValue.intValue();
+    } else if (value instanceof Float floatValue) {
+      return floatValue.doubleValue();
+    }
+    return value;
+  }
+
+  private Properties loadCheckpoints() {
+    Properties checkpoints = new Properties();
+    if (checkpointFile != null && Files.exists(checkpointFile)) {
+      try (Reader reader = Files.newBufferedReader(checkpointFile)) {
+        checkpoints.load(reader);
+      } catch (IOException e) {
+        throw new RuntimeException("Error reading checkpoint file " + checkpointFile, e);
+      }
+    }
+    return checkpoints;
+  }
+
+  private void saveCheckpoints(Properties checkpoints) {
+    Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+    try {
+      try (Writer writer = Files.newBufferedWriter(temporary)) {
+        checkpoints.store(writer, null);
+      }
+      Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new RuntimeException("Error writing checkpoint file " + checkpointFile, e);
+    }
+  }
+
+  private void awaitReader(Thread reader) {
+    try {
+      reader.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void put(BlockingQueue<List<Object[]>> queue, List<Object[]> chunk,
+      AtomicReference<Throwable> failure) {
+    try {
+      while (!queue.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+        if (failure.get() != null) {
+          throw new IllegalStateException("Transfer aborted");
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Transfer interrupted", e);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package pl.minecodes.orm.transfer;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.query.Query;
+
+public class EntityExporter<T> {
+
+  private final FlexOrm orm;
+  private final Class<T> entityClass;
+  private Query<T> query;
+  private DataFormat format;
+  private Boolean compress;
+  private int fetchSize = 1_000;
+  private int bufferSize = 1024 * 1024;
+  private char delimiter = ',';
+
+  public EntityExporter(FlexOrm orm, Class<T> entityClass) {
+    this.orm = orm;
+    this.entityClass = entityClass;
+  }
+
+  public EntityExporter<T> query(Query<T> query) {
+    this.query = query;
+    return this;
+  }
+
+  public EntityExporter<T> format(DataFormat format) {
+    this.format = format;
+    return this;
+  }
+
+  public EntityExporter<T> gzip(boolean compress) {
+    this.compress = compress;
+    return this;
+  }
+
+  public EntityExporter<T> fetchSize(int fetchSize) {
+    if (fetchSize <= 0) {
+      throw new IllegalArgumentException("Fetch size must be positive");
+    }
+    this.fetchSize = fetchSize;
+    return this;
+  }
+
+  public EntityExporter<T> bufferSize(int bufferSize) {
+    if (bufferSize < 1024) {
+      throw new IllegalArgumentException("Buffer size must be at least 1024 bytes");
+    }
+    this.bufferSize = bufferSize;
+    return this;
+  }
+
+  public EntityExporter<T> delimiter(char delimiter) {
+    this.delimiter = delimiter;
+    return this;
+  }
+
+  public ExportResult exportTo(Path path) {
+    String fileName = path.getFileName().toString();
+    DataFormat dataFormat = format != null ? format : DataFormat.fromFileName(fileName);
+    boolean gzip = compress != null ? compress
+        : fileName.toLowerCase(Locale.ROOT).endsWith(".gz");
+
+    EntityRepository<T, Object> repository = orm.getEntityRepository(entityClass);
+    ColumnPlan plan = ColumnPlan.of(repository.getMetadata());
+    Query<T> source = query != null ? query : repository.query();
+
+    long start = System.nanoTime();
+    long rows;
+    try (ChannelWriter writer = new ChannelWriter(FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING), bufferSize, gzip)) {
+      if (dataFormat == DataFormat.CSV) {
+        writeCsvRow(writer, plan.columns().toArray());
+      }
+
+      rows = source.scan(plan.columns(), fetchSize, row -> {
+        try {
+          for (int i = 0; i < row.length; i++) {
+            row[i] = plan.normalize(row[i], i);
+          }
+          if (dataFormat == DataFormat.CSV) {
+            writeCsvRow(writer, row);
+          } else {
+            writeJsonRow(writer, plan.columns(), row);
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (IOException | UncheckedIOException e) {
+      throw new RuntimeException("Error writing export file " + path, e);
+    }
+
+    try {
+      return new ExportResult(rows, Files.size(path), System.nanoTime() - start);
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading export file size " + path, e);
+    }
+  }
+
+  private void writeCsvRow(Writer writer, Object[] row) throws IOException {
+    for (int i = 0; i < row.length; i++) {
+      if (i > 0) {
+        writer.write(delimiter);
+      }
+
+      Object value = row[i];
+      if (value == null) {
+        continue;
+      }
+
+      String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+      if (text.isEmpty() || needsQuoting(text)) {
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+      } else {
+        writer.write(text);
+      }
+    }
+    writer.write('\n');
+  }
+
+  private boolean needsQuoting(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeJsonRow(Writer writer, List<String> columns, Object[] row) throws IOException {
+    JsonWriter json = new JsonWriter(writer);
+    json.setSerializeNulls(false);
+    json.beginObject();
+    for (int i = 0; i < row.length; i++) {
+      Object value = row[i];
+      if (value == null) {
+        continue;
+      }
+
+      json.name(columns.get(i));
+      if (value instanceof Boolean bool) {
+        json.value(bool);
+      } else if (value instanceof Number number) {
+        json.value(number);
+      } else {
+        json.value(value.toString());
+      }
+    }
+    json.endObject();
+    writer.write('\n');
+  }
+}
@@ -0,0 +1,358 @@
+package pl.minecodes.orm.transfer;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import org.bson.Document;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.id.IdFilterStats;
+import pl.minecodes.orm.table.TableMetadata;
+
+public class EntityImporter<T> {
+
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final int SQLITE_MAX_VARIABLES = 999;
+
+  private final FlexOrm orm;
+  private final Class<T> entityClass;
+  private DataFormat format;
+  private int batchSize = 1_000;
+  private char delimiter = ',';
+
+  public EntityImporter(FlexOrm orm, Class<T> entityClass) {
+    this.orm = orm;
+    this.entityClass = entityClass;
+  }
+
+  public EntityImporter<T> format(DataFormat format) {
+    this.format = format;
+    return this;
+  }
+
+  public EntityImporter<T> batchSize(int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  public EntityImporter<T> delimiter(char delimiter) {
+    this.delimiter = delimiter;
+    return this;
+  }
+
+  public ImportResult importFrom(Path path) {
+    String fileName = path.getFileName().toString();
+    DataFormat dataFormat = format != null ? format : DataFormat.fromFileName(fileName);
+
+    try (InputStream input = Files.newInputStream(path)) {
+      InputStream source = fileName.toLowerCase().endsWith(".gz")
+          ? new GZIPInputStream(input, READ_BUFFER_SIZE) : input;
+      return importFrom(source, dataFormat);
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading import file " + path, e);
+    }
+  }
+
+  public ImportResult importFrom(InputStream input) {
+    try {
+      return importFrom(input, format != null ? format : DataFormat.CSV);
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading import stream", e);
+    }
+  }
+
+  private ImportResult importFrom(InputStream input, DataFormat dataFormat) throws IOException {
+    EntityRepository<T, Object> repository = orm.getEntityRepository(entityClass);
+    TableMetadata metadata = repository.getMetadata();
+
+    BufferedReader reader = new BufferedReader(
+        new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+    RecordReader records = RecordReader.open(dataFormat, reader, delimiter);
+    ColumnPlan plan = ColumnPlan.of(metadata).select(records.header());
+    if (plan.size() == 0) {
+      return new ImportResult(0, 0);
+    }
+    if (orm.getIdGenerators().hasGenerator(entityClass, metadata)) {
+      plan = plan.withColumn(plan.idColumn());
+    }
+    RowSource rows = new RowSource(records, plan, metadata);
+
+    long start = System.nanoTime();
+    long imported = switch (orm.getDatabaseType()) {
+      case MYSQL -> loadMySQL(rows, plan);
+      case SQLLITE -> loadSQLite(rows, plan);
+      case MONGODB -> loadMongo(rows, plan);
+    };
+    long elapsed = System.nanoTime() - start;
+
+    if (orm.getIdFilter(entityClass) != null) {
+      IdFilterStats stats = orm.getIdFilter(entityClass).getStats();
+      repository.enableIdFilter(Math.max(stats.expectedIds(), stats.ids() + imported),
+          stats.targetFalsePositiveRate());
+    }
+    return new ImportResult(imported, elapsed);
+  }
+
+  private long loadSQLite(RowSource rows, ColumnPlan plan) throws IOException {
+    int rowsPerStatement = Math.max(1, Math.min(batchSize, SQLITE_MAX_VARIABLES / plan.size()));
+    HikariDataSource dataSource = (HikariDataSource) orm.getConnection().getConnection();
+
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        List<String> indexes = dropIndexes(connection, plan.tableName());
+
+        long imported = 0;
+        List<Object[]> batch = new ArrayList<>(rowsPerStatement);
+        try (PreparedStatement statement = connection.prepareStatement(
+            insertSql(plan, rowsPerStatement))) {
+          Object[] row;
+          while ((row = rows.next()) != null) {
+            batch.add(row);
+            if (batch.size() == rowsPerStatement) {
+              bind(statement, batch);
+              statement.executeUpdate();
+              imported += batch.size();
+              batch.clear();
+            }
+          }
+        }
+
+        if (!batch.isEmpty()) {
+          try (PreparedStatement statement = connection.prepareStatement(
+              insertSql(plan, batch.size()))) {
+            bind(statement, batch);
+            statement.executeUpdate();
+            imported += batch.size();
+          }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+          for (String index : indexes) {
+            statement.execute(index);
+          }
+        }
+        connection.commit();
+        return imported;
+      } catch (SQLException | IOException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Error importing into " + plan.tableName(), e);
+    }
+  }
+
+  private List<String> dropIndexes(Connection connection, String tableName) throws SQLException {
+    List<String> names = new ArrayList<>();
+    List<String> definitions = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL")) {
+      statement.setString(1, tableName);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          names.add(resultSet.getString(1));
+          definitions.add(resultSet.getString(2));
+        }
+      }
+    }
+
+    try (Statement statement = connection.createStatement()) {
+      for (String name : names) {
+        statement.execute("DROP INDEX \"" + name.replace("\"", "\"\"") + "\"");
+      }
+    }
+    return definitions;
+  }
+
+  private String insertSql(ColumnPlan plan, int rowCount) {
+    String placeholders = "(" + "?, ".repeat(plan.size() - 1) + "?)";
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(plan.tableName())
+        .append(" (").append(String.join(", ", plan.columns())).append(") VALUES ");
+    for (int i = 0; i < rowCount; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(placeholders);
+    }
+    return sql.toString();
+  }
+
+  private void bind(PreparedStatement statement, List<Object[]> batch) throws SQLException {
+    int index = 1;
+    for (Object[] row : batch) {
+      for (Object value : row) {
+        statement.setObject(index++, value);
+      }
+    }
+  }
+
+  private long loadMySQL(RowSource rows, ColumnPlan plan) throws IOException {
+    String url = "jdbc:mysql://" + orm.getHostname() + ":" + orm.getPort() + "/"
+        + orm.getDatabase() + "?allowLoadLocalInfile=true";
+    String sql = "LOAD DATA LOCAL INFILE 'flexorm-import' INTO TABLE " + plan.tableName()
+        + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'"
+        + " LINES TERMINATED BY '\\n' (" + String.join(", ", plan.columns()) + ")";
+
+    AtomicLong staged = new AtomicLong();
+    AtomicReference<Exception> stagingFailure = new AtomicReference<>();
+    PipedInputStream pipe = new PipedInputStream(READ_BUFFER_SIZE);
+    PipedOutputStream output = new PipedOutputStream(pipe);
+
+    Thread stager = new Thread(() -> {
+      try (Writer writer = new BufferedWriter(
+          new OutputStreamWriter(output, StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+        Object[] row;
+        while ((row = rows.next()) != null) {
+          writeTsvRow(writer, row);
+          staged.incrementAndGet();
+        }
+      } catch (Exception e) {
+        stagingFailure.set(e);
+      }
+    }, "flexorm-import-stager");
+    stager.setDaemon(true);
+
+    try (Connection connection = DriverManager.getConnection(url, orm.getUsername(),
+        orm.getPassword());
+        Statement statement = connection.createStatement()) {
+      statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(pipe);
+      stager.start();
+      statement.execute(sql);
+      stager.join();
+    } catch (SQLException e) {
+      Exception failure = stagingFailure.get();
+      throw new RuntimeException("Error importing into " + plan.tableName(),
+          failure != null ? failure : e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Import interrupted", e);
+    } finally {
+      pipe.close();
+    }
+
+    Exception failure = stagingFailure.get();
+    if (failure != null) {
+      throw new RuntimeException("Error importing into " + plan.tableName(), failure);
+    }
+    return staged.get();
+  }
+
+  private void writeTsvRow(Writer writer, Object[] row) throws IOException {
+    for (int i = 0; i < row.length; i++) {
+      if (i > 0) {
+        writer.write('\t');
+      }
+
+      Object value = row[i];
+      if (value == null) {
+        writer.write("\\N");
+      } else if (value instanceof Boolean bool) {
+        writer.write(bool ? '1' : '0');
+      } else {
+        String text = value.toString();
+        for (int j = 0; j < text.length(); j++) {
+          char c = text.charAt(j);
+          switch (c) {
+            case '\\' -> writer.write("\\\\");
+            case '\t' -> writer.write("\\t");
+            case '\n' -> writer.write("\\n");
+            case '\r' -> writer.write("\\r");
+            default -> writer.write(c);
+          }
+        }
+      }
+    }
+    writer.write('\n');
+  }
+
+  private long loadMongo(RowSource rows, ColumnPlan plan) throws IOException {
+    MongoDatabase database = (MongoDatabase) orm.getConnection().getConnection();
+    MongoCollection<Document> collection = database.getCollection(plan.tableName());
+    List<String> columns = plan.columns();
+
+    long imported = 0;
+    List<Document> batch = new ArrayList<>(batchSize);
+    Object[] row;
+    while ((row = rows.next()) != null) {
+      Document document = new Document();
+      for (int i = 0; i < row.length; i++) {
+        if (row[i] != null) {
+          document.append(columns.get(i), row[i]);
+        }
+      }
+      batch.add(document);
+
+      if (batch.size() == batchSize) {
+        collection.insertMany(batch);
+        imported += batch.size();
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      collection.insertMany(batch);
+      imported += batch.size();
+    }
+    return imported;
+  }
+
+  private class RowSource {
+
+    private final RecordReader records;
+    private final ColumnPlan plan;
+    private final TableMetadata metadata;
+    private final int idIndex;
+    private final boolean generateIds;
+
+    private RowSource(RecordReader records, ColumnPlan plan, TableMetadata metadata) {
+      this.records = records;
+      this.plan = plan;
+      this.metadata = metadata;
+      this.idIndex = plan.columns().indexOf(plan.idColumn());
+      this.generateIds = orm.getIdGenerators().hasGenerator(entityClass, metadata);
+    }
+
+    private Object[] next() throws IOException {
+      Object[] row = records.nextValues(plan);
+      if (row != null && generateIds && isUnset(row[idIndex])) {
+        row[idIndex] = orm.getIdGenerators().nextId(entityClass, metadata);
+      }
+      return row;
+    }
+
+    private boolean isUnset(Object id) {
+      return id == null || (id instanceof Number number && number.longValue() == 0
+          && metadata.idField().getType().isPrimitive());
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package pl.minecodes.orm.transfer;
+
+public record ImportResult(long rows, long elapsedNanos) {
+
+  public double rowsPerSecond() {
+    return elapsedNanos == 0 ? 0.0 : rows * 1_000_000_000.0 / elapsedNanos;
+  }
+}
@@ -0,0 +1,211 @@
+package pl.minecodes.orm.transfer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+abstract class RecordReader {
+
+  protected final BufferedReader reader;
+  protected long recordNumber;
+
+  protected RecordReader(BufferedReader reader) {
+    this.reader = reader;
+  }
+
+  static RecordReader open(DataFormat format, BufferedReader reader, char delimiter)
+      throws IOException {
+    RecordReader recordReader = switch (format) {
+      case CSV -> new CsvRecordReader(reader, delimiter);
+      case JSONL -> new JsonLinesRecordReader(reader);
+    };
+    recordReader.readHeader();
+    return recordReader;
+  }
+
+  abstract List<String> header();
+
+  abstract String[] next() throws IOException;
+
+  Object[] nextValues(ColumnPlan plan) throws IOException {
+    String[] record = next();
+    return record == null ? null : plan.fromText(record, recordNumber);
+  }
+
+  long recordNumber() {
+    return recordNumber;
+  }
+
+  protected abstract void readHeader() throws IOException;
+
+  private static class CsvRecordReader extends RecordReader {
+
+    private final char delimiter;
+    private List<String> header;
+
+    private CsvRecordReader(BufferedReader reader, char delimiter) {
+      super(reader);
+      this.delimiter = delimiter;
+    }
+
+    @Override
+    protected void readHeader() throws IOException {
+      String[] names = readRecord();
+      if (names == null) {
+        throw new IllegalArgumentException("CSV input has no header row");
+      }
+      if (names.length > 0 && names[0] != null && names[0].startsWith("\uFEFF")) {
+        names[0] = names[0].substring(1);
+      }
+      header = List.of(names);
+    }
+
+    @Override
+    List<String> header() {
+      return header;
+    }
+
+    @Override
+    String[] next() throws IOException {
+      String[] record = readRecord();
+      if (record != null) {
+        recordNumber++;
+      }
+      return record;
+    }
+
+    private String[] readRecord() throws IOException {
+      List<String> fields = new ArrayList<>();
+      StringBuilder value = new StringBuilder();
+      boolean inQuotes = false;
+      boolean quoted = false;
+
+      while (true) {
+        int c = reader.read();
+        if (c == -1) {
+          if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated quoted field in record "
+                + (recordNumber + 1));
+          }
+          if (fields.isEmpty() && value.length() == 0 && !quoted) {
+            return null;
+          }
+          fields.add(finish(value, quoted));
+          return fields.toArray(String[]::new);
+        }
+
+        char ch = (char) c;
+        if (inQuotes) {
+          if (ch == '"') {
+            reader.mark(1);
+            if (reader.read() == '"') {
+              value.append('"');
+            } else {
+              reader.reset();
+              inQuotes = false;
+            }
+          } else {
+            value.append(ch);
+          }
+        } else if (ch == '"' && value.length() == 0 && !quoted) {
+          inQuotes = true;
+          quoted = true;
+        } else if (ch == delimiter) {
+          fields.add(finish(value, quoted));
+          value.setLength(0);
+          quoted = false;
+        } else if (ch == '\n') {
+          if (fields.isEmpty() && value.length() == 0 && !quoted) {
+            continue;
+          }
+          fields.add(finish(value, quoted));
+          return fields.toArray(String[]::new);
+        } else if (ch != '\r') {
+          value.append(ch);
+        }
+      }
+    }
+
+    private String finish(StringBuilder value, boolean quoted) {
+      if (!quoted && value.length() == 0) {
+        return null;
+      }
+      return value.toString();
+    }
+  }
+
+  private static class JsonLinesRecordReader extends RecordReader {
+
+    private List<String> header;
+    private JsonObject pending;
+
+    private JsonLinesRecordReader(BufferedReader reader) {
+      super(reader);
+    }
+
+    @Override
+    protected void readHeader() throws IOException {
+      pending = readObject();
+      header = pending == null ? List.of() : List.copyOf(pending.keySet());
+    }
+
+    @Override
+    List<String> header() {
+      return header;
+    }
+
+    @Override
+    String[] next() throws IOException {
+      JsonObject object = nextObject();
+      if (object == null) {
+        return null;
+      }
+
+      String[] record = new String[header.size()];
+      for (int i = 0; i < header.size(); i++) {
+        JsonElement element = object.get(header.get(i));
+        if (element != null && !element.isJsonNull()) {
+          record[i] = element.isJsonPrimitive() ? element.getAsString() : element.toString();
+        }
+      }
+      return record;
+    }
+
+    private JsonObject nextObject() throws IOException {
+      JsonObject object = pending != null ? pending : readObject();
+      pending = null;
+      if (object == null) {
+        return null;
+      }
+
+      recordNumber++;
+      for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+        if (!header.contains(entry.getKey())) {
+          throw new IllegalArgumentException("Unexpected key " + entry.getKey()
+              + " in record " + recordNumber);
+        }
+      }
+      return object;
+    }
+
+    private JsonObject readObject() throws IOException {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank()) {
+          continue;
+        }
+        try {
+          return JsonParser.parseString(line).getAsJsonObject();
+        } catch (RuntimeException e) {
+          throw new IllegalArgumentException("Invalid JSON in record " + (recordNumber + 1), e);
+        }
+      }
+      return null;
+    }
+  }
+}
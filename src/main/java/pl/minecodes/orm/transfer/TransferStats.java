@@ -0,0 +1,20 @@
+package pl.minecodes.orm.transfer;
+
+public record TransferStats(
+    long rows,
+    long chunks,
+    boolean resumed,
+    Object lastId,
+    long readNanos,
+    long writeNanos,
+    long elapsedNanos
+) {
+
+  public double rowsPerSecond() {
+    return elapsedNanos == 0 ? 0.0 : rows * 1_000_000_000.0 / elapsedNanos;
+  }
+
+  public double averageChunkWriteMillis() {
+    return chunks == 0 ? 0.0 : writeNanos / 1_000_000.0 / chunks;
+  }
+}
@@ -0,0 +1,14 @@
+package pl.minecodes.orm.util;
+
+public final class Ids {
+
+  private Ids() {
+  }
+
+  public static Object normalize(Object id) {
+    if (id instanceof Integer || id instanceof Long || id instanceof Short) {
+      return ((Number) id).longValue();
+    }
+    return id;
+  }
+}
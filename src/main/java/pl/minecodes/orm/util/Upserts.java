@@ -0,0 +1,30 @@
+package pl.minecodes.orm.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import pl.minecodes.orm.DatabaseType;
+
+public final class Upserts {
+
+  private Upserts() {
+  }
+
+  public static String clause(DatabaseType databaseType, String idColumn, List<String> columns) {
+    boolean mysql = databaseType == DatabaseType.MYSQL;
+    List<String> assignments = new ArrayList<>();
+    for (String column : columns) {
+      if (!column.equals(idColumn)) {
+        assignments.add(column + (mysql ? " = VALUES(" + column + ")" : " = excluded." + column));
+      }
+    }
+
+    if (mysql) {
+      return " ON DUPLICATE KEY UPDATE " + (assignments.isEmpty()
+          ? idColumn + " = " + idColumn
+          : String.join(", ", assignments));
+    }
+    return " ON CONFLICT(" + idColumn + ") DO " + (assignments.isEmpty()
+        ? "NOTHING"
+        : "UPDATE SET " + String.join(", ", assignments));
+  }
+}
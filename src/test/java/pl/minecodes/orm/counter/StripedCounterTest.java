@@ -0,0 +1,199 @@
+package pl.minecodes.orm.counter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmCounter;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.StripeSelection;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.table.TableManager;
+
+class StripedCounterTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<ServerStatsEntity, Long> repository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("striped-counter-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    new TableManager(flexOrm).createTable(ServerStatsEntity.class);
+    repository = flexOrm.getEntityRepository(ServerStatsEntity.class);
+  }
+
+  @Test
+  void testConcurrentIncrementsAreSummed() throws Exception {
+    ServerStatsEntity stats = new ServerStatsEntity("lobby");
+    repository.save(stats);
+    StripedCounter counter = repository.counter(stats.getId(), "visits");
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        futures.add(executor.submit(() -> counter.increment()));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(200, counter.get());
+    assertTrue(countStripeRows() > 1);
+  }
+
+  @Test
+  void testFindPopulatesCounterFields() {
+    ServerStatsEntity stats = new ServerStatsEntity("survival");
+    repository.save(stats);
+
+    repository.counter(stats.getId(), "visits").increment(10);
+    repository.counter(stats.getId(), "visits").decrement(3);
+    repository.counter(stats.getId(), "kills").increment(5);
+
+    ServerStatsEntity loaded = repository.findById(stats.getId()).orElseThrow();
+    assertEquals(7, loaded.getVisits());
+    assertEquals(5, loaded.getKills());
+
+    loaded.setName("survival-2");
+    repository.save(loaded);
+
+    assertEquals(7, repository.findAll().get(0).getVisits());
+  }
+
+  @Test
+  void testCompactionFoldsStripes() {
+    ServerStatsEntity stats = new ServerStatsEntity("creative");
+    repository.save(stats);
+    StripedCounter counter = repository.counter(stats.getId(), "visits");
+
+    for (int i = 0; i < 50; i++) {
+      counter.increment();
+    }
+
+    assertTrue(flexOrm.getCounters().compactAll() > 0);
+    assertEquals(1, countStripeRows());
+    assertEquals(50, counter.get());
+
+    counter.increment(2);
+    counter.compact();
+    assertEquals(52, counter.get());
+
+    counter.reset();
+    assertEquals(0, counter.get());
+  }
+
+  @Test
+  void testDeletingEntityRemovesCounters() {
+    ServerStatsEntity kept = new ServerStatsEntity("kept");
+    ServerStatsEntity removed = new ServerStatsEntity("removed");
+    repository.save(kept);
+    repository.save(removed);
+    repository.counter(kept.getId(), "visits").increment(3);
+    repository.counter(removed.getId(), "visits").increment(4);
+    repository.counter(removed.getId(), "kills").increment(1);
+
+    repository.delete(removed);
+
+    assertEquals(1, countStripeRows());
+    assertEquals(3, repository.counter(kept.getId(), "visits").get());
+  }
+
+  @Test
+  void testThreadSelectionUsesStableStripe() {
+    ServerStatsEntity stats = new ServerStatsEntity("pvp");
+    repository.save(stats);
+    StripedCounter counter = repository.counter(stats.getId(), "kills");
+
+    for (int i = 0; i < 20; i++) {
+      counter.increment();
+    }
+
+    assertEquals(20, counter.get());
+    assertEquals(1, countStripeRows());
+  }
+
+  @Test
+  void testUnknownCounterFieldIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> repository.counter(1L, "name"));
+  }
+
+  private int countStripeRows() {
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "SELECT COUNT(*) FROM _orm_counters")) {
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getInt(1);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @OrmEntity(table = "server_stats")
+  public static class ServerStatsEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmCounter(stripes = 8)
+    private long visits;
+
+    @OrmCounter(stripes = 4, selection = StripeSelection.THREAD)
+    private int kills;
+
+    public ServerStatsEntity() {
+    }
+
+    public ServerStatsEntity(String name) {
+      this.name = name;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public long getVisits() {
+      return visits;
+    }
+
+    public int getKills() {
+      return kills;
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package pl.minecodes.orm.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmNotNull;
+
+class BulkLoaderTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<EventEntity, Long> repository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("bulk-loader-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    repository = flexOrm.getEntityRepository(EventEntity.class);
+    repository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS events (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, payload INTEGER)");
+  }
+
+  @Test
+  void testLoadsAllConvertedRows() {
+    List<String> lines = IntStream.range(0, 5_000).mapToObj(i -> "event-" + i + ";" + i).toList();
+
+    BulkLoader<EventEntity> loader = new BulkLoader<>(flexOrm, EventEntity.class,
+        new BulkLoaderSettings(2, 4, 250, 1_000));
+    BulkLoadStats stats = loader.load(lines, line -> {
+      String[] parts = line.split(";");
+      return new EventEntity(parts[0], Integer.parseInt(parts[1]));
+    });
+
+    assertEquals(5_000, stats.produced());
+    assertEquals(5_000, stats.converted());
+    assertEquals(5_000, stats.written());
+    assertEquals(1, stats.writers());
+    assertTrue(stats.batches() >= 20);
+    assertTrue(stats.throughputPerSecond() > 0);
+    assertEquals(5_000L, countRows());
+  }
+
+  @Test
+  void testInvalidRowsAreRejected() {
+    List<EventEntity> events = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      events.add(new EventEntity(i % 10 == 0 ? null : "event-" + i, i));
+    }
+
+    AtomicInteger errors = new AtomicInteger();
+    BulkLoadStats stats = new BulkLoader<>(flexOrm, EventEntity.class)
+        .onError(e -> errors.incrementAndGet())
+        .load(events);
+
+    assertEquals(10, stats.rejected());
+    assertEquals(90, stats.written());
+    assertEquals(10, errors.get());
+    assertEquals(90L, countRows());
+  }
+
+  @Test
+  void testSmallQueuesApplyBackpressure() {
+    List<EventEntity> events = IntStream.range(0, 1_000)
+        .mapToObj(i -> new EventEntity("event-" + i, i))
+        .toList();
+
+    BulkLoadStats stats = new BulkLoader<>(flexOrm, EventEntity.class,
+        new BulkLoaderSettings(1, 1, 10, 10)).load(events);
+
+    assertEquals(1_000, stats.written());
+    assertTrue(stats.maxConversionQueueDepth() <= 10);
+    assertTrue(stats.maxWriteQueueDepth() <= 10);
+  }
+
+  @Test
+  void testWriteFailureAbortsLoad() {
+    repository.executeUpdate("DROP TABLE events");
+    List<EventEntity> events = IntStream.range(0, 1_000)
+        .mapToObj(i -> new EventEntity("event-" + i, i))
+        .toList();
+
+    BulkLoader<EventEntity> loader = new BulkLoader<>(flexOrm, EventEntity.class,
+        new BulkLoaderSettings(1, 1, 10, 10));
+
+    assertThrows(RuntimeException.class, () -> loader.load(events));
+  }
+
+  private long countRows() {
+    return repository.query().count();
+  }
+
+  @OrmEntity(table = "events")
+  public static class EventEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    @OrmNotNull
+    private String name;
+
+    @OrmField
+    private int payload;
+
+    public EventEntity() {
+    }
+
+    public EventEntity(String name, int payload) {
+      this.name = name;
+      this.payload = payload;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package pl.minecodes.orm.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.exception.TransactionException;
+
+class UnitOfWorkTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<AuthorEntity, Long> authorRepository;
+  private EntityRepository<BookEntity, Long> bookRepository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("unit-of-work-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    authorRepository = flexOrm.getEntityRepository(AuthorEntity.class);
+    bookRepository = flexOrm.getEntityRepository(BookEntity.class);
+
+    authorRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS authors (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT)");
+    bookRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS books (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT, author_id INTEGER)");
+  }
+
+  @Test
+  void testNothingIsWrittenBeforeCommit() {
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(new AuthorEntity("Pending"));
+
+    assertEquals(1, unitOfWork.pendingCount());
+    assertTrue(authorRepository.findAll().isEmpty());
+
+    unitOfWork.commit();
+
+    assertEquals(0, unitOfWork.pendingCount());
+    assertEquals(1, authorRepository.findAll().size());
+  }
+
+  @Test
+  void testInsertsAreOrderedByDependency() {
+    AuthorEntity author = new AuthorEntity("Author");
+    BookEntity first = new BookEntity("First", author);
+    BookEntity second = new BookEntity("Second", author);
+
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(first);
+    unitOfWork.save(second);
+    unitOfWork.save(author);
+    unitOfWork.commit();
+
+    assertNotNull(author.getId());
+    assertNotNull(first.getId());
+
+    assertEquals(author.getId(), findAuthorId(first.getId()));
+    assertEquals(author.getId(), findAuthorId(second.getId()));
+  }
+
+  @Test
+  void testCascadeRegistersChildren() {
+    AuthorEntity author = new AuthorEntity("Cascade");
+    author.getBooks().add(new BookEntity("One", author));
+    author.getBooks().add(new BookEntity("Two", author));
+
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(author);
+    assertEquals(3, unitOfWork.pendingCount());
+    unitOfWork.commit();
+
+    assertNotNull(author.getId());
+    for (BookEntity book : author.getBooks()) {
+      assertEquals(author.getId(), findAuthorId(book.getId()));
+    }
+  }
+
+  @Test
+  void testUpdatesAndDeletesAreFlushedTogether() {
+    AuthorEntity kept = new AuthorEntity("Kept");
+    AuthorEntity removed = new AuthorEntity("Removed");
+    authorRepository.save(kept);
+    authorRepository.save(removed);
+
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    kept.setName("Renamed");
+    unitOfWork.save(kept);
+    unitOfWork.delete(removed);
+    unitOfWork.commit();
+
+    List<AuthorEntity> authors = authorRepository.findAll();
+    assertEquals(1, authors.size());
+    assertEquals("Renamed", authors.get(0).getName());
+  }
+
+  @Test
+  void testRollbackDiscardsFlushedWrites() {
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(new AuthorEntity("Flushed"));
+    unitOfWork.flush();
+    assertTrue(unitOfWork.isActive());
+
+    unitOfWork.rollback();
+
+    assertFalse(unitOfWork.isActive());
+    assertTrue(authorRepository.findAll().isEmpty());
+  }
+
+  @Test
+  void testFailedCommitRollsBackEarlierWrites() {
+    bookRepository.executeUpdate("DROP TABLE books");
+    BookEntity missing = new BookEntity("Missing");
+    missing.setId(1L);
+
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(new AuthorEntity("Written first"));
+    unitOfWork.update(missing);
+
+    assertThrows(TransactionException.class, unitOfWork::commit);
+
+    assertFalse(unitOfWork.isActive());
+    assertEquals(0, unitOfWork.pendingCount());
+    assertTrue(authorRepository.findAll().isEmpty());
+  }
+
+  @Test
+  void testDeletingPendingInsertCancelsIt() {
+    AuthorEntity author = new AuthorEntity("Never");
+
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(author);
+    unitOfWork.delete(author);
+    unitOfWork.commit();
+
+    assertEquals(0, unitOfWork.pendingCount());
+    assertTrue(authorRepository.findAll().isEmpty());
+  }
+
+  private Long findAuthorId(Long bookId) {
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "SELECT author_id FROM books WHERE id = ?")) {
+      statement.setLong(1, bookId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? resultSet.getLong(1) : null;
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
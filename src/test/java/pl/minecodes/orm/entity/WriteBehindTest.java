@@ -0,0 +1,154 @@
+package pl.minecodes.orm.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+
+class WriteBehindTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<TestEntity, Long> repository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("write-behind-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    repository = flexOrm.getEntityRepository(TestEntity.class);
+    repository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS testentity (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, age INTEGER, active INTEGER)");
+  }
+
+  @Test
+  void testSaveAsyncRequiresWriteBehind() {
+    assertThrows(IllegalStateException.class,
+        () -> repository.saveAsync(new TestEntity("Player", 1, true)));
+  }
+
+  @Test
+  void testRepeatedSavesAreCoalesced() {
+    TestEntity player = new TestEntity("Player", 1, true);
+    repository.save(player);
+
+    repository.enableWriteBehind(new WriteBehindSettings(Duration.ofMinutes(1), 100, 1000));
+    for (int i = 2; i <= 10; i++) {
+      player.setAge(i);
+      repository.saveAsync(player);
+    }
+
+    assertEquals(1, repository.findById(player.getId()).orElseThrow().getAge());
+
+    repository.flushWriteBehind();
+
+    assertEquals(10, repository.findById(player.getId()).orElseThrow().getAge());
+
+    WriteBehindStats stats = repository.getWriteBehindStats();
+    assertEquals(9, stats.saveRequests());
+    assertEquals(8, stats.coalescedSaves());
+    assertEquals(1, stats.writtenEntities());
+    assertEquals(1, stats.flushes());
+    assertEquals(0, stats.pending());
+    assertTrue(stats.coalescingRatio() > 0.8);
+  }
+
+  @Test
+  void testNewEntitiesAreInsertedOnFlush() {
+    repository.enableWriteBehind(new WriteBehindSettings(Duration.ofMinutes(1), 100, 1000));
+    TestEntity first = new TestEntity("First", 1, true);
+    TestEntity second = new TestEntity("Second", 2, false);
+    repository.saveAsync(first);
+    repository.saveAsync(second);
+
+    repository.flushWriteBehind();
+
+    List<TestEntity> entities = repository.findAll();
+    assertEquals(2, entities.size());
+    assertEquals(2, repository.getWriteBehindStats().writtenEntities());
+  }
+
+  @Test
+  void testBackpressureFlushesWhenFull() {
+    repository.enableWriteBehind(new WriteBehindSettings(Duration.ofMinutes(1), 5, 5));
+
+    for (int i = 0; i < 50; i++) {
+      repository.saveAsync(new TestEntity("Entity " + i, i, true));
+    }
+    repository.flushWriteBehind();
+
+    assertEquals(50, repository.query().count());
+    assertTrue(repository.getWriteBehindStats().flushes() >= 10);
+  }
+
+  @Test
+  void testFailedFlushKeepsUnwrittenBatches() {
+    List<Integer> written = new CopyOnWriteArrayList<>();
+    AtomicBoolean failing = new AtomicBoolean(true);
+    WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("failing",
+        new WriteBehindSettings(Duration.ofMinutes(1), 2, 10), value -> value, batch -> {
+          if (failing.get()) {
+            throw new IllegalStateException("Write failed");
+          }
+          written.addAll(batch);
+        });
+    for (int i = 1; i <= 5; i++) {
+      buffer.save(i);
+    }
+
+    assertThrows(IllegalStateException.class, buffer::flush);
+    assertEquals(5, buffer.getStats().pending());
+
+    failing.set(false);
+    buffer.flush();
+    assertEquals(Set.of(1, 2, 3, 4, 5), Set.copyOf(written));
+    assertEquals(5, written.size());
+    buffer.close();
+  }
+
+  @Test
+  void testBackgroundFlushFailureIsExposed() throws InterruptedException {
+    IllegalStateException failure = new IllegalStateException("Write failed");
+    WriteBehindBuffer<Integer> buffer = new WriteBehindBuffer<>("background",
+        new WriteBehindSettings(Duration.ofMinutes(1), 2, 10), value -> value, batch -> {
+          throw failure;
+        });
+    assertNull(buffer.getStats().lastFailure());
+
+    buffer.save(1);
+    buffer.save(2);
+    for (int i = 0; i < 100 && buffer.getStats().lastFailure() == null; i++) {
+      Thread.sleep(10);
+    }
+
+    assertSame(failure, buffer.getStats().lastFailure());
+    assertEquals(2, buffer.getStats().pending());
+  }
+
+  @Test
+  void testShutdownFlushesPendingWrites() {
+    repository.enableWriteBehind(new WriteBehindSettings(Duration.ofMinutes(1), 100, 1000));
+    repository.saveAsync(new TestEntity("Pending", 42, true));
+
+    flexOrm.shutdown();
+    flexOrm.connect();
+
+    EntityRepository<TestEntity, Long> reopened = flexOrm.getEntityRepository(TestEntity.class);
+    assertEquals(1, reopened.findAll().size());
+  }
+}
@@ -0,0 +1,170 @@
+package pl.minecodes.orm.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.entity.UnitOfWork;
+
+class IdFilterTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<AccountEntity, Long> repository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("id-filter-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    repository = flexOrm.getEntityRepository(AccountEntity.class);
+    repository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS accounts (id INTEGER PRIMARY KEY, owner TEXT)");
+  }
+
+  @Test
+  void testFilterHasNoFalseNegatives() {
+    IdFilter filter = new IdFilter(10_000, 0.01);
+    for (long id = 0; id < 10_000; id++) {
+      filter.add(id);
+    }
+
+    for (long id = 0; id < 10_000; id++) {
+      assertTrue(filter.mightContain(id));
+    }
+  }
+
+  @Test
+  void testFalsePositiveRateStaysNearTarget() {
+    IdFilter filter = new IdFilter(10_000, 0.01);
+    for (long id = 0; id < 10_000; id++) {
+      filter.add(id);
+    }
+
+    int falsePositives = 0;
+    for (long id = 1_000_000; id < 1_100_000; id++) {
+      if (filter.mightContain(id)) {
+        falsePositives++;
+      }
+    }
+
+    assertTrue(falsePositives < 3_000);
+  }
+
+  @Test
+  void testRemovedIdsAreForgotten() {
+    IdFilter filter = new IdFilter(100, 0.01);
+    filter.add("alpha");
+    filter.add("beta");
+
+    filter.remove("alpha");
+
+    assertFalse(filter.mightContain("alpha"));
+    assertTrue(filter.mightContain("beta"));
+  }
+
+  @Test
+  void testSaveSkipsSelectForUnknownIds() {
+    repository.executeUpdate("INSERT INTO accounts (id, owner) VALUES (1, 'seeded')");
+    repository.enableIdFilter(1_000, 0.01);
+
+    repository.save(new AccountEntity(2L, "new"));
+    repository.save(new AccountEntity(3L, "new"));
+    repository.save(new AccountEntity(1L, "updated"));
+
+    IdFilterStats stats = repository.getIdFilterStats();
+    assertEquals(3, stats.checks());
+    assertEquals(2, stats.selectsSaved());
+    assertEquals(0, stats.falsePositives());
+    assertEquals(3, stats.ids());
+    assertEquals("updated", repository.findById(1L).orElseThrow().getOwner());
+
+    repository.save(new AccountEntity(2L, "changed"));
+    assertEquals("changed", repository.findById(2L).orElseThrow().getOwner());
+  }
+
+  @Test
+  void testDeleteRemovesIdFromFilter() {
+    repository.enableIdFilter(1_000, 0.01);
+    repository.save(new AccountEntity(7L, "temporary"));
+
+    repository.deleteById(7L);
+    repository.save(new AccountEntity(7L, "again"));
+
+    assertEquals(2, repository.getIdFilterStats().selectsSaved());
+    assertEquals("again", repository.findById(7L).orElseThrow().getOwner());
+  }
+
+  @Test
+  void testUnitOfWorkUsesFilter() {
+    repository.executeUpdate("INSERT INTO accounts (id, owner) VALUES (1, 'seeded')");
+    repository.enableIdFilter(1_000, 0.01);
+
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(new AccountEntity(1L, "updated"));
+    unitOfWork.save(new AccountEntity(10L, "inserted"));
+    unitOfWork.save(new AccountEntity(11L, "inserted"));
+    unitOfWork.commit();
+
+    IdFilterStats stats = repository.getIdFilterStats();
+    assertEquals(2, stats.selectsSaved());
+    assertEquals(3, repository.findAll().size());
+    assertTrue(flexOrm.getIdFilter(AccountEntity.class).mightContain(10L));
+  }
+
+  @Test
+  void testRowsWrittenByOtherWritersAreUpdatedNotDuplicated() {
+    repository.enableIdFilter(1_000, 0.01);
+    repository.executeUpdate("INSERT INTO accounts (id, owner) VALUES (4, 'external')");
+    repository.executeUpdate("INSERT INTO accounts (id, owner) VALUES (5, 'external')");
+
+    repository.save(new AccountEntity(4L, "saved"));
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(new AccountEntity(5L, "committed"));
+    unitOfWork.commit();
+
+    assertEquals(2, repository.findAll().size());
+    assertEquals("saved", repository.findById(4L).orElseThrow().getOwner());
+    assertEquals("committed", repository.findById(5L).orElseThrow().getOwner());
+  }
+
+  @Test
+  void testStatsRequireEnabledFilter() {
+    assertThrows(IllegalStateException.class, () -> repository.getIdFilterStats());
+  }
+
+  @OrmEntity(table = "accounts")
+  public static class AccountEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String owner;
+
+    public AccountEntity() {
+    }
+
+    public AccountEntity(Long id, String owner) {
+      this.id = id;
+      this.owner = owner;
+    }
+
+    public String getOwner() {
+      return owner;
+    }
+  }
+}
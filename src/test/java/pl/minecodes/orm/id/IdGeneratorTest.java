@@ -0,0 +1,237 @@
+package pl.minecodes.orm.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.GeneratorType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.entity.UnitOfWork;
+
+class IdGeneratorTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<GuildEntity, Long> guildRepository;
+  private EntityRepository<MemberEntity, Long> memberRepository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("id-generator-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    guildRepository = flexOrm.getEntityRepository(GuildEntity.class);
+    memberRepository = flexOrm.getEntityRepository(MemberEntity.class);
+
+    guildRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS guilds (id INTEGER PRIMARY KEY, name TEXT)");
+    memberRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS members (id INTEGER PRIMARY KEY, name TEXT, guild_id INTEGER)");
+  }
+
+  @Test
+  void testHiLoAllocatesBlocks() {
+    for (int i = 0; i < 25; i++) {
+      guildRepository.save(new GuildEntity("Guild " + i));
+    }
+
+    List<GuildEntity> guilds = guildRepository.findAll();
+    assertEquals(25, guilds.size());
+    assertEquals(1L, guilds.stream().mapToLong(GuildEntity::getId).min().orElseThrow());
+    assertEquals(25L, guilds.stream().mapToLong(GuildEntity::getId).max().orElseThrow());
+    assertEquals(31L, readSequence("guilds"));
+  }
+
+  @Test
+  void testHiLoStartsAfterExistingRows() {
+    guildRepository.executeUpdate("INSERT INTO guilds (id, name) VALUES (100, 'Existing')");
+
+    GuildEntity guild = new GuildEntity("New");
+    guildRepository.save(guild);
+
+    assertEquals(101L, guild.getId());
+  }
+
+  @Test
+  void testHiLoIsUniqueAcrossThreads() throws Exception {
+    HiLoIdGenerator generator = new HiLoIdGenerator(flexOrm, "concurrent", "guilds", "id", 7);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 100; j++) {
+            ids.add(generator.nextId());
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(400, ids.size());
+  }
+
+  @Test
+  void testUnitOfWorkAssignsIdsBeforeFlush() {
+    GuildEntity guild = new GuildEntity("Knights");
+    MemberEntity member = new MemberEntity("Arthur", guild);
+
+    UnitOfWork unitOfWork = new UnitOfWork(flexOrm);
+    unitOfWork.save(member);
+    unitOfWork.save(guild);
+
+    assertNotNull(guild.getId());
+    assertNotNull(member.getId());
+
+    unitOfWork.commit();
+
+    assertEquals(guild.getId(), findGuildId(member.getId()));
+  }
+
+  @Test
+  void testSnowflakeIdsAreUniqueAndOrdered() {
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(42);
+
+    long previous = 0;
+    for (int i = 0; i < 10_000; i++) {
+      long id = generator.nextId();
+      assertTrue(id > previous);
+      assertEquals(42, (id >> 12) & 0x3FF);
+      previous = id;
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+  }
+
+  @Test
+  void testUuidV7Layout() {
+    UuidV7Generator generator = new UuidV7Generator();
+    long before = System.currentTimeMillis();
+    UUID uuid = generator.nextUuid();
+
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    assertTrue((uuid.getMostSignificantBits() >>> 16) >= before);
+  }
+
+  @Test
+  void testGeneratorRejectsIncompatibleIdType() {
+    EntityRepository<InvalidEntity, Long> repository = flexOrm.getEntityRepository(InvalidEntity.class);
+
+    assertThrows(IllegalStateException.class, () -> repository.save(new InvalidEntity()));
+  }
+
+  private long readSequence(String name) {
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "SELECT next_value FROM _orm_sequences WHERE name = ?")) {
+      statement.setString(1, name);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getLong(1);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Long findGuildId(Long memberId) {
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "SELECT guild_id FROM members WHERE id = ?")) {
+      statement.setLong(1, memberId);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? resultSet.getLong(1) : null;
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @OrmEntity(table = "guilds")
+  public static class GuildEntity {
+
+    @OrmEntityId(generator = GeneratorType.HILO, allocationSize = 10)
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public GuildEntity() {
+    }
+
+    public GuildEntity(String name) {
+      this.name = name;
+    }
+
+    public Long getId() {
+      return id;
+    }
+  }
+
+  @OrmEntity(table = "members")
+  public static class MemberEntity {
+
+    @OrmEntityId(generator = GeneratorType.SNOWFLAKE)
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = GuildEntity.class, joinColumn = "guild_id")
+    private GuildEntity guild;
+
+    public MemberEntity() {
+    }
+
+    public MemberEntity(String name, GuildEntity guild) {
+      this.name = name;
+      this.guild = guild;
+    }
+
+    public Long getId() {
+      return id;
+    }
+  }
+
+  @OrmEntity(table = "invalid")
+  public static class InvalidEntity {
+
+    @OrmEntityId(generator = GeneratorType.UUID_V7)
+    private Long id;
+  }
+}
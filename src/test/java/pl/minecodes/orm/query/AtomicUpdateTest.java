@@ -0,0 +1,173 @@
+package pl.minecodes.orm.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class AtomicUpdateTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<PlayerEntity, Long> repository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("atomic-update-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    repository = flexOrm.getEntityRepository(PlayerEntity.class);
+    repository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS players (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, coins INTEGER, high_score INTEGER, history TEXT)");
+  }
+
+  @Test
+  void testIncrementReturnsAffectedCount() {
+    PlayerEntity player = new PlayerEntity("Steve", 10, 100);
+    repository.save(player);
+
+    int affected = repository.modify(player.getId()).increment("coins", 5).execute();
+
+    assertEquals(1, affected);
+    assertEquals(15, repository.findById(player.getId()).orElseThrow().getCoins());
+  }
+
+  @Test
+  void testUnknownIdAffectsNothing() {
+    assertEquals(0, repository.modify(999L).increment("coins", 5).execute());
+    assertTrue(repository.modify(999L).increment("coins", 5).executeAndFetch().isEmpty());
+  }
+
+  @Test
+  void testMinAndMaxKeepExpectedValue() {
+    PlayerEntity player = new PlayerEntity("Alex", 10, 100);
+    repository.save(player);
+
+    PlayerEntity updated = repository.modify(player.getId())
+        .max("highScore", 50)
+        .min("coins", 3)
+        .executeAndFetch()
+        .orElseThrow();
+
+    assertEquals(100, updated.getHighScore());
+    assertEquals(3, updated.getCoins());
+
+    updated = repository.modify(player.getId())
+        .max("highScore", 250)
+        .decrement("coins", 1)
+        .append("history", "win;")
+        .executeAndFetch()
+        .orElseThrow();
+
+    assertEquals(250, updated.getHighScore());
+    assertEquals(2, updated.getCoins());
+    assertEquals("win;", updated.getHistory());
+  }
+
+  @Test
+  void testConcurrentIncrementsAreNotLost() throws Exception {
+    PlayerEntity player = new PlayerEntity("Herobrine", 0, 0);
+    repository.save(player);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        futures.add(executor.submit(
+            () -> repository.modify(player.getId()).increment("coins", 1).execute()));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(40, repository.findById(player.getId()).orElseThrow().getCoins());
+  }
+
+  @Test
+  void testUpdateJoinsTheActiveTransaction() {
+    PlayerEntity player = new PlayerEntity("Notch", 10, 0);
+    repository.save(player);
+
+    repository.beginTransaction();
+    assertEquals(15, repository.modify(player.getId()).increment("coins", 5).executeAndFetch()
+        .orElseThrow().getCoins());
+    repository.rollbackTransaction();
+
+    assertEquals(10, repository.findById(player.getId()).orElseThrow().getCoins());
+  }
+
+  @Test
+  void testInvalidOperationsAreRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> repository.modify(1L).increment("name", 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> repository.modify(1L).increment("id", 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> repository.modify(1L).increment("missing", 1));
+    assertThrows(IllegalStateException.class, () -> repository.modify(1L).execute());
+  }
+
+  @OrmEntity(table = "players")
+  public static class PlayerEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmField
+    private int coins;
+
+    @OrmField(name = "high_score")
+    private int highScore;
+
+    @OrmField
+    private String history;
+
+    private PlayerEntity() {
+    }
+
+    public PlayerEntity(String name, int coins, int highScore) {
+      this.name = name;
+      this.coins = coins;
+      this.highScore = highScore;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public int getCoins() {
+      return coins;
+    }
+
+    public int getHighScore() {
+      return highScore;
+    }
+
+    public String getHistory() {
+      return history;
+    }
+  }
+}
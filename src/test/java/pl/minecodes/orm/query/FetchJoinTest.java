@@ -0,0 +1,153 @@
+package pl.minecodes.orm.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.annotation.OrmOneToOne;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.relation.Lazy;
+
+class FetchJoinTest {
+
+  @TempDir
+  Path tempDir;
+
+  private EntityRepository<ArticleEntity, Long> articleRepository;
+  private EntityRepository<EditorEntity, Long> editorRepository;
+  private EntityRepository<DeskEntity, Long> deskRepository;
+
+  @BeforeEach
+  void setUp() {
+    FlexOrm flexOrm = FlexOrm.sqllite(tempDir.resolve("fetch-join-test.db").toFile());
+    flexOrm.connect();
+    articleRepository = flexOrm.getEntityRepository(ArticleEntity.class);
+    editorRepository = flexOrm.getEntityRepository(EditorEntity.class);
+    deskRepository = flexOrm.getEntityRepository(DeskEntity.class);
+    articleRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS editors (id INTEGER PRIMARY KEY, name TEXT)");
+    articleRepository.executeUpdate("CREATE TABLE IF NOT EXISTS articles"
+        + " (id INTEGER PRIMARY KEY, name TEXT, editor_id INTEGER)");
+    articleRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS desks (id INTEGER PRIMARY KEY, label TEXT, owner_id INTEGER)");
+    articleRepository.executeUpdate("INSERT INTO editors (id, name) VALUES (1, 'Ada'), (2, 'Brian')");
+    articleRepository.executeUpdate("INSERT INTO articles (id, name, editor_id) VALUES"
+        + " (1, 'first', 1), (2, 'second', 2), (3, 'third', 1), (4, 'orphan', NULL)");
+    articleRepository.executeUpdate("INSERT INTO desks (id, label, owner_id) VALUES (7, 'north', 2), (8, 'spare', NULL)");
+  }
+
+  @Test
+  void testManyToOneIsHydratedFromJoinedRow() {
+    List<ArticleEntity> articles = articleRepository.query()
+        .fetchJoin("editor")
+        .where("id", Operator.GREATER_THAN, 0L)
+        .orderBy("name")
+        .execute();
+
+    assertEquals(List.of("first", "orphan", "second", "third"),
+        articles.stream().map(article -> article.name).toList());
+    assertEquals("Ada", articles.get(0).editor.name);
+    assertSame(articles.get(0).editor, articles.get(3).editor);
+    assertNull(articles.get(1).editor);
+    assertEquals(2L, articles.get(2).editor.id);
+  }
+
+  @Test
+  void testInverseOneToOneIsJoinedOnMappedByColumn() {
+    List<EditorEntity> editors = editorRepository.query()
+        .fetchJoin("desk")
+        .orderBy("id")
+        .execute();
+
+    assertNull(editors.get(0).desk);
+    assertEquals("north", editors.get(1).desk.label);
+  }
+
+  @Test
+  void testLazyHolderIsFilledFromJoinedRow() {
+    List<DeskEntity> desks = deskRepository.query()
+        .fetchJoin("owner")
+        .orderBy("id")
+        .execute();
+
+    assertTrue(desks.get(0).owner.isLoaded());
+    assertEquals("Brian", desks.get(0).owner.get().name);
+    assertTrue(desks.get(1).owner.isLoaded());
+    assertNull(desks.get(1).owner.get());
+  }
+
+  @Test
+  void testCollectionRelationsCannotBeJoinFetched() {
+    assertThrows(IllegalArgumentException.class,
+        () -> editorRepository.query().fetchJoin("articles"));
+    assertThrows(IllegalArgumentException.class,
+        () -> editorRepository.query().fetchJoin("name"));
+  }
+
+  @OrmEntity(table = "editors")
+  public static class EditorEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToOne(targetEntity = DeskEntity.class, mappedBy = "owner", fetch = FetchType.LAZY)
+    private DeskEntity desk;
+
+    @OrmOneToMany(targetEntity = ArticleEntity.class, mappedBy = "editor")
+    private List<ArticleEntity> articles = new ArrayList<>();
+
+    public EditorEntity() {
+    }
+  }
+
+  @OrmEntity(table = "articles")
+  public static class ArticleEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = EditorEntity.class, fetch = FetchType.LAZY)
+    private EditorEntity editor;
+
+    public ArticleEntity() {
+    }
+  }
+
+  @OrmEntity(table = "desks")
+  public static class DeskEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String label;
+
+    @OrmOneToOne(targetEntity = EditorEntity.class, joinColumn = "owner_id",
+        fetch = FetchType.LAZY)
+    private Lazy<EditorEntity> owner;
+
+    public DeskEntity() {
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package pl.minecodes.orm.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.relation.Lazy;
+
+class JsonFetchTest {
+
+  @TempDir
+  Path tempDir;
+
+  private EntityRepository<TopicEntity, Long> topicRepository;
+
+  @BeforeEach
+  void setUp() {
+    FlexOrm flexOrm = FlexOrm.sqllite(tempDir.resolve("json-fetch-test.db").toFile());
+    flexOrm.connect();
+    topicRepository = flexOrm.getEntityRepository(TopicEntity.class);
+    topicRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS boards (id INTEGER PRIMARY KEY, name TEXT)");
+    topicRepository.executeUpdate("CREATE TABLE IF NOT EXISTS topics"
+        + " (id INTEGER PRIMARY KEY, title TEXT, board_id INTEGER)");
+    topicRepository.executeUpdate("CREATE TABLE IF NOT EXISTS replies (id INTEGER PRIMARY KEY,"
+        + " body TEXT, likes INTEGER, pinned INTEGER, score REAL, topic_id INTEGER,"
+        + " author_id INTEGER)");
+    topicRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS reply_authors (id INTEGER PRIMARY KEY, name TEXT)");
+    topicRepository.executeUpdate("INSERT INTO reply_authors (id, name) VALUES (1, 'ann')");
+    topicRepository.executeUpdate("INSERT INTO boards (id, name) VALUES (1, 'general')");
+    topicRepository.executeUpdate("INSERT INTO topics (id, title, board_id) VALUES"
+        + " (1, 'hello', 1), (2, 'quiet', 1), (3, 'news', NULL)");
+    topicRepository.executeUpdate("INSERT INTO replies (id, body, likes, pinned, score, topic_id)"
+        + " VALUES (1, 'first \"quoted\"', 3, 1, 1.5, 1), (2, NULL, 0, 0, NULL, 1),"
+        + " (3, 'breaking', 7, 0, 2.25, 3)");
+    topicRepository.executeUpdate("UPDATE replies SET author_id = 1 WHERE id IN (1, 3)");
+  }
+
+  @Test
+  void testChildrenAreDecodedFromAggregatedColumn() {
+    List<TopicEntity> topics = topicRepository.query()
+        .fetchJson("replies")
+        .where("id", Operator.GREATER_THAN, 0L)
+        .orderBy("id")
+        .execute();
+
+    assertEquals(List.of(1L, 2L, 3L), topics.stream().map(topic -> topic.id).toList());
+    TopicEntity hello = topics.get(0);
+    List<ReplyEntity> replies = new ArrayList<>(hello.replies);
+    replies.sort(Comparator.comparing(reply -> reply.id));
+    assertEquals(2, replies.size());
+    assertEquals("first \"quoted\"", replies.get(0).body);
+    assertEquals(3, replies.get(0).likes);
+    assertTrue(replies.get(0).pinned);
+    assertEquals(1.5, replies.get(0).score);
+    assertNull(replies.get(1).body);
+    assertFalse(replies.get(1).pinned);
+    assertSame(hello, replies.get(0).topic.get());
+
+    assertTrue(topics.get(1).replies.isEmpty());
+    assertEquals(7, topics.get(2).replies.get(0).likes);
+  }
+
+  @Test
+  void testJsonFetchCombinesWithFetchJoin() {
+    List<TopicEntity> topics = topicRepository.query()
+        .fetchJoin("board")
+        .fetchJson("replies")
+        .orderBy("id")
+        .execute();
+
+    assertEquals("general", topics.get(0).board.name);
+    assertSame(topics.get(0).board, topics.get(1).board);
+    assertNull(topics.get(2).board);
+    assertEquals(2, topics.get(0).replies.size());
+    assertEquals(1, topics.get(2).replies.size());
+  }
+
+  @Test
+  void testJsonFetchedChildrenLoadTheirRelations() {
+    List<TopicEntity> topics = topicRepository.query()
+        .fetchJson("replies")
+        .orderBy("id")
+        .execute();
+
+    List<ReplyEntity> replies = new ArrayList<>(topics.get(0).replies);
+    replies.sort(Comparator.comparing(reply -> reply.id));
+    assertEquals("ann", replies.get(0).author.name);
+    assertNull(replies.get(1).author);
+    assertSame(replies.get(0).author, topics.get(2).replies.get(0).author);
+    assertSame(topics.get(0), replies.get(0).topic.get());
+  }
+
+  @Test
+  void testOnlyOneToManyCanBeJsonFetched() {
+    assertThrows(IllegalArgumentException.class,
+        () -> topicRepository.query().fetchJson("board"));
+  }
+
+  @OrmEntity(table = "boards")
+  public static class BoardEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public BoardEntity() {
+    }
+  }
+
+  @OrmEntity(table = "topics")
+  public static class TopicEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String title;
+
+    @OrmManyToOne(targetEntity = BoardEntity.class, fetch = FetchType.LAZY)
+    private BoardEntity board;
+
+    @OrmOneToMany(targetEntity = ReplyEntity.class, mappedBy = "topic")
+    private List<ReplyEntity> replies = new ArrayList<>();
+
+    public TopicEntity() {
+    }
+  }
+
+  @OrmEntity(table = "replies")
+  public static class ReplyEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String body;
+
+    @OrmField
+    private Integer likes;
+
+    @OrmField
+    private boolean pinned;
+
+    @OrmField
+    private Double score;
+
+    @OrmManyToOne(targetEntity = TopicEntity.class, fetch = FetchType.LAZY)
+    private Lazy<TopicEntity> topic;
+
+    @OrmManyToOne(targetEntity = ReplyAuthorEntity.class, fetch = FetchType.EAGER)
+    private ReplyAuthorEntity author;
+
+    public ReplyEntity() {
+    }
+  }
+
+  @OrmEntity(table = "reply_authors")
+  public static class ReplyAuthorEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public ReplyAuthorEntity() {
+    }
+  }
+}
@@ -1,12 +1,15 @@
 package pl.minecodes.orm.query;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -291,6 +294,93 @@ class QueryBuilderTest {
     assertEquals(2, result.size());
   }
 
+  @Test
+  void testBulkUpdate() {
+    long affected = repository.query()
+        .where("active", Operator.EQUALS, false)
+        .update(Map.of("score", 0.0));
+
+    assertEquals(2, affected);
+    assertEquals(2, repository.query().where("score", Operator.EQUALS, 0.0).count());
+    assertEquals(3, repository.query().where("score", Operator.GREATER_THAN, 0.0).count());
+  }
+
+  @Test
+  void testBulkDelete() {
+    long affected = repository.query()
+        .where("age", Operator.LESS_THAN, 28)
+        .or("name", Operator.EQUALS, "Charlie")
+        .delete();
+
+    assertEquals(3, affected);
+    assertEquals(2, repository.query().count());
+  }
+
+  @Test
+  void testBulkOperationsWithoutConditionsRequireOptIn() {
+    assertThrows(IllegalStateException.class, () -> repository.query().delete());
+    assertThrows(IllegalStateException.class,
+        () -> repository.query().update(Map.of("score", 0.0)));
+    assertEquals(5, repository.query().count());
+
+    assertEquals(5, repository.query().updateAll(Map.of("score", 1.0)));
+    assertEquals(5, repository.query().where("score", Operator.EQUALS, 1.0).count());
+    assertEquals(5, repository.query().deleteAll());
+    assertEquals(0, repository.query().count());
+  }
+
+  @Test
+  void testBulkOperationsRejectLimitOffsetAndOrder() {
+    assertThrows(IllegalStateException.class,
+        () -> repository.query().where("age", Operator.GREATER_THAN, 0).limit(1).delete());
+    assertThrows(IllegalStateException.class,
+        () -> repository.query().offset(2).updateAll(Map.of("score", 0.0)));
+    assertThrows(IllegalStateException.class,
+        () -> repository.query().orderBy("age", true).deleteAll());
+    assertEquals(5, repository.query().count());
+  }
+
+  @Test
+  void testChunkedBulkUpdate() {
+    for (int i = 0; i < 20; i++) {
+      repository.save(new QueryTestEntity("Bulk " + i, 50 + i, 10.0, true));
+    }
+
+    long affected = repository.query()
+        .where("age", Operator.GREATER_THAN_OR_EQUALS, 50)
+        .chunked(3)
+        .update(Map.of("active", false));
+
+    assertEquals(20, affected);
+    assertEquals(22, repository.query().where("active", Operator.EQUALS, false).count());
+  }
+
+  @Test
+  void testChunkedBulkDelete() {
+    long affected = repository.query()
+        .where("active", Operator.EQUALS, true)
+        .chunked(2)
+        .delete();
+
+    assertEquals(3, affected);
+    assertEquals(2, repository.query().count());
+  }
+
+  @Test
+  void testScanValidatesColumnNames() {
+    List<Object[]> rows = new ArrayList<>();
+    long scanned = repository.query()
+        .where("active", Operator.EQUALS, true)
+        .orderBy("age")
+        .scan(List.of("name", "age"), 2, rows::add);
+
+    assertEquals(3, scanned);
+    assertEquals("Alice", rows.get(0)[0]);
+    assertThrows(IllegalArgumentException.class, () -> repository.query()
+        .scan(List.of("name FROM query_test; DROP TABLE query_test; --"), 2, rows::add));
+    assertEquals(5, repository.query().count());
+  }
+
   @OrmEntity(table = "query_test")
   public static class QueryTestEntity {
 
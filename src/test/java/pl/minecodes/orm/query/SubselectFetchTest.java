@@ -0,0 +1,173 @@
+package pl.minecodes.orm.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.relation.Lazy;
+
+class SubselectFetchTest {
+
+  @TempDir
+  Path tempDir;
+
+  private EntityRepository<ShopEntity, Long> shopRepository;
+
+  @BeforeEach
+  void setUp() {
+    FlexOrm flexOrm = FlexOrm.sqllite(tempDir.resolve("subselect-fetch-test.db").toFile());
+    flexOrm.connect();
+    shopRepository = flexOrm.getEntityRepository(ShopEntity.class);
+    shopRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS shops (id INTEGER PRIMARY KEY, city TEXT)");
+    shopRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS products (id INTEGER PRIMARY KEY, name TEXT, shop_id INTEGER)");
+    shopRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS brands (id INTEGER PRIMARY KEY, name TEXT)");
+    shopRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS shop_brands (shop_id INTEGER, brand_id INTEGER)");
+    shopRepository.executeUpdate("INSERT INTO shops (id, city) VALUES"
+        + " (1, 'Krakow'), (2, 'Gdansk'), (3, 'Krakow'), (4, 'Krakow')");
+    shopRepository.executeUpdate("INSERT INTO products (id, name, shop_id) VALUES"
+        + " (1, 'bread', 1), (2, 'milk', 1), (3, 'fish', 2), (4, 'tea', 3), (5, 'jam', 4)");
+    shopRepository.executeUpdate("INSERT INTO brands (id, name) VALUES (1, 'acme'), (2, 'globex')");
+    shopRepository.executeUpdate(
+        "INSERT INTO shop_brands (shop_id, brand_id) VALUES (1, 1), (1, 2), (2, 1), (3, 2)");
+  }
+
+  @Test
+  void testCollectionsAreLoadedForFilteredOwners() {
+    List<ShopEntity> shops = shopRepository.query()
+        .fetchSubselect("products")
+        .fetchSubselect("brands")
+        .where("city", Operator.EQUALS, "Krakow")
+        .orderBy("id")
+        .execute();
+
+    assertEquals(List.of(1L, 3L, 4L), shops.stream().map(shop -> shop.id).toList());
+    assertTrue(Lazy.isInitialized(shops.get(0).products));
+    assertEquals(Set.of("bread", "milk"), names(shops.get(0).products));
+    assertEquals(Set.of("tea"), names(shops.get(1).products));
+    assertEquals(Set.of("acme", "globex"), shops.get(0).brands.stream()
+        .map(brand -> brand.name).collect(Collectors.toSet()));
+    assertTrue(shops.get(2).brands.isEmpty());
+  }
+
+  @Test
+  void testSubselectKeepsLimitAndOffset() {
+    List<ShopEntity> shops = shopRepository.query()
+        .fetchSubselect("products")
+        .where("city", Operator.EQUALS, "Krakow")
+        .orderBy("id")
+        .limit(1)
+        .offset(1)
+        .execute();
+
+    assertEquals(1, shops.size());
+    assertEquals(3L, shops.get(0).id);
+    assertEquals(Set.of("tea"), names(shops.get(0).products));
+  }
+
+  @Test
+  void testLimitedSubselectBreaksOrderTiesById() {
+    List<ShopEntity> shops = shopRepository.query()
+        .fetchSubselect("products")
+        .orderBy("city", false)
+        .limit(2)
+        .execute();
+
+    assertEquals(List.of(1L, 3L), shops.stream().map(shop -> shop.id).toList());
+    assertEquals(Set.of("bread", "milk"), names(shops.get(0).products));
+    assertEquals(Set.of("tea"), names(shops.get(1).products));
+  }
+
+  @Test
+  void testOtherLazyRelationsStayUnloaded() {
+    List<ShopEntity> shops = shopRepository.query()
+        .fetchSubselect("brands")
+        .where("id", Operator.LESS_THAN, 3L)
+        .execute();
+
+    assertEquals(2, shops.size());
+    assertTrue(shops.stream().allMatch(shop -> Lazy.isInitialized(shop.brands)));
+    assertTrue(shops.stream().noneMatch(shop -> Lazy.isInitialized(shop.products)));
+  }
+
+  @Test
+  void testOnlyCollectionsCanBeSubselectFetched() {
+    assertThrows(IllegalArgumentException.class,
+        () -> shopRepository.query().fetchSubselect("city"));
+    assertFalse(shopRepository.query().fetchSubselect("products").execute().isEmpty());
+  }
+
+  private Set<String> names(List<ProductEntity> products) {
+    return products.stream().map(product -> product.name).collect(Collectors.toSet());
+  }
+
+  @OrmEntity(table = "shops")
+  public static class ShopEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String city;
+
+    @OrmOneToMany(targetEntity = ProductEntity.class, mappedBy = "shop")
+    private List<ProductEntity> products = new ArrayList<>();
+
+    @OrmManyToMany(targetEntity = BrandEntity.class, joinTable = "shop_brands",
+        joinColumn = "shop_id", inverseJoinColumn = "brand_id")
+    private List<BrandEntity> brands = new ArrayList<>();
+
+    public ShopEntity() {
+    }
+  }
+
+  @OrmEntity(table = "products")
+  public static class ProductEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = ShopEntity.class, fetch = FetchType.LAZY)
+    private ShopEntity shop;
+
+    public ProductEntity() {
+    }
+  }
+
+  @OrmEntity(table = "brands")
+  public static class BrandEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public BrandEntity() {
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.query.Operator;
+
+class BatchRelationLoadingTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<WriterEntity, Long> writerRepository;
+  private EntityRepository<NovelEntity, Long> novelRepository;
+
+  @BeforeEach
+  void setUp() {
+    flexOrm = FlexOrm.sqllite(tempDir.resolve("batch-loading-test.db").toFile());
+    flexOrm.connect();
+    writerRepository = flexOrm.getEntityRepository(WriterEntity.class);
+    novelRepository = flexOrm.getEntityRepository(NovelEntity.class);
+    writerRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS writers (id INTEGER PRIMARY KEY, name TEXT)");
+    writerRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS novels (id INTEGER PRIMARY KEY, title TEXT, writer_id INTEGER)");
+    writerRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS genres (id INTEGER PRIMARY KEY, label TEXT)");
+    writerRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS novel_genres (novel_id INTEGER, genre_id INTEGER)");
+
+    for (int i = 1; i <= 4; i++) {
+      writerRepository.executeUpdate(
+          "INSERT INTO writers (id, name) VALUES (" + i + ", 'writer-" + i + "')");
+    }
+    for (int i = 1; i <= 9; i++) {
+      novelRepository.executeUpdate("INSERT INTO novels (id, title, writer_id) VALUES ("
+          + i + ", 'novel-" + i + "', " + (i % 3 + 1) + ")");
+    }
+    novelRepository.executeUpdate("INSERT INTO genres (id, label) VALUES (1, 'fantasy'), (2, 'crime')");
+    novelRepository.executeUpdate(
+        "INSERT INTO novel_genres (novel_id, genre_id) VALUES (1, 1), (1, 2), (2, 2)");
+  }
+
+  @Test
+  void testManyToOneIsStitchedAcrossBatches() {
+    List<NovelEntity> novels = novelRepository.findAll();
+
+    assertEquals(9, novels.size());
+    Map<Long, NovelEntity> byId = novels.stream()
+        .collect(Collectors.toMap(novel -> novel.id, Function.identity()));
+    for (long i = 1; i <= 9; i++) {
+      assertEquals(i % 3 + 1, byId.get(i).writer.id);
+    }
+    assertSame(byId.get(1L).writer, byId.get(4L).writer);
+  }
+
+  @Test
+  void testOneToManyIsGroupedPerParent() {
+    List<WriterEntity> writers = writerRepository.query()
+        .where("id", Operator.LESS_THAN_OR_EQUALS, 4L)
+        .execute();
+
+    Map<Long, WriterEntity> byId = writers.stream()
+        .collect(Collectors.toMap(writer -> writer.id, Function.identity()));
+    assertEquals(List.of(3L, 6L, 9L), byId.get(1L).novels.stream()
+        .map(novel -> novel.id).sorted(Comparator.naturalOrder()).toList());
+    assertEquals(3, byId.get(2L).novels.size());
+    assertTrue(byId.get(4L).novels.isEmpty());
+  }
+
+  @Test
+  void testManyToManyAndMissingParentsOnFindById() {
+    NovelEntity first = novelRepository.findById(1L).orElseThrow();
+    NovelEntity third = novelRepository.findById(3L).orElseThrow();
+
+    assertEquals(Set.of("fantasy", "crime"), first.genres.stream()
+        .map(genre -> genre.label).collect(Collectors.toSet()));
+    assertTrue(third.genres.isEmpty());
+
+    novelRepository.executeUpdate("UPDATE novels SET writer_id = NULL WHERE id = 3");
+    assertNull(novelRepository.findById(3L).orElseThrow().writer);
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  void testToOneUsesForeignKeyFromHydratedRow() {
+    NovelEntity aliased = novelRepository.query()
+        .raw("SELECT id, title, 4 AS writer_id FROM novels WHERE id = 1")
+        .execute().get(0);
+    NovelEntity withoutColumn = novelRepository.query()
+        .raw("SELECT id, title FROM novels WHERE id = 1")
+        .execute().get(0);
+
+    assertEquals(4L, aliased.writer.id);
+    assertEquals(2L, withoutColumn.writer.id);
+  }
+
+  @Test
+  void testBidirectionalEagerRelationsResolveToSameInstances() {
+    WriterEntity writer = writerRepository.findById(1L).orElseThrow();
+
+    assertEquals(3, writer.novels.size());
+    for (NovelEntity novel : writer.novels) {
+      assertSame(writer, novel.writer);
+    }
+    NovelEntity third = writer.novels.stream()
+        .filter(novel -> novel.id == 3L).findFirst().orElseThrow();
+    assertTrue(third.genres.isEmpty());
+
+    List<NovelEntity> novels = novelRepository.findAll();
+    NovelEntity first = novels.stream().filter(novel -> novel.id == 1L).findFirst().orElseThrow();
+    assertTrue(first.writer.novels.contains(first));
+    assertEquals(2, first.genres.size());
+  }
+
+  @Test
+  void testMaxFetchDepthStopsAtFirstLevel() {
+    flexOrm.setMaxFetchDepth(1);
+
+    WriterEntity writer = writerRepository.findById(1L).orElseThrow();
+
+    assertEquals(3, writer.novels.size());
+    assertTrue(writer.novels.stream().allMatch(novel -> novel.writer == null));
+  }
+
+  @OrmEntity(table = "writers")
+  public static class WriterEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToMany(targetEntity = NovelEntity.class, mappedBy = "writer", fetch = FetchType.EAGER,
+        batchSize = 2)
+    private List<NovelEntity> novels = new ArrayList<>();
+
+    public WriterEntity() {
+    }
+  }
+
+  @OrmEntity(table = "novels")
+  public static class NovelEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String title;
+
+    @OrmManyToOne(targetEntity = WriterEntity.class, batchSize = 2)
+    private WriterEntity writer;
+
+    @OrmManyToMany(targetEntity = GenreEntity.class, joinTable = "novel_genres",
+        joinColumn = "novel_id", inverseJoinColumn = "genre_id", fetch = FetchType.EAGER)
+    private Set<GenreEntity> genres;
+
+    public NovelEntity() {
+    }
+  }
+
+  @OrmEntity(table = "genres")
+  public static class GenreEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String label;
+
+    public GenreEntity() {
+    }
+  }
+}
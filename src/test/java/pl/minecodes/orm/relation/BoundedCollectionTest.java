@@ -0,0 +1,158 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class BoundedCollectionTest {
+
+  @TempDir
+  Path tempDir;
+
+  private EntityRepository<ChatEntity, Long> chatRepository;
+
+  @BeforeEach
+  void setUp() {
+    FlexOrm flexOrm = FlexOrm.sqllite(tempDir.resolve("bounded-collection-test.db").toFile());
+    flexOrm.connect();
+    chatRepository = flexOrm.getEntityRepository(ChatEntity.class);
+    chatRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS chats (id INTEGER PRIMARY KEY, title TEXT)");
+    chatRepository.executeUpdate("CREATE TABLE IF NOT EXISTS messages"
+        + " (id INTEGER PRIMARY KEY, body TEXT, sentAt INTEGER, chat_id INTEGER)");
+    chatRepository.executeUpdate("INSERT INTO chats (id, title) VALUES (1, 'team'), (2, 'quiet')");
+    chatRepository.executeUpdate("INSERT INTO messages (id, body, sentAt, chat_id) VALUES"
+        + " (1, 'a', 10, 1), (2, 'b', 30, 1), (3, 'c', 20, 1), (4, 'd', 30, 1), (5, 'e', 5, 1),"
+        + " (6, 'f', 1, 2)");
+  }
+
+  @Test
+  void testBoundedCollectionKeepsNewestPerOwner() {
+    List<ChatEntity> chats = chatRepository.findAll(FetchPlan.of("recent"));
+    chats.sort((left, right) -> Long.compare(left.id, right.id));
+
+    assertEquals(List.of(4L, 2L), ids(chats.get(0).recent));
+    assertEquals(List.of(6L), ids(chats.get(1).recent));
+
+    ChatEntity lazy = chatRepository.findById(1L).orElseThrow();
+    assertEquals(List.of(4L, 2L), ids(lazy.recent));
+  }
+
+  @Test
+  void testOrderedCollectionIsSorted() {
+    ChatEntity chat = chatRepository.findById(1L, FetchPlan.of("history")).orElseThrow();
+
+    assertEquals(List.of(5L, 1L, 3L, 2L, 4L), ids(chat.history));
+  }
+
+  @Test
+  void testChildrenArePagedByKeyset() {
+    ChatEntity chat = chatRepository.findById(1L).orElseThrow();
+    Children<MessageEntity> recent = chatRepository.children(chat, "recent");
+
+    ChildPage<MessageEntity> first = recent.page(2);
+    assertEquals(List.of(4L, 2L), ids(first.items()));
+    assertTrue(first.hasNext());
+    ChildPage<MessageEntity> second = recent.page(2, first.next());
+    assertEquals(List.of(3L, 1L), ids(second.items()));
+    ChildPage<MessageEntity> last = recent.page(2, second.next());
+    assertEquals(List.of(5L), ids(last.items()));
+    assertFalse(last.hasNext());
+    assertEquals(5, recent.count());
+
+    Children<MessageEntity> history = chatRepository.children(chat, "history");
+    ChildPage<MessageEntity> oldest = history.page(3);
+    assertEquals(List.of(5L, 1L, 3L), ids(oldest.items()));
+    assertEquals(List.of(2L, 4L), ids(history.page(3, oldest.next()).items()));
+  }
+
+  @Test
+  void testPagingKeepsChildrenWithNullSortValues() {
+    chatRepository.executeUpdate("INSERT INTO messages (id, body, sentAt, chat_id) VALUES"
+        + " (7, 'g', NULL, 1), (8, 'h', NULL, 1)");
+    ChatEntity chat = chatRepository.findById(1L, FetchPlan.of("history")).orElseThrow();
+    assertEquals(List.of(5L, 1L, 3L, 2L, 4L, 7L, 8L), ids(chat.history));
+
+    for (String field : List.of("recent", "history")) {
+      Children<MessageEntity> children = chatRepository.children(chat, field);
+      List<Long> paged = new ArrayList<>();
+      ChildPage<MessageEntity> page = children.page(2);
+      paged.addAll(ids(page.items()));
+      while (page.hasNext()) {
+        page = children.page(2, page.next());
+        paged.addAll(ids(page.items()));
+      }
+      assertEquals(7, Set.copyOf(paged).size());
+      assertEquals(Set.of(7L, 8L), Set.copyOf(paged.subList(5, 7)));
+    }
+  }
+
+  @Test
+  void testInvalidRelationsAreRejected() {
+    ChatEntity chat = chatRepository.findById(1L).orElseThrow();
+
+    assertThrows(IllegalArgumentException.class, () -> chatRepository.children(chat, "title"));
+    assertThrows(IllegalArgumentException.class,
+        () -> chatRepository.query().fetchJson("recent"));
+  }
+
+  private List<Long> ids(List<MessageEntity> messages) {
+    return messages.stream().map(message -> message.id).toList();
+  }
+
+  @OrmEntity(table = "chats")
+  public static class ChatEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String title;
+
+    @OrmOneToMany(targetEntity = MessageEntity.class, mappedBy = "chat", orderBy = "sentAt DESC",
+        maxLoaded = 2)
+    private List<MessageEntity> recent = new ArrayList<>();
+
+    @OrmOneToMany(targetEntity = MessageEntity.class, mappedBy = "chat", orderBy = "sentAt")
+    private List<MessageEntity> history = new ArrayList<>();
+
+    public ChatEntity() {
+    }
+  }
+
+  @OrmEntity(table = "messages")
+  public static class MessageEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String body;
+
+    @OrmField
+    private Long sentAt;
+
+    @OrmManyToOne(targetEntity = ChatEntity.class, fetch = FetchType.LAZY)
+    private ChatEntity chat;
+
+    public MessageEntity() {
+    }
+  }
+}
@@ -0,0 +1,322 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.annotation.OrmOneToOne;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.table.TableManager;
+
+class CascadeDeleteTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<GuildEntity, Long> guildRepository;
+
+  @BeforeEach
+  void setUp() {
+    flexOrm = FlexOrm.sqllite(tempDir.resolve("cascade-delete-test.db").toFile());
+    flexOrm.connect();
+    guildRepository = flexOrm.getEntityRepository(GuildEntity.class);
+  }
+
+  @Test
+  void testSetBasedDeleteRemovesUnloadedSubtree() throws SQLException {
+    createPlainTables();
+    seed();
+    flexOrm.setCascadeDeleteStrategy(CascadeDeleteStrategy.SET_BASED);
+
+    guildRepository.deleteById(1L);
+
+    assertEquals(List.of(2L), queryLongs("SELECT id FROM guilds"));
+    assertEquals(List.of(3L), queryLongs("SELECT id FROM members ORDER BY id"));
+    assertEquals(List.of(5L), queryLongs("SELECT id FROM loot ORDER BY id"));
+    assertEquals(List.of(2L), queryLongs("SELECT guild_id FROM guild_allies"));
+  }
+
+  @Test
+  void testSetBasedDeleteIgnoresLoadedCollections() throws SQLException {
+    createPlainTables();
+    seed();
+    flexOrm.setCascadeDeleteStrategy(CascadeDeleteStrategy.SET_BASED);
+
+    GuildEntity guild = new GuildEntity(1L, "Knights");
+    guildRepository.delete(guild);
+
+    assertEquals(List.of(3L), queryLongs("SELECT id FROM members ORDER BY id"));
+    assertEquals(List.of(5L), queryLongs("SELECT id FROM loot ORDER BY id"));
+  }
+
+  @Test
+  void testLoadedStrategyOnlyDeletesLoadedChildren() throws SQLException {
+    createPlainTables();
+    seed();
+
+    GuildEntity guild = new GuildEntity(1L, "Knights");
+    guild.members.add(new MemberEntity(1L, "Arthur"));
+    guildRepository.delete(guild);
+
+    assertEquals(List.of(2L, 3L), queryLongs("SELECT id FROM members ORDER BY id"));
+  }
+
+  @Test
+  void testOwnedOneToOneIsDeletedAfterItsOwner() throws SQLException {
+    createPlainTables();
+    seed();
+    guildRepository.executeUpdate("INSERT INTO badges (id, label) VALUES (1, 'gold'), (2, 'iron')");
+    guildRepository.executeUpdate("UPDATE members SET badge_id = id WHERE id IN (1, 2)");
+    flexOrm.setCascadeDeleteStrategy(CascadeDeleteStrategy.SET_BASED);
+
+    guildRepository.deleteById(1L);
+
+    assertEquals(List.of(3L), queryLongs("SELECT id FROM members ORDER BY id"));
+    assertTrue(queryLongs("SELECT id FROM badges").isEmpty());
+  }
+
+  @Test
+  void testForeignKeysCascadeInDatabase() throws SQLException {
+    TableManager tableManager = new TableManager(flexOrm).foreignKeys(true);
+    tableManager.createTable(BadgeEntity.class);
+    tableManager.createTable(GuildEntity.class);
+    tableManager.createTable(MemberEntity.class);
+    tableManager.createTable(LootEntity.class);
+    guildRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS guild_allies (guild_id INTEGER, ally_id INTEGER)");
+    seed();
+    flexOrm.setCascadeDeleteStrategy(CascadeDeleteStrategy.DATABASE);
+
+    assertTrue(queryString("SELECT sql FROM sqlite_master WHERE name = 'members'")
+        .contains("REFERENCES guilds (id) ON DELETE CASCADE"));
+
+    guildRepository.deleteById(1L);
+
+    assertEquals(List.of(3L), queryLongs("SELECT id FROM members ORDER BY id"));
+    assertEquals(List.of(5L), queryLongs("SELECT id FROM loot ORDER BY id"));
+    assertEquals(List.of(2L), queryLongs("SELECT guild_id FROM guild_allies"));
+  }
+
+  @Test
+  void testDatabaseStrategyDeletesUnidirectionalChildren() throws SQLException {
+    createCastleTables();
+    seedCastles();
+    flexOrm.setCascadeDeleteStrategy(CascadeDeleteStrategy.DATABASE);
+
+    flexOrm.getEntityRepository(CastleEntity.class).deleteById(1L);
+
+    assertEquals(List.of(2L), queryLongs("SELECT id FROM castles"));
+    assertEquals(List.of(3L), queryLongs("SELECT id FROM towers ORDER BY id"));
+  }
+
+  @Test
+  void testDatabaseStrategyDeletesOwnedOneToOne() throws SQLException {
+    createCastleTables();
+    seedCastles();
+    flexOrm.setCascadeDeleteStrategy(CascadeDeleteStrategy.DATABASE);
+
+    flexOrm.getEntityRepository(CastleEntity.class).deleteById(1L);
+
+    assertEquals(List.of(2L), queryLongs("SELECT id FROM badges"));
+  }
+
+  private void createCastleTables() {
+    TableManager tableManager = new TableManager(flexOrm).foreignKeys(true);
+    tableManager.createTable(BadgeEntity.class);
+    tableManager.createTable(TowerEntity.class);
+    tableManager.createTable(CastleEntity.class);
+  }
+
+  private void seedCastles() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(jdbcUrl());
+        Statement statement = connection.createStatement()) {
+      statement.execute("INSERT INTO badges (id, label) VALUES (1, 'gold'), (2, 'iron')");
+      statement.execute("INSERT INTO castles (id, name, badge_id) VALUES"
+          + " (1, 'Camelot', 1), (2, 'Tintagel', 2)");
+      statement.execute("INSERT INTO towers (id, name, castles_id) VALUES"
+          + " (1, 'north', 1), (2, 'south', 1), (3, 'keep', 2)");
+    }
+  }
+
+  private void createPlainTables() {
+    guildRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS guilds (id INTEGER PRIMARY KEY, name TEXT)");
+    guildRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS badges (id INTEGER PRIMARY KEY, label TEXT)");
+    guildRepository.executeUpdate("CREATE TABLE IF NOT EXISTS members (id INTEGER PRIMARY KEY,"
+        + " name TEXT, guild_id INTEGER, badge_id INTEGER REFERENCES badges (id))");
+    guildRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS loot (id INTEGER PRIMARY KEY, name TEXT, holder_id INTEGER)");
+    guildRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS guild_allies (guild_id INTEGER, ally_id INTEGER)");
+  }
+
+  private void seed() throws SQLException {
+    try (Connection connection = DriverManager.getConnection(jdbcUrl());
+        Statement statement = connection.createStatement()) {
+      statement.execute("INSERT INTO guilds (id, name) VALUES (1, 'Knights'), (2, 'Rogues')");
+      statement.execute("INSERT INTO members (id, name, guild_id) VALUES"
+          + " (1, 'Arthur', 1), (2, 'Lancelot', 1), (3, 'Robin', 2)");
+      statement.execute("INSERT INTO loot (id, name, holder_id) VALUES"
+          + " (1, 'sword', 1), (2, 'shield', 1), (3, 'lance', 2), (4, 'helmet', 2), (5, 'bow', 3)");
+      statement.execute("INSERT INTO guild_allies (guild_id, ally_id) VALUES (1, 2), (2, 1)");
+    }
+  }
+
+  private String jdbcUrl() {
+    return "jdbc:sqlite:" + tempDir.resolve("cascade-delete-test.db");
+  }
+
+  private List<Long> queryLongs(String sql) throws SQLException {
+    List<Long> values = new ArrayList<>();
+    try (Connection connection = DriverManager.getConnection(jdbcUrl());
+        ResultSet resultSet = connection.createStatement().executeQuery(sql)) {
+      while (resultSet.next()) {
+        values.add(resultSet.getLong(1));
+      }
+    }
+    return values;
+  }
+
+  private String queryString(String sql) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(jdbcUrl());
+        ResultSet resultSet = connection.createStatement().executeQuery(sql)) {
+      return resultSet.next() ? resultSet.getString(1) : null;
+    }
+  }
+
+  @OrmEntity(table = "guilds")
+  public static class GuildEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToMany(targetEntity = MemberEntity.class, mappedBy = "guild", cascade = true)
+    private List<MemberEntity> members = new ArrayList<>();
+
+    @OrmManyToMany(targetEntity = GuildEntity.class, joinTable = "guild_allies",
+        joinColumn = "guild_id", inverseJoinColumn = "ally_id", fetch = FetchType.LAZY,
+        cascade = true)
+    private List<GuildEntity> allies = new ArrayList<>();
+
+    public GuildEntity() {
+    }
+
+    public GuildEntity(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  @OrmEntity(table = "members")
+  public static class MemberEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = GuildEntity.class, fetch = FetchType.LAZY)
+    private GuildEntity guild;
+
+    @OrmOneToMany(targetEntity = LootEntity.class, mappedBy = "holder", cascade = true)
+    private List<LootEntity> loot = new ArrayList<>();
+
+    @OrmOneToOne(targetEntity = BadgeEntity.class, joinColumn = "badge_id", fetch = FetchType.LAZY,
+        cascade = true)
+    private BadgeEntity badge;
+
+    public MemberEntity() {
+    }
+
+    public MemberEntity(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  @OrmEntity(table = "loot")
+  public static class LootEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = MemberEntity.class, fetch = FetchType.LAZY)
+    private MemberEntity holder;
+
+    public LootEntity() {
+    }
+  }
+
+  @OrmEntity(table = "castles")
+  public static class CastleEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToMany(targetEntity = TowerEntity.class, cascade = true)
+    private List<TowerEntity> towers = new ArrayList<>();
+
+    @OrmOneToOne(targetEntity = BadgeEntity.class, joinColumn = "badge_id", fetch = FetchType.LAZY,
+        cascade = true)
+    private BadgeEntity badge;
+
+    public CastleEntity() {
+    }
+  }
+
+  @OrmEntity(table = "towers")
+  public static class TowerEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public TowerEntity() {
+    }
+  }
+
+  @OrmEntity(table = "badges")
+  public static class BadgeEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String label;
+
+    public BadgeEntity() {
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class CascadeSaveTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<PlayerEntity, Long> playerRepository;
+  private EntityRepository<ItemEntity, Long> itemRepository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("cascade-save-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    playerRepository = flexOrm.getEntityRepository(PlayerEntity.class);
+    itemRepository = flexOrm.getEntityRepository(ItemEntity.class);
+    playerRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS players (id INTEGER PRIMARY KEY, name TEXT)");
+    itemRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS items (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, owner_id INTEGER)");
+    itemRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS guilds (id INTEGER PRIMARY KEY, name TEXT)");
+    itemRepository.executeUpdate("CREATE TABLE IF NOT EXISTS guild_items"
+        + " (guild_id INTEGER, item_id INTEGER, PRIMARY KEY (guild_id, item_id))");
+  }
+
+  @Test
+  void testCascadeInsertsAllChildren() {
+    PlayerEntity player = new PlayerEntity(1L, "Steve");
+    for (long i = 1; i <= 500; i++) {
+      player.items.add(new ItemEntity(i, "item-" + i));
+    }
+
+    playerRepository.save(player);
+
+    assertEquals(500L, itemRepository.query().count());
+    assertEquals("item-250", itemRepository.findById(250L).orElseThrow().name);
+  }
+
+  @Test
+  void testCascadeUpdatesExistingAndInsertsNewChildren() {
+    PlayerEntity player = new PlayerEntity(1L, "Steve");
+    for (long i = 1; i <= 600; i++) {
+      player.items.add(new ItemEntity(i, "item-" + i));
+    }
+    playerRepository.save(player);
+
+    for (ItemEntity item : player.items) {
+      item.name = item.name + "-upgraded";
+    }
+    player.items.add(new ItemEntity(601L, "item-601"));
+    player.items.add(new ItemEntity(null, "unnumbered"));
+    playerRepository.save(player);
+
+    assertEquals(602L, itemRepository.query().count());
+    assertEquals("item-600-upgraded", itemRepository.findById(600L).orElseThrow().name);
+    assertEquals("item-601", itemRepository.findById(601L).orElseThrow().name);
+    assertEquals(1, itemRepository.findByField("name", "unnumbered").size());
+  }
+
+  @Test
+  void testDuplicateChildIdsInOneSaveAreMerged() {
+    PlayerEntity player = new PlayerEntity(1L, "Steve");
+    player.items.add(new ItemEntity(7L, "first"));
+    player.items.add(new ItemEntity(7L, "second"));
+
+    playerRepository.save(player);
+
+    assertEquals(1L, itemRepository.query().count());
+    assertEquals("second", itemRepository.findById(7L).orElseThrow().name);
+  }
+
+  @Test
+  void testIdFilterSkipsExistenceCheckForNewChildren() {
+    itemRepository.enableIdFilter(1_000, 0.01);
+    PlayerEntity player = new PlayerEntity(1L, "Steve");
+    for (long i = 1; i <= 100; i++) {
+      player.items.add(new ItemEntity(i, "item-" + i));
+    }
+
+    playerRepository.save(player);
+
+    assertEquals(100, itemRepository.getIdFilterStats().selectsSaved());
+    assertEquals(100L, itemRepository.query().count());
+  }
+
+  @Test
+  void testIdentityChildrenGetIdsAndJoinRows() {
+    EntityRepository<GuildEntity, Long> guildRepository =
+        flexOrm.getEntityRepository(GuildEntity.class);
+    GuildEntity guild = new GuildEntity(1L, "Miners");
+    for (int i = 0; i < 3; i++) {
+      guild.items.add(new ItemEntity(null, "pick-" + i));
+    }
+
+    guildRepository.save(guild);
+
+    assertTrue(guild.items.stream().allMatch(item -> item.id != null));
+    assertEquals(3, guild.items.stream().map(item -> item.id).distinct().count());
+    assertEquals("pick-2", itemRepository.findById(guild.items.get(2).id).orElseThrow().name);
+    assertEquals(3L, countJoinRows());
+
+    guildRepository.save(guild);
+
+    assertEquals(3L, itemRepository.query().count());
+    assertEquals(3L, countJoinRows());
+  }
+
+  private long countJoinRows() {
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(
+            "SELECT COUNT(*) FROM guild_items")) {
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getLong(1);
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @OrmEntity(table = "players")
+  public static class PlayerEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToMany(targetEntity = ItemEntity.class, mappedBy = "owner", fetch = FetchType.LAZY, cascade = true)
+    private List<ItemEntity> items = new ArrayList<>();
+
+    public PlayerEntity() {
+    }
+
+    public PlayerEntity(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  @OrmEntity(table = "guilds")
+  public static class GuildEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToMany(targetEntity = ItemEntity.class, joinTable = "guild_items",
+        joinColumn = "guild_id", inverseJoinColumn = "item_id", cascade = true)
+    private List<ItemEntity> items = new ArrayList<>();
+
+    public GuildEntity() {
+    }
+
+    public GuildEntity(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  @OrmEntity(table = "items")
+  public static class ItemEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = PlayerEntity.class, joinColumn = "owner_id", fetch = FetchType.LAZY)
+    private PlayerEntity owner;
+
+    public ItemEntity() {
+    }
+
+    public ItemEntity(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class ConcurrentRelationLoadingTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<ProjectEntity, Long> projectRepository;
+
+  @BeforeEach
+  void setUp() {
+    flexOrm = FlexOrm.sqllite(tempDir.resolve("concurrent-loading-test.db").toFile());
+    flexOrm.connect();
+    flexOrm.setRelationLoadParallelism(4);
+    projectRepository = flexOrm.getEntityRepository(ProjectEntity.class);
+    projectRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS people (id INTEGER PRIMARY KEY, name TEXT)");
+    projectRepository.executeUpdate("CREATE TABLE IF NOT EXISTS projects"
+        + " (id INTEGER PRIMARY KEY, name TEXT, owner_id INTEGER, reviewer_id INTEGER)");
+    projectRepository.executeUpdate("CREATE TABLE IF NOT EXISTS tasks"
+        + " (id INTEGER PRIMARY KEY, summary TEXT, project_id INTEGER)");
+    projectRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS tags (id INTEGER PRIMARY KEY, name TEXT)");
+    projectRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS project_tags (project_id INTEGER, tag_id INTEGER)");
+    projectRepository.executeUpdate(
+        "INSERT INTO people (id, name) VALUES (1, 'Ada'), (2, 'Grace')");
+    projectRepository.executeUpdate("INSERT INTO projects (id, name, owner_id, reviewer_id)"
+        + " VALUES (1, 'compiler', 1, 2), (2, 'linker', 2, 1)");
+    projectRepository.executeUpdate("INSERT INTO tasks (id, summary, project_id) VALUES"
+        + " (1, 'parse', 1), (2, 'emit', 1), (3, 'relocate', 2)");
+    projectRepository.executeUpdate("INSERT INTO tags (id, name) VALUES (1, 'core'), (2, 'infra')");
+    projectRepository.executeUpdate(
+        "INSERT INTO project_tags (project_id, tag_id) VALUES (1, 1), (2, 1), (2, 2)");
+  }
+
+  @AfterEach
+  void tearDown() {
+    flexOrm.shutdown();
+  }
+
+  @Test
+  void testIndependentRelationsLoadTogether() {
+    List<ProjectEntity> projects = new ArrayList<>(projectRepository.findAll());
+    projects.sort(Comparator.comparing(project -> project.id));
+
+    ProjectEntity compiler = projects.get(0);
+    ProjectEntity linker = projects.get(1);
+    assertEquals("Ada", compiler.owner.name);
+    assertEquals("Grace", compiler.reviewer.name);
+    assertSame(compiler.owner, linker.reviewer);
+    assertSame(compiler.reviewer, linker.owner);
+    assertEquals(Set.of("parse", "emit"), compiler.tasks.stream()
+        .map(task -> task.summary).collect(Collectors.toSet()));
+    assertSame(compiler, compiler.tasks.get(0).project);
+    assertEquals(Set.of("core", "infra"), linker.tags.stream()
+        .map(tag -> tag.name).collect(Collectors.toSet()));
+  }
+
+  @Test
+  void testTransactionsLoadOnTheirOwnConnection() {
+    projectRepository.beginTransaction();
+    try {
+      projectRepository.link(1L, "tags", 2L);
+
+      ProjectEntity compiler = projectRepository.findById(1L).orElseThrow();
+      assertEquals(Set.of("core", "infra"), tagNames(compiler));
+      assertEquals(2, compiler.tasks.size());
+    } finally {
+      projectRepository.rollbackTransaction();
+    }
+
+    assertEquals(Set.of("core"), tagNames(projectRepository.findById(1L).orElseThrow()));
+  }
+
+  @Test
+  void testParallelismMustBePositive() {
+    assertThrows(IllegalArgumentException.class, () -> flexOrm.setRelationLoadParallelism(0));
+  }
+
+  private Set<String> tagNames(ProjectEntity project) {
+    return project.tags.stream().map(tag -> tag.name).collect(Collectors.toSet());
+  }
+
+  @OrmEntity(table = "people")
+  public static class PersonEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public PersonEntity() {
+    }
+  }
+
+  @OrmEntity(table = "projects")
+  public static class ProjectEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = PersonEntity.class)
+    private PersonEntity owner;
+
+    @OrmManyToOne(targetEntity = PersonEntity.class)
+    private PersonEntity reviewer;
+
+    @OrmOneToMany(targetEntity = TaskEntity.class, mappedBy = "project", fetch = FetchType.EAGER)
+    private List<TaskEntity> tasks = new ArrayList<>();
+
+    @OrmManyToMany(targetEntity = TagEntity.class, joinTable = "project_tags",
+        joinColumn = "project_id", inverseJoinColumn = "tag_id", fetch = FetchType.EAGER)
+    private List<TagEntity> tags = new ArrayList<>();
+
+    public ProjectEntity() {
+    }
+  }
+
+  @OrmEntity(table = "tasks")
+  public static class TaskEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String summary;
+
+    @OrmManyToOne(targetEntity = ProjectEntity.class)
+    private ProjectEntity project;
+
+    public TaskEntity() {
+    }
+  }
+
+  @OrmEntity(table = "tags")
+  public static class TagEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public TagEntity() {
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class FetchPlanTest {
+
+  private static final FetchPlan BOOK_CARD = FetchPlan.of("labels.category").join("author");
+
+  @TempDir
+  Path tempDir;
+
+  private EntityRepository<AuthorEntity, Long> authorRepository;
+  private EntityRepository<BookEntity, Long> bookRepository;
+
+  @BeforeEach
+  void setUp() {
+    FlexOrm flexOrm = FlexOrm.sqllite(tempDir.resolve("fetch-plan-test.db").toFile());
+    flexOrm.connect();
+    authorRepository = flexOrm.getEntityRepository(AuthorEntity.class);
+    bookRepository = flexOrm.getEntityRepository(BookEntity.class);
+    authorRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS authors (id INTEGER PRIMARY KEY, name TEXT)");
+    authorRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS books (id INTEGER PRIMARY KEY, title TEXT, author_id INTEGER)");
+    authorRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS labels (id INTEGER PRIMARY KEY, name TEXT, category_id INTEGER)");
+    authorRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS categories (id INTEGER PRIMARY KEY, name TEXT)");
+    authorRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS book_labels (book_id INTEGER, label_id INTEGER)");
+    authorRepository.executeUpdate("INSERT INTO authors (id, name) VALUES (1, 'Ursula'), (2, 'Iain')");
+    authorRepository.executeUpdate("INSERT INTO books (id, title, author_id) VALUES"
+        + " (1, 'Earthsea', 1), (2, 'Lathe', 1), (3, 'Culture', 2)");
+    authorRepository.executeUpdate("INSERT INTO categories (id, name) VALUES (1, 'genre')");
+    authorRepository.executeUpdate("INSERT INTO labels (id, name, category_id) VALUES"
+        + " (1, 'fantasy', 1), (2, 'classic', NULL)");
+    authorRepository.executeUpdate(
+        "INSERT INTO book_labels (book_id, label_id) VALUES (1, 1), (1, 2), (3, 1)");
+  }
+
+  @Test
+  void testQueryLoadsNestedPathsAndJoins() {
+    List<BookEntity> books = bookRepository.query()
+        .fetch(BOOK_CARD)
+        .orderBy("id")
+        .execute();
+
+    BookEntity earthsea = books.get(0);
+    assertEquals("Ursula", earthsea.author.name);
+    assertSame(earthsea.author, books.get(1).author);
+    assertInstanceOf(LinkedHashSet.class, earthsea.labels);
+    assertEquals(Set.of("fantasy", "classic"), earthsea.labels.stream()
+        .map(label -> label.name).collect(Collectors.toSet()));
+    LabelEntity fantasy = earthsea.labels.stream()
+        .filter(label -> label.name.equals("fantasy")).findFirst().orElseThrow();
+    assertEquals("genre", fantasy.category.name);
+    assertTrue(books.get(1).labels.isEmpty());
+  }
+
+  @Test
+  void testPlanReplacesAnnotationDefaults() {
+    AuthorEntity bare = authorRepository.findById(1L, FetchPlan.none()).orElseThrow();
+    assertFalse(Lazy.isInitialized(bare.books));
+
+    AuthorEntity loaded = authorRepository.findById(1L, FetchPlan.of("books.author"))
+        .orElseThrow();
+    assertTrue(Lazy.isInitialized(loaded.books));
+    assertEquals(2, loaded.books.size());
+    assertEquals("Ursula", loaded.books.get(0).author.name);
+
+    BookEntity plain = bookRepository.findById(1L).orElseThrow();
+    assertNull(plain.author);
+  }
+
+  @Test
+  void testFindAllByIdAndFindAllAcceptPlans() {
+    List<BookEntity> books = bookRepository.findAllById(List.of(3L, 1L, 3L),
+        FetchPlan.of("author", "labels"));
+
+    assertEquals(Set.of(1L, 3L), books.stream().map(book -> book.id).collect(Collectors.toSet()));
+    assertTrue(books.stream().allMatch(book -> book.author != null && book.labels.size() > 0));
+
+    List<AuthorEntity> authors = authorRepository.findAll(FetchPlan.of("books"));
+    assertTrue(authors.stream().allMatch(author -> Lazy.isInitialized(author.books)));
+  }
+
+  @Test
+  void testUnknownRelationIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> bookRepository.query().fetch("publisher").execute());
+    assertThrows(IllegalArgumentException.class,
+        () -> FetchPlan.of("labels").join("labels.category"));
+  }
+
+  @OrmEntity(table = "authors")
+  public static class AuthorEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToMany(targetEntity = BookEntity.class, mappedBy = "author")
+    private List<BookEntity> books = new ArrayList<>();
+
+    public AuthorEntity() {
+    }
+  }
+
+  @OrmEntity(table = "books")
+  public static class BookEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String title;
+
+    @OrmManyToOne(targetEntity = AuthorEntity.class, fetch = FetchType.LAZY)
+    private AuthorEntity author;
+
+    @OrmManyToMany(targetEntity = LabelEntity.class, joinTable = "book_labels",
+        joinColumn = "book_id", inverseJoinColumn = "label_id")
+    private Set<LabelEntity> labels;
+
+    public BookEntity() {
+    }
+  }
+
+  @OrmEntity(table = "labels")
+  public static class LabelEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = CategoryEntity.class, fetch = FetchType.LAZY)
+    private CategoryEntity category;
+
+    public LabelEntity() {
+    }
+  }
+
+  @OrmEntity(table = "categories")
+  public static class CategoryEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    public CategoryEntity() {
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.FetchType;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class LazyLoadingTest {
+
+  @TempDir
+  Path tempDir;
+
+  private EntityRepository<ShelfEntity, Long> shelfRepository;
+  private EntityRepository<VolumeEntity, Long> volumeRepository;
+
+  @BeforeEach
+  void setUp() {
+    FlexOrm flexOrm = FlexOrm.sqllite(tempDir.resolve("lazy-loading-test.db").toFile());
+    flexOrm.connect();
+    shelfRepository = flexOrm.getEntityRepository(ShelfEntity.class);
+    volumeRepository = flexOrm.getEntityRepository(VolumeEntity.class);
+    shelfRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS shelves (id INTEGER PRIMARY KEY, name TEXT)");
+    shelfRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS volumes"
+        + " (id INTEGER PRIMARY KEY, title TEXT, shelf_id INTEGER, tag_id INTEGER)");
+    shelfRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS tags (id INTEGER PRIMARY KEY, label TEXT)");
+    shelfRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS shelf_tags (shelf_id INTEGER, tag_id INTEGER)");
+    shelfRepository.executeUpdate(
+        "INSERT INTO shelves (id, name) VALUES (1, 'north'), (2, 'south'), (3, 'empty')");
+    shelfRepository.executeUpdate("INSERT INTO volumes (id, title, shelf_id, tag_id) VALUES"
+        + " (1, 'alpha', 1, 2), (2, 'beta', 1, NULL), (3, 'gamma', 2, NULL), (4, 'loose', NULL, 1)");
+    shelfRepository.executeUpdate("INSERT INTO tags (id, label) VALUES (1, 'old'), (2, 'rare')");
+    shelfRepository.executeUpdate(
+        "INSERT INTO shelf_tags (shelf_id, tag_id) VALUES (1, 1), (1, 2), (2, 2)");
+  }
+
+  @Test
+  void testCollectionsLoadForAllSiblingsOnFirstAccess() {
+    Map<Long, ShelfEntity> byId = shelfRepository.findAll().stream()
+        .collect(Collectors.toMap(shelf -> shelf.id, Function.identity()));
+
+    ShelfEntity north = byId.get(1L);
+    ShelfEntity south = byId.get(2L);
+    assertInstanceOf(LazyList.class, north.volumes);
+    assertFalse(Lazy.isInitialized(north.volumes));
+    assertFalse(Lazy.isInitialized(south.volumes));
+
+    assertEquals(2, north.volumes.size());
+    assertTrue(Lazy.isInitialized(north.volumes));
+    assertEquals(List.of("gamma"), south.volumes.stream().map(volume -> volume.title).toList());
+    assertTrue(byId.get(3L).volumes.isEmpty());
+
+    assertInstanceOf(LazySet.class, north.tags);
+    assertEquals(Set.of("old", "rare"), north.tags.stream()
+        .map(tag -> tag.label).collect(Collectors.toSet()));
+    assertEquals(1, south.tags.size());
+  }
+
+  @Test
+  void testLazyHolderLoadsToOneRelation() {
+    Map<Long, VolumeEntity> byId = volumeRepository.findAll().stream()
+        .collect(Collectors.toMap(volume -> volume.id, Function.identity()));
+
+    VolumeEntity alpha = byId.get(1L);
+    assertFalse(alpha.shelf.isLoaded());
+    assertEquals("north", alpha.shelf.get().name);
+    assertSame(alpha.shelf.get(), byId.get(2L).shelf.get());
+    assertNull(byId.get(4L).shelf.get());
+  }
+
+  @Test
+  void testLazilyLoadedEntitiesLoadTheirRelations() {
+    ShelfEntity north = shelfRepository.findById(1L).orElseThrow();
+
+    VolumeEntity alpha = north.volumes.stream()
+        .filter(volume -> volume.id == 1L).findFirst().orElseThrow();
+    assertEquals("rare", alpha.tag.label);
+    assertFalse(alpha.shelf.isLoaded());
+    assertSame(north, alpha.shelf.get());
+  }
+
+  @Test
+  void testCascadeSaveSkipsUnloadedCollections() {
+    ShelfEntity north = shelfRepository.findById(1L).orElseThrow();
+    north.name = "renamed";
+    shelfRepository.save(north);
+
+    assertFalse(Lazy.isInitialized(north.volumes));
+    ShelfEntity reloaded = shelfRepository.findById(1L).orElseThrow();
+    assertEquals("renamed", reloaded.name);
+    assertEquals(2, reloaded.volumes.size());
+    assertEquals(2, reloaded.tags.size());
+  }
+
+  @OrmEntity(table = "shelves")
+  public static class ShelfEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToMany(targetEntity = VolumeEntity.class, mappedBy = "shelf", cascade = true)
+    private List<VolumeEntity> volumes = new ArrayList<>();
+
+    @OrmManyToMany(targetEntity = TagEntity.class, joinTable = "shelf_tags",
+        joinColumn = "shelf_id", inverseJoinColumn = "tag_id", fetch = FetchType.LAZY,
+        cascade = true)
+    private Set<TagEntity> tags;
+
+    public ShelfEntity() {
+    }
+  }
+
+  @OrmEntity(table = "volumes")
+  public static class VolumeEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String title;
+
+    @OrmManyToOne(targetEntity = ShelfEntity.class, fetch = FetchType.LAZY)
+    private Lazy<ShelfEntity> shelf;
+
+    @OrmManyToOne(targetEntity = TagEntity.class)
+    private TagEntity tag;
+
+    public VolumeEntity() {
+    }
+  }
+
+  @OrmEntity(table = "tags")
+  public static class TagEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String label;
+
+    public TagEntity() {
+    }
+  }
+}
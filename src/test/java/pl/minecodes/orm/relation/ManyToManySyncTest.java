@@ -0,0 +1,178 @@
+package pl.minecodes.orm.relation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class ManyToManySyncTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<PostEntity, Long> postRepository;
+
+  @BeforeEach
+  void setUp() {
+    flexOrm = FlexOrm.sqllite(tempDir.resolve("many-to-many-test.db").toFile());
+    flexOrm.connect();
+    postRepository = flexOrm.getEntityRepository(PostEntity.class);
+    postRepository.executeUpdate("CREATE TABLE IF NOT EXISTS posts (id INTEGER PRIMARY KEY, title TEXT)");
+    postRepository.executeUpdate("CREATE TABLE IF NOT EXISTS tags (id INTEGER PRIMARY KEY, label TEXT)");
+    postRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS post_tags (post_id INTEGER, tag_id INTEGER)");
+    for (int i = 1; i <= 5; i++) {
+      postRepository.executeUpdate("INSERT INTO tags (id, label) VALUES (" + i + ", 'tag-" + i + "')");
+    }
+  }
+
+  @Test
+  void testSaveAppliesOnlyLinkDifferences() throws SQLException {
+    PostEntity post = new PostEntity(1L, "Hello");
+    post.tags.add(new TagEntity(1L));
+    post.tags.add(new TagEntity(2L));
+    post.tags.add(new TagEntity(3L));
+    postRepository.save(post);
+    long untouchedRowId = queryLongs("SELECT rowid FROM post_tags WHERE tag_id = 1").get(0);
+
+    post.tags.removeIf(tag -> tag.id == 2L);
+    post.tags.add(new TagEntity(4L));
+    postRepository.save(post);
+
+    assertEquals(List.of(1L, 3L, 4L), queryLongs("SELECT tag_id FROM post_tags ORDER BY tag_id"));
+    assertEquals(untouchedRowId, queryLongs("SELECT rowid FROM post_tags WHERE tag_id = 1").get(0));
+  }
+
+  @Test
+  void testNoOpSaveDoesNotRewriteLinks() throws SQLException {
+    PostEntity post = new PostEntity(1L, "Hello");
+    for (long i = 1; i <= 5; i++) {
+      post.tags.add(new TagEntity(i));
+    }
+    postRepository.save(post);
+    List<Long> rowIds = queryLongs("SELECT rowid FROM post_tags ORDER BY rowid");
+
+    postRepository.save(post);
+
+    assertEquals(rowIds, queryLongs("SELECT rowid FROM post_tags ORDER BY rowid"));
+  }
+
+  @Test
+  void testSavingEmptyCollectionRemovesLinks() throws SQLException {
+    PostEntity post = new PostEntity(1L, "Hello");
+    post.tags.add(new TagEntity(1L));
+    post.tags.add(new TagEntity(2L));
+    postRepository.save(post);
+
+    post.tags.clear();
+    postRepository.save(post);
+
+    assertTrue(queryLongs("SELECT tag_id FROM post_tags").isEmpty());
+  }
+
+  @Test
+  void testLinkSkipsExistingKeyedLinks() throws SQLException {
+    postRepository.executeUpdate("DROP TABLE post_tags");
+    postRepository.executeUpdate("CREATE TABLE post_tags"
+        + " (post_id INTEGER, tag_id INTEGER, PRIMARY KEY (post_id, tag_id))");
+    PostEntity post = new PostEntity(1L, "Hello");
+    post.tags.add(new TagEntity(3L));
+    postRepository.save(post);
+
+    postRepository.link(1L, "tags", 3L);
+    post.tags.add(new TagEntity(4L));
+    postRepository.link(1L, "tags", 4L);
+    postRepository.save(post);
+
+    assertEquals(List.of(3L, 4L), queryLongs("SELECT tag_id FROM post_tags ORDER BY tag_id"));
+  }
+
+  @Test
+  void testLinkAndUnlinkSingleAssociations() throws SQLException {
+    postRepository.save(new PostEntity(1L, "Hello"));
+
+    postRepository.link(1L, "tags", 5L);
+    postRepository.link(1L, "tags", 5L);
+    postRepository.link(1L, "tags", 2L);
+    assertEquals(List.of(2L, 5L), queryLongs("SELECT tag_id FROM post_tags ORDER BY tag_id"));
+
+    postRepository.unlink(1L, "tags", 5L);
+    assertEquals(List.of(2L), queryLongs("SELECT tag_id FROM post_tags ORDER BY tag_id"));
+  }
+
+  @Test
+  void testLinkRequiresManyToManyField() {
+    assertThrows(IllegalArgumentException.class, () -> postRepository.link(1L, "title", 1L));
+  }
+
+  private List<Long> queryLongs(String sql) throws SQLException {
+    List<Long> values = new ArrayList<>();
+    try (Connection connection = DriverManager.getConnection(
+        "jdbc:sqlite:" + tempDir.resolve("many-to-many-test.db"));
+        ResultSet resultSet = connection.createStatement().executeQuery(sql)) {
+      while (resultSet.next()) {
+        values.add(resultSet.getLong(1));
+      }
+    }
+    return values;
+  }
+
+  @OrmEntity(table = "posts")
+  public static class PostEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String title;
+
+    @OrmManyToMany(targetEntity = TagEntity.class, joinTable = "post_tags", joinColumn = "post_id",
+        inverseJoinColumn = "tag_id")
+    private Set<TagEntity> tags = new LinkedHashSet<>();
+
+    public PostEntity() {
+    }
+
+    public PostEntity(Long id, String title) {
+      this.id = id;
+      this.title = title;
+    }
+  }
+
+  @OrmEntity(table = "tags")
+  public static class TagEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String label;
+
+    public TagEntity() {
+    }
+
+    public TagEntity(Long id) {
+      this.id = id;
+      this.label = "tag-" + id;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package pl.minecodes.orm.table;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -15,7 +16,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +28,9 @@ import pl.minecodes.orm.annotation.OrmEntity;
 import pl.minecodes.orm.annotation.OrmEntityId;
 import pl.minecodes.orm.annotation.OrmField;
 import pl.minecodes.orm.annotation.OrmIndex;
+import pl.minecodes.orm.annotation.OrmManyToMany;
+import pl.minecodes.orm.annotation.OrmManyToOne;
+import pl.minecodes.orm.annotation.OrmOneToMany;
 import pl.minecodes.orm.exception.ObjectRequiredAnnotationsException;
 
 class TableManagerTest {
@@ -151,6 +157,62 @@ class TableManagerTest {
     assertTrue(columnsBefore.contains("name"));
   }
 
+  @Test
+  void testRelationFieldsBecomeForeignKeyColumnsAndJoinTables() throws SQLException {
+    tableManager.createTable(TrophyEntity.class);
+    tableManager.createTable(TeamEntity.class);
+    tableManager.createTable(PlayerEntity.class);
+
+    assertEquals(Set.of("id", "name"), getTableColumns("teams"));
+    assertEquals(Set.of("id", "name", "team_id"), getTableColumns("players"));
+    assertEquals(Set.of("id", "name", "teams_id"), getTableColumns("trophies"));
+    assertEquals(Set.of("teams_id", "sponsors_id"), getTableColumns("teams_sponsors"));
+    assertTrue(indexExists("idx_players_team_id"));
+    assertTrue(indexExists("idx_trophies_teams_id"));
+    assertTrue(indexExists("idx_teams_sponsors_sponsors_id"));
+
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection conn = dataSource.getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.execute("INSERT INTO teams_sponsors (teams_id, sponsors_id) VALUES (1, 2)");
+      assertThrows(SQLException.class,
+          () -> stmt.execute("INSERT INTO teams_sponsors (teams_id, sponsors_id) VALUES (1, 2)"));
+    }
+  }
+
+  @Test
+  void testUnidirectionalOneToManyRequiresChildTable() {
+    assertThrows(IllegalStateException.class, () -> tableManager.createTable(TeamEntity.class));
+  }
+
+  @Test
+  void testUpdateTableAddsForeignKeyColumn() throws SQLException {
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection conn = dataSource.getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT)");
+    }
+
+    tableManager.updateTable(PlayerEntity.class);
+
+    assertEquals(Set.of("id", "name", "team_id"), getTableColumns("players"));
+    assertTrue(indexExists("idx_players_team_id"));
+  }
+
+  @Test
+  void testExistingIndexLeadingWithForeignKeyColumnIsReused() throws SQLException {
+    HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
+    try (Connection conn = dataSource.getConnection();
+        Statement stmt = conn.createStatement()) {
+      stmt.execute("CREATE TABLE players (id INTEGER PRIMARY KEY, name TEXT, team_id INTEGER)");
+      stmt.execute("CREATE INDEX players_by_team ON players (team_id, name)");
+    }
+
+    tableManager.updateTable(PlayerEntity.class);
+
+    assertFalse(indexExists("idx_players_team_id"));
+  }
+
   private boolean indexExists(String indexName) throws SQLException {
     HikariDataSource dataSource = (HikariDataSource) flexOrm.getConnection().getConnection();
     try (Connection conn = dataSource.getConnection();
@@ -352,4 +414,56 @@ class TableManagerTest {
       this.id = id;
     }
   }
+
+  @OrmEntity(table = "teams")
+  public static class TeamEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmOneToMany(targetEntity = PlayerEntity.class, mappedBy = "team")
+    private List<PlayerEntity> players = new ArrayList<>();
+
+    @OrmOneToMany(targetEntity = TrophyEntity.class)
+    private List<TrophyEntity> trophies = new ArrayList<>();
+
+    @OrmManyToMany(targetEntity = SponsorEntity.class)
+    private List<SponsorEntity> sponsors = new ArrayList<>();
+  }
+
+  @OrmEntity(table = "players")
+  public static class PlayerEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmManyToOne(targetEntity = TeamEntity.class)
+    private TeamEntity team;
+  }
+
+  @OrmEntity(table = "trophies")
+  public static class TrophyEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+  }
+
+  @OrmEntity(table = "sponsors")
+  public static class SponsorEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+  }
 }
@@ -0,0 +1,147 @@
+package pl.minecodes.orm.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class DataTransferTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm source;
+  private FlexOrm target;
+  private EntityRepository<MemberEntity, Long> sourceRepository;
+  private EntityRepository<MemberEntity, Long> targetRepository;
+
+  @BeforeEach
+  void setUp() {
+    source = FlexOrm.sqllite(tempDir.resolve("transfer-source.db").toFile());
+    source.connect();
+    target = FlexOrm.sqllite(tempDir.resolve("transfer-target.db").toFile());
+    target.connect();
+
+    sourceRepository = source.getEntityRepository(MemberEntity.class);
+    sourceRepository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS members (id INTEGER PRIMARY KEY AUTOINCREMENT, nickname TEXT, premium INTEGER)");
+    sourceRepository.executeUpdate("WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 2500) "
+        + "INSERT INTO members (nickname, premium) SELECT 'member-' || n, n % 3 = 0 FROM seq");
+    targetRepository = target.getEntityRepository(MemberEntity.class);
+  }
+
+  @AfterEach
+  void tearDown() {
+    source.shutdown();
+    target.shutdown();
+  }
+
+  @Test
+  void testTransfersWholeTableInChunks() {
+    List<TransferStats> progress = new ArrayList<>();
+
+    TransferStats stats = new DataTransfer(source, target)
+        .chunkSize(1_000)
+        .onProgress(progress::add)
+        .transfer(MemberEntity.class);
+
+    assertEquals(2_500, stats.rows());
+    assertEquals(3, stats.chunks());
+    assertEquals(2_500L, stats.lastId());
+    assertFalse(stats.resumed());
+    assertEquals(3, progress.size());
+    assertEquals(2_500L, targetRepository.query().count());
+
+    MemberEntity member = targetRepository.findById(300L).orElseThrow();
+    assertEquals("member-300", member.nickname);
+    assertTrue(member.premium);
+  }
+
+  @Test
+  void testInterruptedTransferResumesFromCheckpoint() {
+    Path checkpoint = tempDir.resolve("transfer.checkpoint");
+    DataTransfer failing = new DataTransfer(source, target)
+        .chunkSize(500)
+        .checkpointFile(checkpoint)
+        .onProgress(stats -> {
+          if (stats.chunks() == 2) {
+            throw new IllegalStateException("Simulated crash");
+          }
+        });
+
+    assertThrows(RuntimeException.class, () -> failing.transfer(MemberEntity.class));
+    assertTrue(Files.exists(checkpoint));
+    assertEquals(1_000L, targetRepository.query().count());
+
+    TransferStats stats = new DataTransfer(source, target)
+        .chunkSize(500)
+        .checkpointFile(checkpoint)
+        .transfer(MemberEntity.class);
+
+    assertTrue(stats.resumed());
+    assertEquals(1_500, stats.rows());
+    assertEquals(2_500L, targetRepository.query().count());
+  }
+
+  @Test
+  void testExistingRowsAreUpdatedInPlace() throws SQLException {
+    targetRepository.executeUpdate("CREATE TABLE members"
+        + " (id INTEGER PRIMARY KEY AUTOINCREMENT, nickname TEXT, premium INTEGER)");
+    targetRepository.executeUpdate("CREATE TABLE badges (id INTEGER PRIMARY KEY,"
+        + " member_id INTEGER REFERENCES members (id) ON DELETE CASCADE)");
+    targetRepository.executeUpdate(
+        "INSERT INTO members (id, nickname, premium) VALUES (300, 'stale', 0)");
+    targetRepository.executeUpdate("INSERT INTO badges (id, member_id) VALUES (1, 300)");
+
+    new DataTransfer(source, target).chunkSize(1_000).transfer(MemberEntity.class);
+
+    assertEquals(2_500L, targetRepository.query().count());
+    MemberEntity member = targetRepository.findById(300L).orElseThrow();
+    assertEquals("member-300", member.nickname);
+    assertTrue(member.premium);
+    assertEquals(1L, countTargetRows("badges"));
+  }
+
+  private long countTargetRows(String table) throws SQLException {
+    try (Connection connection = DriverManager.getConnection(
+        "jdbc:sqlite:" + tempDir.resolve("transfer-target.db"));
+        ResultSet resultSet = connection.createStatement()
+            .executeQuery("SELECT COUNT(*) FROM " + table)) {
+      return resultSet.next() ? resultSet.getLong(1) : 0;
+    }
+  }
+
+  @OrmEntity(table = "members")
+  public static class MemberEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String nickname;
+
+    @OrmField
+    private Boolean premium;
+
+    public MemberEntity() {
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package pl.minecodes.orm.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.entity.EntityRepository;
+import pl.minecodes.orm.query.Operator;
+import pl.minecodes.orm.query.Query;
+
+class EntityExporterTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<ArticleEntity, Long> repository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("exporter-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    repository = flexOrm.getEntityRepository(ArticleEntity.class);
+    repository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS articles (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT, views INTEGER, published INTEGER)");
+  }
+
+  @AfterEach
+  void tearDown() {
+    flexOrm.shutdown();
+  }
+
+  @Test
+  void testExportsWholeTableBeyondDefaultQueryLimit() throws IOException {
+    repository.executeUpdate("WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 2500) "
+        + "INSERT INTO articles (title, views, published) SELECT 'article-' || n, n, n % 2 FROM seq");
+    Path file = tempDir.resolve("articles.csv");
+
+    ExportResult result = flexOrm.exporter(ArticleEntity.class).bufferSize(4096).exportTo(file);
+
+    assertEquals(2_500, result.rows());
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(2_501, lines.size());
+    assertEquals("id,title,views,published", lines.get(0));
+    assertEquals("1,article-1,1,true", lines.get(1));
+    assertEquals(Files.size(file), result.bytesWritten());
+  }
+
+  @Test
+  void testCsvExportRoundTripsThroughImporter() {
+    repository.executeUpdate("INSERT INTO articles (title, views, published) VALUES "
+        + "('quoted \"title\", with comma', 5, 1), ('multi\nline', NULL, 0), ('', 0, 0)");
+    Path file = tempDir.resolve("articles.csv");
+    flexOrm.exporter(ArticleEntity.class).exportTo(file);
+    repository.executeUpdate("DELETE FROM articles");
+
+    flexOrm.importer(ArticleEntity.class).importFrom(file);
+
+    assertEquals("quoted \"title\", with comma", repository.findById(1L).orElseThrow().title);
+    ArticleEntity multiline = repository.findById(2L).orElseThrow();
+    assertEquals("multi\nline", multiline.title);
+    assertEquals(null, multiline.views);
+    assertEquals("", repository.findById(3L).orElseThrow().title);
+  }
+
+  @Test
+  void testExportsQueryAsGzippedJsonLines() throws IOException {
+    repository.executeUpdate("INSERT INTO articles (title, views, published) VALUES "
+        + "('low', 1, 0), ('high', 100, 1), ('higher', 200, 1)");
+    Path file = tempDir.resolve("popular.jsonl.gz");
+    Query<ArticleEntity> query = repository.query()
+        .where("views", Operator.GREATER_THAN, 50)
+        .orderBy("views", false);
+
+    ExportResult result = flexOrm.exporter(ArticleEntity.class).query(query).exportTo(file);
+
+    assertEquals(2, result.rows());
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+      assertEquals("{\"id\":3,\"title\":\"higher\",\"views\":200,\"published\":true}",
+          reader.readLine());
+      assertTrue(reader.readLine().contains("\"title\":\"high\""));
+    }
+  }
+
+  @OrmEntity(table = "articles")
+  public static class ArticleEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String title;
+
+    @OrmField
+    private Integer views;
+
+    @OrmField
+    private Boolean published;
+
+    public ArticleEntity() {
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package pl.minecodes.orm.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.minecodes.orm.FlexOrm;
+import pl.minecodes.orm.annotation.OrmEntity;
+import pl.minecodes.orm.annotation.OrmEntityId;
+import pl.minecodes.orm.annotation.OrmField;
+import pl.minecodes.orm.entity.EntityRepository;
+
+class EntityImporterTest {
+
+  @TempDir
+  Path tempDir;
+
+  private FlexOrm flexOrm;
+  private EntityRepository<ProductEntity, Long> repository;
+
+  @BeforeEach
+  void setUp() {
+    File dbFile = tempDir.resolve("importer-test.db").toFile();
+    flexOrm = FlexOrm.sqllite(dbFile);
+    flexOrm.connect();
+    repository = flexOrm.getEntityRepository(ProductEntity.class);
+    repository.executeUpdate(
+        "CREATE TABLE IF NOT EXISTS products (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, price REAL, stock INTEGER, active INTEGER)");
+    repository.executeUpdate("CREATE INDEX IF NOT EXISTS idx_products_name ON products (name)");
+  }
+
+  @AfterEach
+  void tearDown() {
+    flexOrm.shutdown();
+  }
+
+  @Test
+  void testImportsCsvWithQuotedFields() throws IOException {
+    Path file = tempDir.resolve("products.csv");
+    Files.writeString(file, "name,price,stock,active\n"
+        + "plain,1.5,10,true\n"
+        + "\"with, comma\",2.0,,false\r\n"
+        + "\"multi\nline \"\"quoted\"\"\",3.25,7,1\n");
+
+    ImportResult result = flexOrm.importer(ProductEntity.class).importFrom(file);
+
+    assertEquals(3, result.rows());
+    assertEquals(3, repository.findAll().size());
+    ProductEntity commaRow = repository.findByField("price", 2.0).get(0);
+    assertEquals("with, comma", commaRow.name);
+    assertNull(commaRow.stock);
+    ProductEntity multiline = repository.findByField("price", 3.25).get(0);
+    assertEquals("multi\nline \"quoted\"", multiline.name);
+    assertTrue(multiline.active);
+  }
+
+  @Test
+  void testImportsGzippedJsonLinesInManyStatements() throws IOException {
+    Path file = tempDir.resolve("products.jsonl.gz");
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file));
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < 2_500; i++) {
+        writer.write("{\"name\":\"item-" + i + "\",\"price\":" + i + ",\"stock\":" + i + "}\n");
+      }
+    }
+
+    ImportResult result = flexOrm.importer(ProductEntity.class).batchSize(100).importFrom(file);
+
+    assertEquals(2_500, result.rows());
+    assertEquals(2_500L, repository.query().count());
+    assertEquals(42, repository.findByField("name", "item-42").get(0).stock);
+  }
+
+  @Test
+  void testIndexesAreRecreatedAfterImport() throws SQLException {
+    String csv = "id,name\n1,first\n2,second\n";
+
+    flexOrm.importer(ProductEntity.class)
+        .importFrom(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+    try (Connection connection = DriverManager.getConnection(
+        "jdbc:sqlite:" + tempDir.resolve("importer-test.db"));
+        ResultSet indexes = connection.createStatement().executeQuery(
+            "SELECT name FROM sqlite_master WHERE type = 'index' AND name = 'idx_products_name'")) {
+      assertTrue(indexes.next());
+    }
+    assertEquals("second", repository.findById(2L).orElseThrow().name);
+  }
+
+  @Test
+  void testEmptyInputImportsNothing() throws IOException {
+    Path jsonLines = tempDir.resolve("empty.jsonl");
+    Files.writeString(jsonLines, "");
+
+    assertEquals(0, flexOrm.importer(ProductEntity.class).importFrom(jsonLines).rows());
+    assertEquals(0L, repository.query().count());
+  }
+
+  @Test
+  void testUnknownColumnIsRejected() {
+    String csv = "name,color\nfirst,red\n";
+
+    assertThrows(IllegalArgumentException.class, () -> flexOrm.importer(ProductEntity.class)
+        .importFrom(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    assertEquals(0L, repository.query().count());
+  }
+
+  @Test
+  void testInvalidValueRollsBackImport() {
+    String csv = "name,stock\nfirst,1\nsecond,many\n";
+
+    assertThrows(IllegalArgumentException.class, () -> flexOrm.importer(ProductEntity.class)
+        .batchSize(1)
+        .importFrom(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))));
+    assertEquals(0L, repository.query().count());
+  }
+
+  @OrmEntity(table = "products")
+  public static class ProductEntity {
+
+    @OrmEntityId
+    private Long id;
+
+    @OrmField
+    private String name;
+
+    @OrmField
+    private Double price;
+
+    @OrmField
+    private Integer stock;
+
+    @OrmField
+    private Boolean active;
+
+    public ProductEntity() {
+    }
+  }
+}